@@ -0,0 +1,33 @@
+package CalendarSystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the alerts still to come, which the alert menu does each time it is shown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AlertBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private AlertSystem alerts;
+
+    @Setup
+    public void setUp() {
+        alerts = BenchmarkCalendars.build(size).getMyAlerts();
+    }
+
+    @Benchmark
+    public Set<Alert> getCurrAlerts() {
+        return alerts.getCurrAlerts();
+    }
+}
@@ -0,0 +1,57 @@
+package CalendarSystem;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Sets up the generated calendars the benchmarks run on. Every size has about ten events a day, so
+ * the queries for one day or time find about as many events whatever the size; the number of memos,
+ * series and alerts grows with the number of events.
+ */
+final class BenchmarkCalendars {
+
+    /**
+     * The seed of every generated calendar, so every run measures the same calendars.
+     */
+    static final long SEED = 207;
+
+    /**
+     * The tag on the most events.
+     */
+    static final String COMMON_TAG = "tag0";
+
+    private BenchmarkCalendars() {
+    }
+
+    /**
+     * Gets a generator of a calendar with the specified number of events.
+     */
+    static CalendarGenerator generator(int size) {
+        CalendarGenerator generator = new CalendarGenerator(SEED);
+        generator.setEvents(size);
+        generator.setTags(8);
+        generator.setMemos(size / 50, 3);
+        generator.setSeries(size / 1000, 24);
+        generator.setAlerts(size / 20, size / 200);
+        generator.setRange(LocalDateTime.of(2020, 1, 1, 0, 0), Math.max(1, size / 10));
+        return generator;
+    }
+
+    /**
+     * Gets a clock stopped at midday halfway through the days of the specified generator, so about
+     * half of the events are past and half are future.
+     */
+    static Clock midpoint(CalendarGenerator generator) {
+        LocalDateTime now = generator.getStart().plusDays(generator.getDays() / 2).plusHours(12).plusMinutes(1);
+        return Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    /**
+     * Builds a calendar with the specified number of events, whose clock is stopped halfway through them.
+     */
+    static Calendar build(int size) {
+        CalendarGenerator generator = generator(size);
+        return generator.generate(midpoint(generator));
+    }
+}
@@ -0,0 +1,63 @@
+package CalendarSystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the queries the main menu and the event menu run on the selected calendar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CalendarQueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Calendar calendar;
+    private LocalDate date;
+    private Memo memo;
+
+    @Setup
+    public void setUp() {
+        calendar = BenchmarkCalendars.build(size);
+        date = LocalDate.now(calendar.getClock());
+        memo = calendar.getMyMemos().get(calendar.getMyMemos().size() / 2);
+    }
+
+    @Benchmark
+    public ArrayList<Event> findEventByDate() {
+        return calendar.findEvent(date);
+    }
+
+    @Benchmark
+    public ArrayList<Event> findEventByTag() {
+        return calendar.findEvent(BenchmarkCalendars.COMMON_TAG);
+    }
+
+    @Benchmark
+    public ArrayList<Event> findEventByMemo() {
+        return calendar.findEvent(memo);
+    }
+
+    @Benchmark
+    public ArrayList<Event> getPastEvents() {
+        return calendar.getPastEvents();
+    }
+
+    @Benchmark
+    public ArrayList<Event> getCurrentEvents() {
+        return calendar.getCurrentEvents();
+    }
+
+    @Benchmark
+    public ArrayList<Event> getFutureEvents() {
+        return calendar.getFutureEvents();
+    }
+}
@@ -0,0 +1,55 @@
+package CalendarSystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures saving the selected calendar to its file in full and reading it back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Path directory;
+    private CalendarManager manager;
+
+    @Setup
+    public void setUp() throws IOException, ClassNotFoundException {
+        directory = Files.createTempDirectory("calendar-bench");
+        CalendarGenerator generator = BenchmarkCalendars.generator(size);
+        manager = new CalendarManager(directory.resolve("bench_").toString(), BenchmarkCalendars.midpoint(generator));
+        generator.writeTo(manager, "generated");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        manager.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void saveToFile() throws IOException {
+        manager.saveToFile();
+    }
+
+    @Benchmark
+    public Calendar readFromFile() throws ClassNotFoundException {
+        manager.readFromFile();
+        return manager.getCalendar();
+    }
+}
@@ -0,0 +1,32 @@
+package CalendarSystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a series of daily events into an empty series system.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SeriesBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 9, 0);
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Benchmark
+    public Collection<Event> buildSeries() {
+        return new SeriesSystem().buildSeries("Daily", Duration.ofHours(1), Period.ofDays(1), size,
+                START);
+    }
+}
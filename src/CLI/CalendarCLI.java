@@ -0,0 +1,112 @@
+package CLI;
+
+import CalendarSystem.CalendarManager;
+import CalendarSystem.UserStore;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * A command line interface to the users' calendars, for scripts and jobs that run without a display.
+ * It drives the CalendarSystem directly and does not load JavaFX.
+ * <p>
+ * Usage:
+ * <pre>
+ *     java CLI.CalendarCLI &lt;user&gt; &lt;command&gt; [argument...]
+ *     java CLI.CalendarCLI &lt;user&gt; batch [file]
+ * </pre>
+ * The first form runs one command and saves the changes. In batch mode, commands are read one per line
+ * from the file, or from standard input if there is no file or it is "-"; the changes are held in
+ * memory and written once at the end. A batch stops at the first command that fails; the changes made
+ * before it are still written. The commands are listed by the help command.
+ *
+ * @see CommandInterpreter
+ */
+public class CalendarCLI {
+
+    /**
+     * How long the changes of a batch are held before they are written, unless the batch ends first.
+     */
+    private static final Duration BATCH_HOLD = Duration.ofDays(1);
+
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_USAGE = 2;
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: CalendarCLI <user> <command> [argument...]");
+            System.err.println("       CalendarCLI <user> batch [file]");
+            System.err.println();
+            System.err.println(CommandInterpreter.HELP);
+            System.exit(EXIT_USAGE);
+        }
+        String user = args[0];
+        int status;
+        try {
+            if (!new UserStore(Paths.get("users.csv")).contains(user)) {
+                System.err.println("No user named " + user + ".");
+                System.exit(EXIT_FAILED);
+            }
+            CalendarManager manager = new CalendarManager("./user_data/" + user + "_");
+            try {
+                if (args[1].equals("batch")) {
+                    status = runBatch(manager, args.length > 2 ? args[2] : "-");
+                } else {
+                    status = run(manager, args);
+                }
+            } finally {
+                manager.close();
+            }
+        } catch (IOException | ClassNotFoundException ex) {
+            System.err.println("Cannot use the calendars of " + user + ": " + ex.getMessage());
+            status = EXIT_FAILED;
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Runs the command given on the command line.
+     */
+    private static int run(CalendarManager manager, String[] args) throws IOException {
+        try {
+            new CommandInterpreter(manager, System.out).execute(Arrays.asList(args).subList(1, args.length));
+            return 0;
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            return EXIT_FAILED;
+        }
+    }
+
+    /**
+     * Runs the commands in the specified file, or on standard input if it is "-", holding their changes
+     * until the manager is closed.
+     */
+    private static int runBatch(CalendarManager manager, String file) throws IOException {
+        // the background saver only writes once no change has been made for the hold, which no batch
+        // lasts, so every change is still in memory when the manager is closed and written at once
+        manager.startBackgroundSaves(BATCH_HOLD);
+        CommandInterpreter interpreter = new CommandInterpreter(manager, System.out);
+        try (BufferedReader in = file.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = in.readLine()) != null) {
+                number++;
+                try {
+                    interpreter.execute(line);
+                } catch (IllegalArgumentException ex) {
+                    System.err.println("Line " + number + ": " + ex.getMessage());
+                    return EXIT_FAILED;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,396 @@
+package CLI;
+
+import CalendarSystem.Calendar;
+import CalendarSystem.CalendarGenerator;
+import CalendarSystem.CalendarManager;
+import CalendarSystem.Event;
+import CalendarSystem.FrequentAlert;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the commands of the command line interface on a user's calendars. A command is a line of
+ * words separated by spaces; a word with spaces in it is written in double quotes, where \" and \\
+ * stand for a quote and a backslash, and \n for a line break. Everything after a # outside quotes is
+ * ignored.
+ * <p>
+ * Times are written as 2020-01-31T09:30, dates as 2020-01-31, durations as PT15M and periods as P1W.
+ * Events are named by the id numbers printed by the commands that add and list them.
+ *
+ * @see CalendarCLI
+ */
+public class CommandInterpreter {
+
+    /**
+     * The commands and their arguments, as shown by the help command.
+     */
+    static final String HELP = String.join(System.lineSeparator(),
+            "calendars                                  list the user's calendars",
+            "select <calendar>                          select one of the user's calendars",
+            "create <calendar>                          create and select a new calendar",
+            "add <name> <start> <end> [tag]             add an event and print its id",
+            "delete <id>                                delete an event",
+            "rename <id> <name>                         rename an event",
+            "move <id> <start> <end>                    change the times of an event",
+            "tag <id> <tag>                             change the tag of an event",
+            "duplicate <id> <start> <end>               copy an event to new times and print its id",
+            "memo <note> <id>...                        add a memo to events",
+            "alert <id> <time> <message>                add an individual alert to an event",
+            "frequent-alert <id> <every> <message>      add a frequent alert to an event",
+            "series <name> <first> <length> <every> <count>",
+            "                                           add a series of events",
+            "list [<date> [<last date>]]                list all events, or those on the dates",
+            "find <tag>                                 list the events with a tag",
+            "export <file>                              write the events as add commands",
+            "archive <name>                             write the events to a read-only archive",
+            "generate <calendar> <seed> <events>        create a calendar of generated events",
+            "share <user>... -- <id>...                 share events with other users",
+            "save                                       write the changes not written yet",
+            "help                                       show this list");
+
+    private final CalendarManager manager;
+    private final PrintStream out;
+
+    /**
+     * Creates an interpreter running commands on the calendars of the specified manager.
+     *
+     * @param manager the manager of the user's calendars.
+     * @param out     where the results of commands are printed.
+     */
+    public CommandInterpreter(CalendarManager manager, PrintStream out) {
+        this.manager = manager;
+        this.out = out;
+    }
+
+    /**
+     * Runs the command on the specified line; blank lines and comments do nothing.
+     *
+     * @param line a command.
+     * @throws IllegalArgumentException if the command or its arguments are not valid.
+     * @throws IOException              if a calendar file cannot be read or written.
+     */
+    public void execute(String line) throws IOException {
+        List<String> words = tokenize(line);
+        if (!words.isEmpty()) {
+            execute(words);
+        }
+    }
+
+    /**
+     * Runs the specified command.
+     *
+     * @param words the name of the command followed by its arguments.
+     * @throws IllegalArgumentException if the command or its arguments are not valid.
+     * @throws IOException              if a calendar file cannot be read or written.
+     */
+    public void execute(List<String> words) throws IOException {
+        String command = words.get(0);
+        List<String> args = words.subList(1, words.size());
+        Calendar calendar = manager.getCalendar();
+        switch (command) {
+            case "calendars":
+                expect(args, 0, 0);
+                manager.getUserCalendars().forEach(out::println);
+                break;
+            case "select":
+                expect(args, 1, 1);
+                try {
+                    manager.selectCalendar(args.get(0));
+                } catch (ClassNotFoundException ex) {
+                    throw new IOException("Cannot read calendar " + args.get(0) + ".", ex);
+                }
+                break;
+            case "create":
+                expect(args, 1, 1);
+                checkCalendarName(args.get(0));
+                manager.createCalendar(args.get(0));
+                break;
+            case "add": {
+                expect(args, 3, 4);
+                Event e = new Event(args.get(0), time(args.get(1)), time(args.get(2)));
+                checkTimes(e.getStartTime(), e.getEndTime());
+                if (args.size() == 4) {
+                    e.setTag(args.get(3));
+                }
+                calendar.addEvent(e);
+                out.println(e.getId());
+                break;
+            }
+            case "delete":
+                expect(args, 1, 1);
+                calendar.deleteEvent(event(calendar, args.get(0)));
+                break;
+            case "rename":
+                expect(args, 2, 2);
+                calendar.changeEventName(event(calendar, args.get(0)), args.get(1));
+                break;
+            case "move": {
+                expect(args, 3, 3);
+                Event e = event(calendar, args.get(0));
+                LocalDateTime start = time(args.get(1));
+                LocalDateTime end = time(args.get(2));
+                checkTimes(start, end);
+                calendar.changeEventTime(e, start, end);
+                break;
+            }
+            case "tag":
+                expect(args, 2, 2);
+                calendar.changeEventTag(args.get(1), event(calendar, args.get(0)));
+                break;
+            case "duplicate": {
+                expect(args, 3, 3);
+                Event e = event(calendar, args.get(0));
+                LocalDateTime start = time(args.get(1));
+                LocalDateTime end = time(args.get(2));
+                checkTimes(start, end);
+                out.println(calendar.duplicateEvent(e, start, end).getId());
+                break;
+            }
+            case "memo": {
+                expect(args, 2, Integer.MAX_VALUE);
+                ArrayList<Event> events = new ArrayList<>();
+                for (String id : args.subList(1, args.size())) {
+                    events.add(event(calendar, id));
+                }
+                calendar.createMemo(events, args.get(0));
+                break;
+            }
+            case "alert":
+                expect(args, 3, 3);
+                calendar.addIndividualAlert(event(calendar, args.get(0)), args.get(2), time(args.get(1)));
+                break;
+            case "frequent-alert": {
+                expect(args, 3, 3);
+                Event e = event(calendar, args.get(0));
+                Duration every = duration(args.get(1));
+                if (!FrequentAlert.isValidFrequentAlert(e.getStartTime(), LocalDateTime.now(calendar.getClock()), every)) {
+                    throw new IllegalArgumentException("The alert would not go off before the event starts.");
+                }
+                calendar.addFrequentAlert(e, args.get(2), every);
+                break;
+            }
+            case "series":
+                expect(args, 5, 5);
+                calendar.addSeries(args.get(0), duration(args.get(2)), period(args.get(3)), count(args.get(4)),
+                        time(args.get(1)));
+                break;
+            case "list":
+                expect(args, 0, 2);
+                if (args.isEmpty()) {
+                    print(calendar.getMyEvents());
+                } else {
+                    LocalDate from = date(args.get(0));
+                    LocalDate to = args.size() == 2 ? date(args.get(1)) : from;
+                    print(calendar.findEventsBetween(from, to));
+                }
+                break;
+            case "find":
+                expect(args, 1, 1);
+                print(calendar.findEvent(args.get(0)));
+                break;
+            case "export":
+                expect(args, 1, 1);
+                export(calendar, args.get(0));
+                break;
+            case "archive":
+                expect(args, 1, 1);
+                manager.archiveEvents(args.get(0));
+                break;
+            case "generate": {
+                expect(args, 3, 3);
+                checkCalendarName(args.get(0));
+                CalendarGenerator generator = new CalendarGenerator(number(args.get(1)));
+                generator.setEvents(count(args.get(2)));
+                generator.writeTo(manager, args.get(0));
+                break;
+            }
+            case "share": {
+                int separator = args.indexOf("--");
+                if (separator < 1 || separator == args.size() - 1) {
+                    throw new IllegalArgumentException("Usage: share <user>... -- <id>...");
+                }
+                ArrayList<Event> events = new ArrayList<>();
+                for (String id : args.subList(separator + 1, args.size())) {
+                    events.add(event(calendar, id));
+                }
+                for (Map.Entry<String, CalendarManager.ShareResult> result
+                        : manager.shareEvents(args.subList(0, separator), events).entrySet()) {
+                    out.println(result.getKey() + "\t" + result.getValue());
+                }
+                break;
+            }
+            case "save":
+                expect(args, 0, 0);
+                manager.flush();
+                break;
+            case "help":
+                out.println(HELP);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + command + "; try help.");
+        }
+    }
+
+    /**
+     * Writes the events of the specified calendar to a file as add commands, which can be run again
+     * in batch mode to import them.
+     */
+    private void export(Calendar calendar, String file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8))) {
+            for (Event e : calendar.getMyEvents()) {
+                writer.println("add " + quote(e.getEventName()) + " " + e.getStartTime() + " " + e.getEndTime()
+                        + " " + quote(e.getTag()));
+            }
+        }
+    }
+
+    private void print(Collection<Event> events) {
+        for (Event e : events) {
+            out.println(e.getId() + "\t" + e.getEventName() + "\t" + e.getStartTime() + "\t" + e.getEndTime()
+                    + "\t" + e.getTag());
+        }
+    }
+
+    /**
+     * Splits the specified line into words, as described in {@link CommandInterpreter}.
+     *
+     * @param line a command.
+     * @return the words of the command.
+     * @throws IllegalArgumentException if a quote is not closed.
+     */
+    static List<String> tokenize(String line) {
+        ArrayList<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean inWord = false;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    quoted = false;
+                } else if (c == '\\' && i + 1 < line.length()) {
+                    char next = line.charAt(++i);
+                    word.append(next == 'n' ? '\n' : next);
+                } else {
+                    word.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inWord = true;
+            } else if (c == '#') {
+                break;
+            } else if (Character.isWhitespace(c)) {
+                if (inWord) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+            } else {
+                word.append(c);
+                inWord = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unclosed quote.");
+        }
+        if (inWord) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /**
+     * Quotes the specified word so that {@link #tokenize(String)} reads it back unchanged.
+     */
+    static String quote(String word) {
+        return "\"" + word.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    private static void expect(List<String> args, int min, int max) {
+        if (args.size() < min || args.size() > max) {
+            throw new IllegalArgumentException("Wrong number of arguments; try help.");
+        }
+    }
+
+    private static void checkCalendarName(String name) {
+        if (name.isEmpty() || name.contains(".") || name.contains(" ")) {
+            throw new IllegalArgumentException("Invalid calendar name " + name + ".");
+        }
+    }
+
+    private static void checkTimes(LocalDateTime start, LocalDateTime end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("An event cannot end before it starts.");
+        }
+    }
+
+    private static Event event(Calendar calendar, String id) {
+        Event e = calendar.getEvent(number(id));
+        if (e == null) {
+            throw new IllegalArgumentException("No event with id " + id + ".");
+        }
+        return e;
+    }
+
+    private static long number(String word) {
+        try {
+            return Long.parseLong(word);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Not a number: " + word + ".");
+        }
+    }
+
+    private static int count(String word) {
+        long n = number(word);
+        if (n < 1 || n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Not a positive count: " + word + ".");
+        }
+        return (int) n;
+    }
+
+    private static LocalDateTime time(String word) {
+        try {
+            return LocalDateTime.parse(word);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Not a time: " + word + ".");
+        }
+    }
+
+    private static LocalDate date(String word) {
+        try {
+            return LocalDate.parse(word);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Not a date: " + word + ".");
+        }
+    }
+
+    private static Duration duration(String word) {
+        try {
+            return Duration.parse(word);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Not a duration: " + word + ".");
+        }
+    }
+
+    private static Period period(String word) {
+        try {
+            return Period.parse(word);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Not a period: " + word + ".");
+        }
+    }
+}
@@ -9,6 +9,9 @@ import java.time.LocalDateTime;
  * alert should appear, the content of the message, and data for display.
  */
 public abstract class Alert implements Serializable {
+
+    private static final long serialVersionUID = -1798427396159237395L;
+
     /**
      * The name of the associated event.
      */
@@ -100,6 +103,40 @@ public abstract class Alert implements Serializable {
         return times;
     }
 
+    /**
+     * Gets the times at which the alert should appear that are between the specified times.
+     *
+     * @param from the earliest time to include.
+     * @param to   the time after the latest time to include.
+     * @return a list of the alert times in [from, to), in order.
+     */
+    public ArrayList<LocalDateTime> getTimes(LocalDateTime from, LocalDateTime to) {
+        ArrayList<LocalDateTime> result = new ArrayList<>();
+        for (LocalDateTime t : times) {
+            if (!t.isBefore(from) && t.isBefore(to)) {
+                result.add(t);
+            }
+        }
+        result.sort(null);
+        return result;
+    }
+
+    /**
+     * Gets the first time at which the alert should appear that is not before the specified time.
+     *
+     * @param from the earliest time to consider.
+     * @return the next alert time, or null if there is none.
+     */
+    public LocalDateTime nextTime(LocalDateTime from) {
+        LocalDateTime next = null;
+        for (LocalDateTime t : times) {
+            if (!t.isBefore(from) && (next == null || t.isBefore(next))) {
+                next = t;
+            }
+        }
+        return next;
+    }
+
     /**
      * Gets the dateTime of the associated event.
      *
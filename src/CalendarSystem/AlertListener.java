@@ -0,0 +1,20 @@
+package CalendarSystem;
+
+import java.time.LocalDateTime;
+
+/**
+ * Receives the alerts delivered by an AlertScheduler when they are due.
+ *
+ * @see AlertScheduler
+ */
+public interface AlertListener {
+
+    /**
+     * Called when an alert should appear.
+     * This is called on the scheduler's thread, not on the thread that started the scheduler.
+     *
+     * @param alert the alert that is due.
+     * @param time  the appear time of the alert.
+     */
+    void alertDue(Alert alert, LocalDateTime time);
+}
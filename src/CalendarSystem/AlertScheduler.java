@@ -0,0 +1,403 @@
+package CalendarSystem;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers the alerts of an alert system to a listener when they are due, on a background thread.
+ * <p>
+ * Pending alert times are kept in a hashed timing wheel: a ring of buckets, one per tick, where an
+ * alert time is put in the bucket of the tick it is due on (modulo the ring size). Scheduling and
+ * cancelling an alert time are constant-time list operations, and each tick only looks at one bucket.
+ * Only the alert times within the lookahead are put in the wheel; the wheel is refilled from the alert
+ * system as time moves on, so frequent alerts are only expanded one window at a time.
+ *
+ * @see AlertSystem
+ * @see AlertListener
+ */
+public class AlertScheduler {
+
+    /**
+     * The number of buckets in the wheel.
+     */
+    private static final int WHEEL_SIZE = 512;
+
+    private static final Logger logger = Logger.getLogger(AlertScheduler.class.getName());
+
+    /**
+     * An alert time waiting in the wheel.
+     */
+    private static class Timeout {
+        private final Alert alert;
+        private final LocalDateTime time;
+        private final long deadline;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Alert alert, LocalDateTime time, long deadline) {
+            this.alert = alert;
+            this.time = time;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * A doubly linked list of the alert times due on the ticks mapping to one slot of the wheel.
+     */
+    private static class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout t) {
+            t.bucket = this;
+            t.prev = tail;
+            if (tail == null) {
+                head = t;
+            } else {
+                tail.next = t;
+            }
+            tail = t;
+        }
+
+        private void remove(Timeout t) {
+            if (t.prev == null) {
+                head = t.next;
+            } else {
+                t.prev.next = t.next;
+            }
+            if (t.next == null) {
+                tail = t.prev;
+            } else {
+                t.next.prev = t.prev;
+            }
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+        }
+    }
+
+    /**
+     * A change made to the alert system that the wheel has not caught up with yet.
+     */
+    private static class Change {
+        private final Alert alert;
+        private final boolean cancel;
+
+        private Change(Alert alert, boolean cancel) {
+            this.alert = alert;
+            this.cancel = cancel;
+        }
+    }
+
+    /**
+     * The alert system whose alerts are delivered.
+     */
+    private final AlertSystem alertSystem;
+
+    /**
+     * The listener the alerts are delivered to.
+     */
+    private final AlertListener listener;
+
+    /**
+     * The time between two ticks of the wheel.
+     */
+    private final Duration tickDuration;
+
+    /**
+     * How far ahead of the current tick alert times are put in the wheel.
+     */
+    private final Duration lookahead;
+
+    private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+
+    /**
+     * The alert times in the wheel for each alert.
+     */
+    private final Map<Alert, List<Timeout>> timeouts = new HashMap<>();
+
+    /**
+     * Alerts added, edited or deleted since the wheel last caught up.
+     */
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The time of tick 0.
+     */
+    private LocalDateTime start;
+
+    /**
+     * The last tick that was processed.
+     */
+    private long tick;
+
+    /**
+     * The time up to which alert times have been put in the wheel.
+     */
+    private LocalDateTime scheduledUntil;
+
+    private Thread worker;
+    private volatile boolean running;
+
+    /**
+     * Initializes a new AlertScheduler for the specified alert system, ticking every second and
+     * looking an hour ahead.
+     *
+     * @param alertSystem the alert system whose alerts are delivered.
+     * @param listener    the listener the alerts are delivered to.
+     */
+    public AlertScheduler(AlertSystem alertSystem, AlertListener listener) {
+        this(alertSystem, listener, Duration.ofSeconds(1), Duration.ofHours(1));
+    }
+
+    /**
+     * Initializes a new AlertScheduler for the specified alert system.
+     *
+     * @param alertSystem  the alert system whose alerts are delivered.
+     * @param listener     the listener the alerts are delivered to.
+     * @param tickDuration the time between two ticks; alerts are delivered at most this late.
+     * @param lookahead    how far ahead alert times are put in the wheel.
+     */
+    public AlertScheduler(AlertSystem alertSystem, AlertListener listener, Duration tickDuration,
+                          Duration lookahead) {
+        this.alertSystem = alertSystem;
+        this.listener = listener;
+        this.tickDuration = tickDuration;
+        this.lookahead = lookahead;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Starts delivering alerts on a background thread, from the current time of the alert
+     * system's clock on.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        reset(LocalDateTime.now(alertSystem.getClock()));
+        running = true;
+        worker = new Thread(this::run, "alert-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops delivering alerts and waits for the background thread to finish.
+     */
+    public void stop() {
+        Thread t;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            alertSystem.setScheduler(null);
+            t = worker;
+            worker = null;
+        }
+        t.interrupt();
+        try {
+            t.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns true if this scheduler is delivering alerts.
+     *
+     * @return true if the background thread is running, otherwise false.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Tells this scheduler that the specified alert was added to or edited in the alert system.
+     *
+     * @param alert an alert in the alert system.
+     */
+    public void schedule(Alert alert) {
+        changes.add(new Change(alert, false));
+    }
+
+    /**
+     * Tells this scheduler that the specified alert was deleted from or edited in the alert system.
+     *
+     * @param alert an alert that was in the alert system.
+     */
+    public void cancel(Alert alert) {
+        changes.add(new Change(alert, true));
+    }
+
+    /**
+     * Gets the number of alert times currently waiting in the wheel.
+     *
+     * @return the number of pending alert times.
+     */
+    public synchronized int getPendingCount() {
+        int count = 0;
+        for (List<Timeout> alertTimeouts : timeouts.values()) {
+            count += alertTimeouts.size();
+        }
+        return count;
+    }
+
+    /**
+     * Delivers every alert due up to the specified time. The background thread calls this with the
+     * current time on every tick; it can also be called directly without starting the thread.
+     *
+     * @param now the current time.
+     */
+    public synchronized void advance(LocalDateTime now) {
+        if (start == null) {
+            reset(now);
+        }
+        drainChanges();
+        long target = Duration.between(start, now).dividedBy(tickDuration);
+        if (target - tick >= WHEEL_SIZE) {
+            // every bucket would be visited anyway, so visit each one once
+            tick = target;
+            refill(now);
+            for (Bucket bucket : wheel) {
+                expire(bucket, target);
+            }
+            return;
+        }
+        while (tick < target) {
+            tick++;
+            refill(tickTime(tick));
+            expire(wheel[(int) (tick % WHEEL_SIZE)], tick);
+        }
+    }
+
+    // helper methods
+
+    private void run() {
+        long tickMillis = Math.max(1, tickDuration.toMillis());
+        while (running) {
+            try {
+                advance(LocalDateTime.now(alertSystem.getClock()));
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                logger.log(Level.SEVERE, "Cannot deliver alerts.", ex);
+            }
+        }
+    }
+
+    /**
+     * Empties the wheel and makes the specified time tick 0.
+     */
+    private synchronized void reset(LocalDateTime now) {
+        for (List<Timeout> alertTimeouts : timeouts.values()) {
+            for (Timeout t : alertTimeouts) {
+                t.bucket.remove(t);
+            }
+        }
+        timeouts.clear();
+        changes.clear();
+        start = now;
+        tick = 0;
+        scheduledUntil = now;
+        alertSystem.setScheduler(this);
+    }
+
+    /**
+     * Puts the alert times up to the lookahead from the specified time in the wheel, if the
+     * wheel is less than half a lookahead ahead of it.
+     */
+    private void refill(LocalDateTime now) {
+        LocalDateTime until = now.plus(lookahead);
+        if (scheduledUntil.isAfter(now.plus(lookahead.dividedBy(2)))) {
+            return;
+        }
+        Map<LocalDateTime, List<Alert>> due = alertSystem.getAlertsBetween(scheduledUntil, until);
+        for (Map.Entry<LocalDateTime, List<Alert>> entry : due.entrySet()) {
+            for (Alert alert : entry.getValue()) {
+                add(alert, entry.getKey());
+            }
+        }
+        scheduledUntil = until;
+    }
+
+    /**
+     * Catches the wheel up with the alerts added, edited or deleted since it was last filled.
+     */
+    private void drainChanges() {
+        Change change;
+        while ((change = changes.poll()) != null) {
+            List<Timeout> alertTimeouts = timeouts.remove(change.alert);
+            if (alertTimeouts != null) {
+                for (Timeout t : alertTimeouts) {
+                    t.bucket.remove(t);
+                }
+            }
+            if (!change.cancel) { // the alert's times may already be in the wheel, so replace them
+                LocalDateTime now = tickTime(tick);
+                for (LocalDateTime time : alertSystem.getAlertTimes(change.alert, now, scheduledUntil)) {
+                    add(change.alert, time);
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts the specified alert time in the wheel, due no earlier than the next tick to be processed.
+     */
+    private void add(Alert alert, LocalDateTime time) {
+        long deadline = Math.max(ticksUntil(time), tick + 1);
+        Timeout t = new Timeout(alert, time, deadline);
+        wheel[(int) (deadline % WHEEL_SIZE)].add(t);
+        timeouts.computeIfAbsent(alert, k -> new ArrayList<>()).add(t);
+    }
+
+    /**
+     * Delivers and removes the alert times in the specified bucket that are due by the specified tick.
+     */
+    private void expire(Bucket bucket, long currentTick) {
+        Timeout t = bucket.head;
+        while (t != null) {
+            Timeout next = t.next;
+            if (t.deadline <= currentTick) {
+                bucket.remove(t);
+                List<Timeout> alertTimeouts = timeouts.get(t.alert);
+                alertTimeouts.remove(t);
+                if (alertTimeouts.isEmpty()) {
+                    timeouts.remove(t.alert);
+                }
+                try {
+                    listener.alertDue(t.alert, t.time);
+                } catch (RuntimeException ex) {
+                    logger.log(Level.WARNING, "Alert listener failed.", ex);
+                }
+            }
+            t = next;
+        }
+    }
+
+    /**
+     * Gets the first tick at or after the specified time.
+     */
+    private long ticksUntil(LocalDateTime time) {
+        Duration sinceStart = Duration.between(start, time);
+        long ticks = sinceStart.dividedBy(tickDuration);
+        return tickDuration.multipliedBy(ticks).equals(sinceStart) ? ticks : ticks + 1;
+    }
+
+    private LocalDateTime tickTime(long n) {
+        return start.plus(tickDuration.multipliedBy(n));
+    }
+}
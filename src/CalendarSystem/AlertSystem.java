@@ -1,6 +1,9 @@
 package CalendarSystem;
 
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -11,20 +14,42 @@ import java.util.NavigableSet;
 /**
  * Represents a system for managing alerts.
  * The AlertSystem class handles creating, editing, deleting alerts, along with other alert functions.
+ * <p>
+ * An alert system is shared by the threads using its calendar and every method is synchronized on it;
+ * the collections it returns are copies.
  *
  * @see Alert
  */
 public class AlertSystem implements Serializable {
+
+    private static final long serialVersionUID = -310097231460504626L;
+
     /**
-     * A set containing all the times when alerts should appear.
+     * A set containing all the times when individual alerts should appear.
      */
     private TreeSet<LocalDateTime> allAlertTimes = new TreeSet<>();
 
     /**
-     * A map mapping each appear time to a list of alerts that should show up at the appear time.
+     * A map mapping each appear time to a list of individual alerts that should show up at the appear time.
      */
     private Map<LocalDateTime, List<Alert>> dateAlertsMap = new HashMap<>();
 
+    /**
+     * The frequent alerts in this system. Their appear times are computed when asked for
+     * instead of being stored in allAlertTimes and dateAlertsMap.
+     */
+    private transient List<FrequentAlert> frequentAlerts = new ArrayList<>();
+
+    /**
+     * The scheduler delivering the alerts in this system, if any.
+     */
+    private transient AlertScheduler scheduler;
+
+    /**
+     * The clock giving the current time to this system.
+     */
+    private transient Clock clock = Clock.systemDefaultZone();
+
     /**
      * A map mapping events to their associated alerts.
      */
@@ -39,11 +64,14 @@ public class AlertSystem implements Serializable {
      * @param time    time of the alert.
      * @param message message content of the alert.
      */
-    public void addIndividualAlert(Event event, String message, LocalDateTime time) {
+    public synchronized void addIndividualAlert(Event event, String message, LocalDateTime time) {
         Alert newAlert = new IndividualAlert(event.getStartTime(), event.getEventName(), message, time);
         eventAlertsMap.putIfAbsent(event, new ArrayList<>());
         eventAlertsMap.get(event).add(newAlert);
         addtoTimesSet(newAlert);
+        if (scheduler != null) {
+            scheduler.schedule(newAlert);
+        }
     }
 
     /**
@@ -54,18 +82,48 @@ public class AlertSystem implements Serializable {
      * @param duration frequency of the alert.
      * @param message  message content of the alert.
      */
-    public void addFrequentAlert(Event event, String message, Duration duration) {
-        if (FrequentAlert.isValidFrequentAlert(event.getStartTime(), LocalDateTime.now(), duration)) {
-            Alert newAlert = new FrequentAlert(event.getStartTime(), event.getEventName(), message, duration);
+    public synchronized void addFrequentAlert(Event event, String message, Duration duration) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (FrequentAlert.isValidFrequentAlert(event.getStartTime(), now, duration)) {
+            Alert newAlert = new FrequentAlert(event.getStartTime(), event.getEventName(), message, duration, now);
             eventAlertsMap.putIfAbsent(event, new ArrayList<>());
             eventAlertsMap.get(event).add(newAlert);
             addtoTimesSet(newAlert);
+            if (scheduler != null) {
+                scheduler.schedule(newAlert);
+            }
         } else {
             System.out.println("Illegal Frequent Alert Time");
         }
     }
 
 
+    /**
+     * Stores the specified alert read from file in this alert system.
+     *
+     * @param event the event which the alert is associated with.
+     * @param alert an alert that is not stored in this alert system.
+     */
+    synchronized void restoreAlert(Event event, Alert alert) {
+        eventAlertsMap.computeIfAbsent(event, k -> new ArrayList<>()).add(alert);
+        addtoTimesSet(alert);
+    }
+
+    /**
+     * Replaces all the alerts for the specified event with the specified alerts read from file.
+     *
+     * @param event  the event which the alerts are associated with.
+     * @param alerts alerts that are not stored in this alert system.
+     */
+    synchronized void replaceAlerts(Event event, List<Alert> alerts) {
+        if (eventAlertsMap.containsKey(event)) {
+            deleteAllAlertsforEvent(event);
+        }
+        for (Alert alert : alerts) {
+            restoreAlert(event, alert);
+        }
+    }
+
     //Return sets of alerts -> that should appear currently, all alerts, or according to event
 
     /**
@@ -73,8 +131,9 @@ public class AlertSystem implements Serializable {
      *
      * @param e events
      */
-    public Set<Alert> getAlerts(Event e) {
-        return new HashSet<>(eventAlertsMap.get(e));
+    public synchronized Set<Alert> getAlerts(Event e) {
+        List<Alert> alerts = eventAlertsMap.get(e);
+        return alerts == null ? new HashSet<>() : new HashSet<>(alerts);
     }
 
     /**
@@ -82,20 +141,24 @@ public class AlertSystem implements Serializable {
      *
      * @return upcoming alerts
      */
-    public Set<Alert> getCurrAlerts() {
+    public synchronized Set<Alert> getCurrAlerts() {
         Set<Alert> CurrAlerts = new HashSet<>(); //the set of Alerts to Show
+        LocalDateTime now = LocalDateTime.now(clock);
 
-        // subset of valid times, reverse order
-        NavigableSet<LocalDateTime> subset = this.allAlertTimes.tailSet(LocalDateTime.now(), true);
-        NavigableSet<LocalDateTime> validAlertTimes = subset.descendingSet();
+        // subset of valid times
+        NavigableSet<LocalDateTime> validAlertTimes = this.allAlertTimes.tailSet(now, true);
 
         //check if alert is valid (i.e. event hasn't occurred), then add to set CurrAlerts
         for (LocalDateTime date : validAlertTimes) {
             for (Alert alert : dateAlertsMap.get(date)) {
-                if (alert.getEventTime().isAfter(LocalDateTime.now()))
+                if (alert.getEventTime().isAfter(now))
                     CurrAlerts.add(alert);
             }
         }
+        for (FrequentAlert alert : frequentAlerts) {
+            if (alert.getEventTime().isAfter(now) && alert.nextTime(now) != null)
+                CurrAlerts.add(alert);
+        }
 
         return CurrAlerts;
     }
@@ -103,12 +166,81 @@ public class AlertSystem implements Serializable {
     /**
      * Gets a list of alert times for upcoming alerts.
      *
-     * @return list of the alert times.
+     * @return list of the alert times, latest first.
+     * @see #getNextAlerts()
+     */
+    public synchronized Set<LocalDateTime> getCurrAlertTime() {
+        return getNextAlerts().descendingKeySet();
+    }
+
+    /**
+     * Gets every individual alert appearing from now on, and each frequent alert at the next time it
+     * appears, so frequent alerts are not expanded up to their events.
+     *
+     * @return a map from each of these alert times to the alerts appearing at that time.
+     */
+    public synchronized NavigableMap<LocalDateTime, List<Alert>> getNextAlerts() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        TreeMap<LocalDateTime, List<Alert>> alerts = new TreeMap<>();
+        for (LocalDateTime date : allAlertTimes.tailSet(now, true)) {
+            alerts.put(date, new ArrayList<>(dateAlertsMap.get(date)));
+        }
+        for (FrequentAlert alert : frequentAlerts) {
+            LocalDateTime next = alert.nextTime(now);
+            if (next != null) {
+                alerts.computeIfAbsent(next, k -> new ArrayList<>()).add(alert);
+            }
+        }
+        return alerts;
+    }
+
+    /**
+     * Gets the alerts appearing from now until the end of the specified lookahead.
+     *
+     * @param lookahead how far ahead to look for alerts.
+     * @return a map from each alert time in the lookahead to the alerts appearing at that time.
+     */
+    public synchronized NavigableMap<LocalDateTime, List<Alert>> getUpcomingAlerts(Duration lookahead) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return getAlertsBetween(now, now.plus(lookahead));
+    }
+
+    /**
+     * Gets the alerts appearing between the specified times.
+     *
+     * @param from the earliest alert time to include.
+     * @param to   the time after the latest alert time to include.
+     * @return a map from each alert time in [from, to) to the alerts appearing at that time.
+     */
+    public synchronized NavigableMap<LocalDateTime, List<Alert>> getAlertsBetween(LocalDateTime from, LocalDateTime to) {
+        TreeMap<LocalDateTime, List<Alert>> alerts = new TreeMap<>();
+        if (!from.isBefore(to)) {
+            return alerts;
+        }
+        for (LocalDateTime date : allAlertTimes.subSet(from, true, to, false)) {
+            alerts.put(date, new ArrayList<>(dateAlertsMap.get(date)));
+        }
+        for (FrequentAlert alert : frequentAlerts) {
+            for (LocalDateTime date : alert.getTimes(from, to)) {
+                alerts.computeIfAbsent(date, k -> new ArrayList<>()).add(alert);
+            }
+        }
+        return alerts;
+    }
+
+    /**
+     * Gets the event the specified alert is associated with.
+     *
+     * @param alert an alert in this alert system.
+     * @return the event associated with the alert, or null if the alert is not in this system.
      */
-    public Set<LocalDateTime> getCurrAlertTime() {
-        // subset of valid times, reverse order
-        NavigableSet<LocalDateTime> subset = this.allAlertTimes.tailSet(LocalDateTime.now(), true);
-        return subset.descendingSet();
+    public synchronized Event getEvent(Alert alert) {
+        for (Map.Entry<Event, List<Alert>> entry : eventAlertsMap.entrySet()) {
+            if (entry.getValue().contains(alert)) {
+                return entry.getKey();
+            }
+        }
+        return null;
     }
 
     /**
@@ -116,7 +248,7 @@ public class AlertSystem implements Serializable {
      *
      * @return list of all alerts.
      */
-    public Set<Alert> getAllAlerts() {
+    public synchronized Set<Alert> getAllAlerts() {
         Set<Alert> result = new HashSet<>();
         Set<Event> events = eventAlertsMap.keySet();
         for (Event e : events) {
@@ -131,20 +263,23 @@ public class AlertSystem implements Serializable {
     /**
      * Removes the specified event from this eventAlertsMap.
      */
-    public void removeEvent(Event e) {
+    public synchronized void removeEvent(Event e) {
         this.eventAlertsMap.remove(e);
     }
 
     /**
      * Deletes the specified alert from this alert system.
      */
-    public void deleteAlert(Alert alert) {
+    public synchronized void deleteAlert(Alert alert) {
         removeFromDateAlertsMap(alert);
 
         // removes alert from eventAlertsMap
         for (Event e : eventAlertsMap.keySet()) {
             eventAlertsMap.get(e).remove(alert);
         }
+        if (scheduler != null) {
+            scheduler.cancel(alert);
+        }
     }
 
     /**
@@ -152,8 +287,8 @@ public class AlertSystem implements Serializable {
      *
      * @param e an event which is associated with alerts in this alert system.
      */
-    public void deleteAllAlertsforEvent(Event e) {
-        if (!this.eventAlertsMap.isEmpty()) {
+    public synchronized void deleteAllAlertsforEvent(Event e) {
+        if (this.eventAlertsMap.containsKey(e)) {
             List<Alert> copy = new ArrayList<>(eventAlertsMap.get(e));
             for (Alert a : copy) {
                 deleteAlert(a);
@@ -169,12 +304,15 @@ public class AlertSystem implements Serializable {
      * @param message   message content of the alert.
      * @param frequency frequency of the alert.
      */
-    public void editFrequentAlert(FrequentAlert alert, String message, Duration frequency) {
+    public synchronized void editFrequentAlert(FrequentAlert alert, String message, Duration frequency) {
         removeFromDateAlertsMap(alert);
-        alert.changeFrequency(frequency);
+        alert.changeFrequency(frequency, LocalDateTime.now(clock));
         alert.setMessage(message);
         addtoTimesSet(alert);
         alert.setData(alert.toString());
+        if (scheduler != null) {
+            scheduler.schedule(alert);
+        }
     }
 
     /**
@@ -184,12 +322,15 @@ public class AlertSystem implements Serializable {
      * @param message  the message content of the alert.
      * @param dateTime the time of the alert.
      */
-    public void editIndividualAlert(IndividualAlert alert, String message, LocalDateTime dateTime) {
+    public synchronized void editIndividualAlert(IndividualAlert alert, String message, LocalDateTime dateTime) {
         removeFromDateAlertsMap(alert);
         alert.setMessage(message);
         alert.changeTime(dateTime);
         addtoTimesSet(alert);
         alert.setData(alert.toString());
+        if (scheduler != null) {
+            scheduler.schedule(alert);
+        }
     }
 
     // helper methods
@@ -200,6 +341,10 @@ public class AlertSystem implements Serializable {
      * @param alert: the alert to add.
      */
     private void addtoTimesSet(Alert alert) {
+        if (alert instanceof FrequentAlert) {
+            frequentAlerts.add((FrequentAlert) alert); // times are computed when asked for
+            return;
+        }
         for (LocalDateTime alertTime : alert.getTimes()) {
             dateAlertsMap.putIfAbsent(alertTime, new ArrayList<>());
             dateAlertsMap.get(alertTime).add(alert);
@@ -213,6 +358,9 @@ public class AlertSystem implements Serializable {
      * @param alert an alert in this alert system.
      */
     private void removeFromDateAlertsMap(Alert alert) {
+        if (frequentAlerts.remove(alert)) {
+            return;
+        }
         // removes alert from dateAlertsMap
         for (LocalDateTime alertTime : alert.getTimes()) {
             dateAlertsMap.get(alertTime).remove(alert);
@@ -227,24 +375,112 @@ public class AlertSystem implements Serializable {
     //getters and setters
 
     /**
-     * Gets the dateAlertsMap for this alert system.
+     * Sets the scheduler to be told about alerts added to, edited in or deleted from this system.
+     *
+     * @param scheduler the scheduler delivering the alerts in this system, or null.
+     */
+    synchronized void setScheduler(AlertScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Gets the clock giving the current time to this system.
      *
-     * @return the dateAlertsMap in this alert system.
+     * @return the clock of this alert system.
      */
-    public Map<LocalDateTime, List<Alert>> getDateAlertsMap() {
-        return dateAlertsMap;
+    public synchronized Clock getClock() {
+        return clock;
     }
 
     /**
-     * Gets a TreeSet of all the alert times in this alert system.
+     * Sets the clock giving the current time to this system, such as a fixed or simulated clock.
      *
-     * @return the alert times in this alert system.
+     * @param clock the new clock of this alert system.
      */
-    public TreeSet<LocalDateTime> getAllAlertTimes() {
-        return allAlertTimes;
+    public synchronized void setClock(Clock clock) {
+        this.clock = clock;
     }
 
-    public Map<Event, List<Alert>> getEventAlertsMap() {
-        return eventAlertsMap;
+    /**
+     * Rebuilds the list of frequent alerts after this alert system is read from file. Frequent
+     * alerts saved by an older version stored all their times; those are removed from
+     * dateAlertsMap and allAlertTimes and computed when asked for instead.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        clock = Clock.systemDefaultZone();
+        frequentAlerts = new ArrayList<>();
+        for (Alert alert : getAllAlerts()) {
+            if (alert instanceof FrequentAlert) {
+                FrequentAlert frequentAlert = (FrequentAlert) alert;
+                removeFromDateAlertsMap(frequentAlert);
+                frequentAlert.convertStoredTimes();
+                frequentAlerts.add(frequentAlert);
+            }
+        }
+    }
+
+    /**
+     * Gets the dateAlertsMap for this alert system. Only individual alerts are stored in it;
+     * use {@link #getAlertsBetween} to include frequent alerts.
+     *
+     * @return an unmodifiable snapshot of the dateAlertsMap in this alert system.
+     */
+    public synchronized Map<LocalDateTime, List<Alert>> getDateAlertsMap() {
+        return snapshot(dateAlertsMap);
+    }
+
+    /**
+     * Gets all the individual alert times in this alert system.
+     *
+     * @return an unmodifiable snapshot of the individual alert times in this alert system, in order.
+     */
+    public synchronized NavigableSet<LocalDateTime> getAllAlertTimes() {
+        return Collections.unmodifiableNavigableSet(new TreeSet<>(allAlertTimes));
+    }
+
+    /**
+     * Gets the alerts of each event in this alert system.
+     *
+     * @return an unmodifiable snapshot of the map from each event to its alerts, in the order they were added.
+     */
+    public synchronized Map<Event, List<Alert>> getEventAlertsMap() {
+        return snapshot(eventAlertsMap);
+    }
+
+    /**
+     * Gets the alerts of the specified event in the order they were added, without copying the alerts of
+     * the other events.
+     *
+     * @param e an event.
+     * @return a list of the alerts of the event, empty if it has none.
+     */
+    synchronized List<Alert> getEventAlerts(Event e) {
+        List<Alert> alerts = eventAlertsMap.get(e);
+        return alerts == null ? new ArrayList<>() : new ArrayList<>(alerts);
+    }
+
+    /**
+     * Gets the times of the specified alert between the specified times, read while no alert in this
+     * system is being edited.
+     *
+     * @param alert an alert in this alert system.
+     * @param from  the earliest alert time to include.
+     * @param to    the time after the latest alert time to include.
+     * @return a list of the alert times in [from, to).
+     */
+    synchronized List<LocalDateTime> getAlertTimes(Alert alert, LocalDateTime from, LocalDateTime to) {
+        return alert.getTimes(from, to);
+    }
+
+    /**
+     * Copies the specified map and its lists into an unmodifiable map of unmodifiable lists.
+     */
+    private static <K> Map<K, List<Alert>> snapshot(Map<K, List<Alert>> map) {
+        HashMap<K, List<Alert>> copy = new HashMap<>();
+        for (Map.Entry<K, List<Alert>> entry : map.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        return Collections.unmodifiableMap(copy);
     }
 }
@@ -1,17 +1,40 @@
 package CalendarSystem;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
  * Represents a calendar.
  * A calendar manages events, memos, notifications and alerts. A calendar is user-specific.
+ * <p>
+ * A calendar can be shared between threads. Changes are made one at a time, while any number of
+ * threads query it; the lists it returns are snapshots, which later changes do not affect. The one
+ * exception is the {@link AlertSystem} returned by {@link #getMyAlerts()}, which is shared and
+ * locks itself, so its alerts are changed and read through it rather than through this lock.
+ * <p>
+ * The occurrences of recurring series are not stored until they are edited, so only the date
+ * queries ({@link #findEvent(LocalDate)}, {@link #findEvents} and {@link #findEventsBetween}) include
+ * them; the other queries, such as past, current and future events or events by tag or name, only
+ * find stored events. An occurrence must be stored with {@link #editOccurrence(Event)} before it can
+ * be changed or deleted.
  *
  * @see AlertSystem
  * @see Event
@@ -20,11 +43,76 @@ import java.util.List;
  */
 public class Calendar implements Serializable {
 
+    private static final long serialVersionUID = 4979930537352009437L;
+
     /**
      * A list of events stored in this calendar.
      */
     private ArrayList<Event> myEvents = new ArrayList<>();
 
+    /**
+     * An index of the events stored in this calendar by their start and end times.
+     * It is rebuilt from myEvents when this calendar is read from file.
+     */
+    private transient EventIntervalTree dateIndex = new EventIntervalTree();
+
+    /**
+     * An index mapping each tag to the events stored in this calendar with that tag.
+     * It is rebuilt from myEvents when this calendar is read from file.
+     */
+    private transient HashMap<String, ArrayList<Event>> tagIndex = new HashMap<>();
+
+    /**
+     * An index mapping each event name to the events stored in this calendar with that name.
+     * It is rebuilt from myEvents when this calendar is read from file.
+     */
+    private transient HashMap<String, ArrayList<Event>> nameIndex = new HashMap<>();
+
+    /**
+     * An index mapping each id number to the event stored in this calendar with that id number.
+     * It is rebuilt from myEvents when this calendar is read from file.
+     */
+    private transient HashMap<Long, Event> idIndex = new HashMap<>();
+
+    /**
+     * An index of the events stored in this calendar sorted by start time.
+     * It is rebuilt from myEvents when this calendar is read from file.
+     */
+    private transient TreeMap<LocalDateTime, ArrayList<Event>> startIndex = new TreeMap<>();
+
+    /**
+     * An index of the events stored in this calendar sorted by end time.
+     * It is rebuilt from myEvents when this calendar is read from file.
+     */
+    private transient TreeMap<LocalDateTime, ArrayList<Event>> endIndex = new TreeMap<>();
+
+    /**
+     * The events stored in this calendar with their start and end times in primitive arrays sorted
+     * by start time, for date queries that dateIndex would answer by visiting many nodes.
+     * It is rebuilt from myEvents when this calendar is read from file.
+     */
+    private transient EventColumns columns = new EventColumns();
+
+    /**
+     * How many times more events than start in a date range the columns may scan for it, because of
+     * long events starting before the range, before the range is searched in dateIndex instead.
+     */
+    private static final int MAX_SCAN_RATIO = 4;
+
+    /**
+     * Guards the events, indexes, memos and series of this calendar. Changes hold its write lock as well
+     * as the monitor of this calendar, so code synchronized on the calendar still sees no change being
+     * made; queries hold its read lock, so they do not wait for each other. The lock is fair, so a change
+     * is not kept waiting by queries that keep overlapping. It is replaced when this calendar is read
+     * from file.
+     */
+    private transient ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
+
+    /**
+     * The largest id number given to an event in this calendar.
+     */
+    private long lastEventId;
+
     /**
      * The system for handling memos associated with the events stored in this calendar.
      */
@@ -36,19 +124,76 @@ public class Calendar implements Serializable {
     private SeriesSystem mySeries = new SeriesSystem();
 
     /**
-     * The system for handling alerts.
+     * The system for handling alerts, or null until alertLoader has run. It is volatile, like
+     * alertLoader, so a thread that sees the alerts loaded also sees the loaded system.
      */
-    private AlertSystem myAlerts = new AlertSystem();
+    private volatile AlertSystem myAlerts = new AlertSystem();
+
+    /**
+     * Reads this calendar's alert system on first access when its alerts were not read with the
+     * rest of the calendar, or null once they are loaded.
+     */
+    private transient volatile Supplier<AlertSystem> alertLoader;
 
     /**
      * A list of events shared to this calendar.
      */
     private ArrayList<Event> notifications = new ArrayList<>();
 
+    /**
+     * The clock giving the current time to this calendar.
+     */
+    private transient volatile Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * The journal the changes to this calendar are recorded in, if any.
+     */
+    private transient CalendarJournal journal;
+
     /**
      * The current time in this calendar.
+     * Events ending before this time are "past", events starting after it are "future"
+     * and the others are "ongoing".
+     */
+    private LocalDateTime time = LocalDateTime.now(clock);
+
+    /**
+     * Initializes an empty calendar using the system clock.
+     */
+    public Calendar() {
+    }
+
+    /**
+     * Initializes an empty calendar using the specified clock, such as a fixed or simulated clock.
+     *
+     * @param clock the clock giving the current time to this calendar.
+     */
+    public Calendar(Clock clock) {
+        setClock(clock);
+    }
+
+    /**
+     * Initializes a calendar read from file with the specified contents.
+     *
+     * @param events        the events stored in the calendar.
+     * @param memos         the memo system of the calendar.
+     * @param series        the series system of the calendar.
+     * @param alerts        the alert system of the calendar.
+     * @param notifications the events shared to the calendar.
+     * @param time          the current time in the calendar.
+     * @param lastEventId   the largest id number given to an event in the calendar.
      */
-    public LocalDateTime time = LocalDateTime.now();
+    Calendar(ArrayList<Event> events, MemoSystem memos, SeriesSystem series, AlertSystem alerts,
+             ArrayList<Event> notifications, LocalDateTime time, long lastEventId) {
+        this.myEvents = events;
+        this.myMemos = memos;
+        this.mySeries = series;
+        this.myAlerts = alerts;
+        this.notifications = notifications;
+        this.time = time;
+        this.lastEventId = lastEventId;
+        rebuildIndexes();
+    }
 
     // Methods for creating events, alerts, memos
 
@@ -57,8 +202,17 @@ public class Calendar implements Serializable {
      *
      * @param e the event to be added to this calendar.
      */
-    public void addEvent(Event e) {
-        myEvents.add(e);
+    public synchronized void addEvent(Event e) {
+        beginWrite();
+        try {
+            myEvents.add(e);
+            indexEvent(e);
+            if (journal != null) {
+                journal.eventChanged(e);
+            }
+        } finally {
+            endWrite();
+        }
     }
 
     /**
@@ -68,8 +222,16 @@ public class Calendar implements Serializable {
      * @param msg  the alert's message.
      * @param date the time and date of the alert.
      */
-    public void addIndividualAlert(Event e, String msg, LocalDateTime date) {
-        myAlerts.addIndividualAlert(e, msg, date);
+    public synchronized void addIndividualAlert(Event e, String msg, LocalDateTime date) {
+        beginWrite();
+        try {
+            getMyAlerts().addIndividualAlert(e, msg, date);
+            if (journal != null) {
+                journal.alertsChanged(e);
+            }
+        } finally {
+            endWrite();
+        }
     }
 
     /**
@@ -79,8 +241,54 @@ public class Calendar implements Serializable {
      * @param msg the alert's message.
      * @param d   the frequency of the alert.
      */
-    public void addFrequentAlert(Event e, String msg, Duration d) {
-        myAlerts.addFrequentAlert(e, msg, d);
+    public synchronized void addFrequentAlert(Event e, String msg, Duration d) {
+        beginWrite();
+        try {
+            getMyAlerts().addFrequentAlert(e, msg, d);
+            if (journal != null) {
+                journal.alertsChanged(e);
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Edits the message and frequency of the specified frequent alert.
+     *
+     * @param a   a frequent alert in this calendar's alert system.
+     * @param msg the alert's new message.
+     * @param d   the new frequency of the alert.
+     */
+    public synchronized void editFrequentAlert(FrequentAlert a, String msg, Duration d) {
+        beginWrite();
+        try {
+            getMyAlerts().editFrequentAlert(a, msg, d);
+            if (journal != null) {
+                journal.alertsChanged(getMyAlerts().getEvent(a));
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Edits the message and time of the specified individual alert.
+     *
+     * @param a    an individual alert in this calendar's alert system.
+     * @param msg  the alert's new message.
+     * @param date the new time and date of the alert.
+     */
+    public synchronized void editIndividualAlert(IndividualAlert a, String msg, LocalDateTime date) {
+        beginWrite();
+        try {
+            getMyAlerts().editIndividualAlert(a, msg, date);
+            if (journal != null) {
+                journal.alertsChanged(getMyAlerts().getEvent(a));
+            }
+        } finally {
+            endWrite();
+        }
     }
 
     /**
@@ -89,8 +297,19 @@ public class Calendar implements Serializable {
      * @param events a list of events associated with the memo.
      * @param note   the note of the memo.
      */
-    public void createMemo(List<Event> events, String note) {
-        myMemos.createMemo(events, note);
+    public synchronized void createMemo(List<Event> events, String note) {
+        beginWrite();
+        try {
+            Memo memo = myMemos.createMemo(events, note);
+            if (journal != null) {
+                journal.memoChanged(memo);
+                for (Event e : events) {
+                    journal.eventChanged(e);
+                }
+            }
+        } finally {
+            endWrite();
+        }
     }
 
     // Methods for deleting events, alerts, memos
@@ -99,13 +318,25 @@ public class Calendar implements Serializable {
      * Removes the specified event from this calendar's stored events.
      *
      * @param e an event in this calendar.
+     * @throws IllegalArgumentException if the event is an occurrence of a recurring series that is not stored.
      */
-    public void deleteEvent(Event e) {
-        this.myEvents.remove(e); // removes from this calendar's list of events
-        if (!(e.getMemos() == null) && !(e.getMemos().isEmpty())) {
-            deleteAllMemosforEvent(e); // removes memos for this event from memo system if not associated with any other events}
+    public synchronized void deleteEvent(Event e) {
+        beginWrite();
+        try {
+            checkNotOccurrence(e);
+            if (this.myEvents.remove(e)) { // removes from this calendar's list of events
+                unindexEvent(e);
+            }
+            if (!(e.getMemos() == null) && !(e.getMemos().isEmpty())) {
+                deleteAllMemosforEvent(e); // removes memos for this event from memo system if not associated with any other events}
+            }
+            deleteAllAlertsforEvent(e); // removes all alerts for this event
+            if (journal != null) {
+                journal.eventRemoved(e);
+            }
+        } finally {
+            endWrite();
         }
-        deleteAllAlertsforEvent(e); // removes all alerts for this event
     }
 
     /**
@@ -113,8 +344,17 @@ public class Calendar implements Serializable {
      *
      * @param a an alert in this calendar's alert system.
      */
-    public void deleteAlert(Alert a) {
-        this.myAlerts.deleteAlert(a);
+    public synchronized void deleteAlert(Alert a) {
+        beginWrite();
+        try {
+            Event e = journal == null ? null : getMyAlerts().getEvent(a);
+            getMyAlerts().deleteAlert(a);
+            if (journal != null) {
+                journal.alertsChanged(e);
+            }
+        } finally {
+            endWrite();
+        }
     }
 
     /**
@@ -122,8 +362,16 @@ public class Calendar implements Serializable {
      *
      * @param e an event in this calendar.
      */
-    public void deleteAllAlertsforEvent(Event e) {
-        this.myAlerts.deleteAllAlertsforEvent(e);
+    public synchronized void deleteAllAlertsforEvent(Event e) {
+        beginWrite();
+        try {
+            getMyAlerts().deleteAllAlertsforEvent(e);
+            if (journal != null) {
+                journal.alertsChanged(e);
+            }
+        } finally {
+            endWrite();
+        }
     }
 
     /**
@@ -131,10 +379,15 @@ public class Calendar implements Serializable {
      *
      * @param m a memo in this calendar's memo system.
      */
-    public void deleteMemo(Memo m) {
-        this.myMemos.deleteMemo(m); // deletes memo from memo system
-        for (Event e : this.myEvents) {
-            e.deleteMemo(m); // deletes memo from events, if present
+    public synchronized void deleteMemo(Memo m) {
+        beginWrite();
+        try {
+            this.myMemos.deleteMemo(m); // deletes memo from memo system and from its events
+            if (journal != null) {
+                journal.memoRemoved(m);
+            }
+        } finally {
+            endWrite();
         }
     }
 
@@ -143,21 +396,87 @@ public class Calendar implements Serializable {
      *
      * @param e an event in this calendar.
      */
-    public void deleteAllMemosforEvent(Event e) {
-        for (Memo m : e.getMemos()) {
-            if (findEvent(m).size() == 1 && !this.myMemos.isEmpty() && !(this.myMemos == null)) {
-                this.myMemos.deleteMemo(m); // removes memo from memo system if not associated with any other event
+    public synchronized void deleteAllMemosforEvent(Event e) {
+        beginWrite();
+        try {
+            for (Memo m : new ArrayList<>(e.getMemos())) {
+                this.myMemos.removeMemoFromEvent(m, e);
+                if (this.myMemos.getEvents(m).isEmpty() && !this.myMemos.isEmpty()) {
+                    deleteMemo(m); // removes memo from memo system if not associated with any other event
+                }
+            }
+            e.deleteAllMemos(); // removes all memos from this event's stored memos
+            if (journal != null) {
+                journal.eventChanged(e);
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Associates the specified memo with each of the specified events.
+     *
+     * @param m      a memo in this calendar's memo system.
+     * @param events a list of events in this calendar.
+     */
+    public synchronized void addMemoToEvents(Memo m, List<Event> events) {
+        beginWrite();
+        try {
+            for (Event e : events) {
+                this.myMemos.addMemoToEvent(m, e);
+                if (journal != null) {
+                    journal.eventChanged(e);
+                }
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Changes the note of the specified memo to the specified new note.
+     *
+     * @param m       a memo in this calendar's memo system.
+     * @param newNote the new note for the memo.
+     */
+    public synchronized void changeMemoNote(Memo m, String newNote) {
+        beginWrite();
+        try {
+            this.myMemos.changeMemoNote(m, newNote);
+            if (journal != null) {
+                journal.memoChanged(m);
             }
+        } finally {
+            endWrite();
         }
-        e.deleteAllMemos(); // removes all memos from this event's stored memos
     }
 
     /**
-     * Gets the memo system for this calendar.
+     * Gets the memos in this calendar.
+     *
+     * @return an unmodifiable snapshot of the memos in this calendar.
+     */
+    public List<Memo> getMyMemos() {
+        return readLocked(() -> myMemos.getMemos());
+    }
+
+    /**
+     * Finds the memos in this calendar with the specified note.
+     *
+     * @param note the note of a memo.
+     * @return a list of the memos with the note.
+     */
+    public ArrayList<Memo> findMemos(String note) {
+        return readLocked(() -> myMemos.findMemos(note));
+    }
+
+    /**
+     * Gets the memo system for this calendar, for code that writes it to or reads it from file.
      *
      * @return this calendar's memo system.
      */
-    public MemoSystem getMyMemos() {
+    MemoSystem getMemoSystem() {
         return myMemos;
     }
 
@@ -170,12 +489,26 @@ public class Calendar implements Serializable {
      * @param event an event in this calendar.
      * @param start the new start time for the event.
      * @param end   the new end time for the event.
+     * @throws IllegalArgumentException if the event is an occurrence of a recurring series that is not stored.
      */
-    public void changeEventTime(Event event, LocalDateTime start, LocalDateTime end) {
-        event.setStartTime(start);
-        event.setEndTime(end);
-        updateEventStatus(event);
-        deleteAllAlertsforEvent(event); // deletes the alerts for the event
+    public synchronized void changeEventTime(Event event, LocalDateTime start, LocalDateTime end) {
+        beginWrite();
+        try {
+            checkNotOccurrence(event);
+            boolean indexed = unindexEvent(event); // the index is keyed on the old times
+            event.setStartTime(start);
+            event.setEndTime(end);
+            if (indexed) {
+                indexEvent(event);
+            }
+            updateEventStatus(event);
+            if (journal != null) {
+                journal.eventChanged(event);
+            }
+            deleteAllAlertsforEvent(event); // deletes the alerts for the event
+        } finally {
+            endWrite();
+        }
     }
 
     /**
@@ -183,9 +516,23 @@ public class Calendar implements Serializable {
      *
      * @param event    an event in this calendar.
      * @param new_name the new name for the event.
+     * @throws IllegalArgumentException if the event is an occurrence of a recurring series that is not stored.
      */
-    public void changeEventName(Event event, String new_name) {
-        event.setEventName(new_name);
+    public synchronized void changeEventName(Event event, String new_name) {
+        beginWrite();
+        try {
+            checkNotOccurrence(event);
+            boolean indexed = removeFromIndex(nameIndex, event.getEventName(), event);
+            event.setEventName(new_name);
+            if (indexed) {
+                addToIndex(nameIndex, new_name, event);
+            }
+            if (journal != null) {
+                journal.eventChanged(event);
+            }
+        } finally {
+            endWrite();
+        }
     }
 
     /**
@@ -193,9 +540,23 @@ public class Calendar implements Serializable {
      *
      * @param tag   the new tag for the event.
      * @param event an event in this calendar.
+     * @throws IllegalArgumentException if the event is an occurrence of a recurring series that is not stored.
      */
-    public void changeEventTag(String tag, Event event) {
-        event.setTag(tag);
+    public synchronized void changeEventTag(String tag, Event event) {
+        beginWrite();
+        try {
+            checkNotOccurrence(event);
+            boolean indexed = removeFromIndex(tagIndex, event.getTag(), event);
+            event.setTag(tag);
+            if (indexed) {
+                addToIndex(tagIndex, tag, event);
+            }
+            if (journal != null) {
+                journal.eventChanged(event);
+            }
+        } finally {
+            endWrite();
+        }
     }
 
 
@@ -203,19 +564,32 @@ public class Calendar implements Serializable {
      * Recreate an event at additional time/day.
      * If the event is in a series of event, add the new event to the series.
      */
-    public Event duplicateEvent(Event event, LocalDateTime start, LocalDateTime end) {
-        String name = event.getEventName();
-        Event duplicate = new Event(name, start, end);
-        addEvent(duplicate);
-        duplicate.getMemos().addAll(event.getMemos());
+    public synchronized Event duplicateEvent(Event event, LocalDateTime start, LocalDateTime end) {
+        beginWrite();
+        try {
+            String name = event.getEventName();
+            Event duplicate = new Event(name, start, end);
+            addEvent(duplicate);
+            for (Memo m : event.getMemos()) {
+                myMemos.addMemoToEvent(m, duplicate);
+            }
 
-        ArrayList<Series> associateSeries = event.getSeries();
-        if (!associateSeries.isEmpty()) {
-            for (Series s : associateSeries) {
-                mySeries.addEvent(s, duplicate);
+            ArrayList<Series> associateSeries = event.getSeries();
+            if (!associateSeries.isEmpty()) {
+                for (Series s : associateSeries) {
+                    mySeries.addEvent(s, duplicate);
+                    if (journal != null) {
+                        journal.seriesChanged(s);
+                    }
+                }
             }
+            if (journal != null) {
+                journal.eventChanged(duplicate);
+            }
+            return duplicate;
+        } finally {
+            endWrite();
         }
-        return duplicate;
     }
 
     //methods for finding list of events: by tag, memo or date
@@ -224,16 +598,10 @@ public class Calendar implements Serializable {
      * find events by their tag
      *
      * @param tag: the tag associated with an Event or multiple Events
-     * @return A list of events with the input tag
+     * @return A list of the stored events with the input tag
      */
     public ArrayList<Event> findEvent(String tag) {
-        ArrayList<Event> events = new ArrayList<>();
-        for (Event event : myEvents) {
-            if (event.getTag().equals(tag)) {
-                events.add(event);
-            }
-        }
-        return events;
+        return readLocked(() -> copy(tagIndex.get(tag)));
     }
 
     /**
@@ -243,13 +611,68 @@ public class Calendar implements Serializable {
      * @return A list of events that are happening during the input date
      */
     public ArrayList<Event> findEvent(LocalDate date) {
-        ArrayList<Event> events = new ArrayList<>();
-        for (Event event : myEvents) {
-            LocalDate start = event.getStartTime().toLocalDate();
-            LocalDate end = event.getEndTime().toLocalDate();
-            if (date.compareTo(start) >= 0 && date.compareTo(end) <= 0) {
-                events.add(event);
+        return readLocked(() -> findOverlapping(date, date));
+    }
+
+    /**
+     * Finds the events happening on any day between the specified dates (inclusive), each listed once
+     * however many of the days it lasts.
+     *
+     * @param from the first day of the range.
+     * @param to   the last day of the range.
+     * @return a list of the events happening in the range.
+     */
+    public ArrayList<Event> findEventsBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return new ArrayList<>();
+        }
+        return readLocked(() -> findOverlapping(from, to));
+    }
+
+    /**
+     * find events by a range of dates
+     *
+     * @param from: the first date of the range
+     * @param to:   the date after the last date of the range
+     * @return A map from each date in [from, to) to the list of events happening during that date
+     */
+    public TreeMap<LocalDate, ArrayList<Event>> findEvents(LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, ArrayList<Event>> eventsByDate = new TreeMap<>();
+        if (!from.isBefore(to)) {
+            return eventsByDate;
+        }
+        LocalDate last = to.minusDays(1);
+        for (LocalDate date = from; !date.isAfter(last); date = date.plusDays(1)) {
+            eventsByDate.put(date, new ArrayList<>());
+        }
+        return readLocked(() -> { // the events' times must not change while they are sorted into days
+            for (Event event : findOverlapping(from, last)) {
+                LocalDate start = event.getStartTime().toLocalDate();
+                LocalDate end = event.getEndTime().toLocalDate();
+                LocalDate first = start.isAfter(from) ? start : from;
+                LocalDate stop = end.isBefore(last) ? end : last;
+                for (LocalDate date = first; !date.isAfter(stop); date = date.plusDays(1)) {
+                    eventsByDate.get(date).add(event);
+                }
             }
+            return eventsByDate;
+        });
+    }
+
+    /**
+     * Gets the events stored in this calendar and the unedited occurrences of its recurring
+     * series that happen on any day between the specified dates (inclusive).
+     * The caller holds the read or write lock.
+     *
+     * @param from the first day of the range.
+     * @param to   the last day of the range.
+     * @return a list of the events happening in the range.
+     */
+    private ArrayList<Event> findOverlapping(LocalDate from, LocalDate to) {
+        ArrayList<Event> events = columns.countScanned(from, to) > MAX_SCAN_RATIO * columns.countStarting(from, to) + 64
+                ? dateIndex.findOverlapping(from, to) : columns.findOverlapping(from, to);
+        for (RecurringSeries s : mySeries.getRecurringSeries()) {
+            events.addAll(s.getOccurrences(from, to));
         }
         return events;
     }
@@ -261,15 +684,7 @@ public class Calendar implements Serializable {
      * @return A list of events which have the input memo
      */
     public ArrayList<Event> findEvent(Memo memo) {
-        ArrayList<Event> events = new ArrayList<>();
-        for (Event event : myEvents) {
-            for (Memo memo1 : event.getMemos()) {
-                if (memo1 == memo) {
-                    events.add(event);
-                }
-            }
-        }
-        return events;
+        return readLocked(() -> myMemos.getEvents(memo));
     }
 
     /**
@@ -279,15 +694,13 @@ public class Calendar implements Serializable {
      * @return A list of events with the input note
      */
     public ArrayList<Event> findEventByMemoNote(String note) {
-        ArrayList<Event> events = new ArrayList<>();
-        for (Event event : myEvents) {
-            for (Memo m : event.getMemos()) {
-                if (m.getNote().equals(note) && !events.contains(event)) {
-                    events.add(event);
-                }
+        return readLocked(() -> {
+            LinkedHashSet<Event> events = new LinkedHashSet<>();
+            for (Memo m : myMemos.findMemos(note)) {
+                events.addAll(myMemos.getEvents(m));
             }
-        }
-        return events;
+            return new ArrayList<>(events);
+        });
     }
 
     //methods for getting list of events: past, current or future
@@ -295,10 +708,19 @@ public class Calendar implements Serializable {
     /**
      * Gets the list of events stored in this calendar.
      *
-     * @return the list of events stored in this calendar.
+     * @return an unmodifiable snapshot of the list of events stored in this calendar.
      */
-    public ArrayList<Event> getMyEvents() {
-        return myEvents;
+    public List<Event> getMyEvents() {
+        return readLocked(() -> Collections.unmodifiableList(new ArrayList<>(myEvents)));
+    }
+
+    /**
+     * Gets the number of events stored in this calendar.
+     *
+     * @return the number of events stored in this calendar.
+     */
+    public int getEventCount() {
+        return readLocked(() -> myEvents.size());
     }
 
     /**
@@ -307,78 +729,97 @@ public class Calendar implements Serializable {
      * @return an array list of the names of events in this calendar.
      */
     public ArrayList<String> getEventNames() {
-        ArrayList<String> names = new ArrayList<>();
-        for (Event e : myEvents) {
-            names.add(e.getEventName());
-        }
-        return names;
+        return readLocked(() -> {
+            ArrayList<String> names = new ArrayList<>(myEvents.size());
+            for (Event e : myEvents) {
+                names.add(e.getEventName());
+            }
+            return names;
+        });
     }
 
     /**
      * Gets a list of events that occurred in the past by the time of calendar.
      *
-     * @return a list of past events.
+     * @return a list of past stored events, ordered by end time.
      */
     public ArrayList<Event> getPastEvents() {
-        ArrayList<Event> events = new ArrayList<>();
-        if (myEvents == null || myEvents.isEmpty()) {
-            return null;
-        } else {
-            for (Event event : myEvents) {
-                if (event.getEndTime().isBefore(time)) {
-                    events.add(event);
-                }
-            }
-            return events;
-        }
+        return readLocked(() -> flatten(endIndex.headMap(time, false)));
     }
 
     /**
      * Gets a list of events currently occurring by the time of calendar.
      *
-     * @return a list of current events.
+     * @return a list of current stored events.
      */
     public ArrayList<Event> getCurrentEvents() {
-        ArrayList<Event> events = new ArrayList<>();
-        for (Event event : myEvents) {
-            if (event.getEndTime().isAfter(time) && event.getStartTime().isBefore(time)) {
-                events.add(event);
+        return readLocked(() -> {
+            ArrayList<Event> events = new ArrayList<>();
+            LocalDate today = time.toLocalDate();
+            for (Event event : dateIndex.findOverlapping(today, today)) { // current events overlap today
+                if (event.getEndTime().isAfter(time) && event.getStartTime().isBefore(time)) {
+                    events.add(event);
+                }
             }
-        }
-        return events;
+            return events;
+        });
     }
 
     /**
      * Gets a list of events occurring in the future by the time of calendar.
      *
-     * @return a list of future events.
+     * @return a list of future stored events, ordered by start time.
      */
     public ArrayList<Event> getFutureEvents() {
+        return readLocked(() -> columns.findStartingAfter(time));
+    }
+
+    /**
+     * Gets all the events in the specified view of a time index, in order.
+     *
+     * @param view a view of startIndex or endIndex.
+     * @return a list of the events in the view.
+     */
+    private static ArrayList<Event> flatten(NavigableMap<LocalDateTime, ArrayList<Event>> view) {
         ArrayList<Event> events = new ArrayList<>();
-        if (myEvents == null || myEvents.isEmpty()) {
-            return null;
-        } else {
-            for (Event event : myEvents) {
-                if (event.getStartTime().isAfter(time)) {
-                    events.add(event);
-                }
-            }
-            return events;
+        for (ArrayList<Event> sameTime : view.values()) {
+            events.addAll(sameTime);
         }
+        return events;
     }
 
     /**
      * Gets an event that is stored in this calendar by specifying its name.
+     * If several events have this name, the one added to this calendar first is returned.
      *
      * @param name: the name of an event; must be the name of an event in this calendar.
      * @return the event with the specified name.
      */
     public Event getEvent(String name) {
-        for (Event event : myEvents) {
-            if (event.getEventName().equals(name))
-                return event;
-        }
-        return null;
+        return readLocked(() -> {
+            ArrayList<Event> events = nameIndex.get(name);
+            return events == null ? null : events.get(0);
+        });
+    }
+
+    /**
+     * Gets all the events stored in this calendar with the specified name.
+     *
+     * @param name: the name of an event
+     * @return A list of events with the input name
+     */
+    public ArrayList<Event> getEvents(String name) {
+        return readLocked(() -> copy(nameIndex.get(name)));
+    }
+
+    /**
+     * Gets the event stored in this calendar with the specified id number.
+     *
+     * @param id the id number of an event in this calendar.
+     * @return the event with the specified id number, or null if there is none.
+     */
+    public Event getEvent(long id) {
+        return readLocked(() -> idIndex.get(id));
     }
 
     /**
@@ -387,16 +828,260 @@ public class Calendar implements Serializable {
      * @param event an event in this calendar.
      */
     private void updateEventStatus(Event event) {
+        String status;
+        if (event.getEndTime().isBefore(time)) {
+            status = "past";
+        } else if (event.getStartTime().isAfter(time)) {
+            status = "future";
+        } else {
+            status = "ongoing";
+        }
+        if (!event.getStatus().equals(status)) {
+            event.changeStatus(status);
+        }
+    }
+
+    /**
+     * Moves the current time of this calendar to the specified time.
+     * Only the events that start or end between the old and the new time change status.
+     *
+     * @param newTime the new current time of this calendar.
+     */
+    public synchronized void setTime(LocalDateTime newTime) {
+        beginWrite();
+        try {
+            LocalDateTime from = newTime.isBefore(time) ? newTime : time;
+            LocalDateTime to = newTime.isBefore(time) ? time : newTime;
+            time = newTime;
+            for (Event event : flatten(startIndex.subMap(from, true, to, true))) {
+                updateEventStatus(event);
+            }
+            for (Event event : flatten(endIndex.subMap(from, true, to, true))) {
+                updateEventStatus(event);
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Moves the current time of this calendar to the time of its clock.
+     */
+    public void updateTime() {
+        setTime(LocalDateTime.now(clock));
+    }
+
+    /**
+     * Gets the clock giving the current time to this calendar.
+     *
+     * @return the clock of this calendar.
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the clock giving the current time to this calendar and its alert system,
+     * and moves the current time of this calendar to the time of the new clock.
+     *
+     * @param clock the new clock of this calendar.
+     */
+    public synchronized void setClock(Clock clock) {
+        this.clock = clock;
+        if (alertLoader == null) { // otherwise the clock is given to the alerts when they are loaded
+            myAlerts.setClock(clock);
+        }
+        updateTime();
+    }
+
+    /**
+     * Changes the name, times and tag of the specified event without deleting its alerts.
+     *
+     * @param event an event in this calendar.
+     * @param name  the new name for the event.
+     * @param start the new start time for the event.
+     * @param end   the new end time for the event.
+     * @param tag   the new tag for the event.
+     */
+    synchronized void updateEvent(Event event, String name, LocalDateTime start, LocalDateTime end, String tag) {
+        beginWrite();
+        try {
+            boolean indexed = unindexEvent(event);
+            event.setEventName(name);
+            event.setStartTime(start);
+            event.setEndTime(end);
+            event.setTag(tag);
+            if (indexed) {
+                indexEvent(event);
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Sets the journal the changes to this calendar are recorded in.
+     *
+     * @param journal a journal, or null to stop recording changes.
+     */
+    synchronized void setJournal(CalendarJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Adds the specified event to this calendar's indexes.
+     *
+     * @param event an event stored in this calendar.
+     */
+    private void indexEvent(Event event) {
+        indexEventFields(event);
+        columns.add(event);
+    }
+
+    /**
+     * Adds the specified event to this calendar's indexes other than its event columns.
+     *
+     * @param event an event stored in this calendar.
+     */
+    private void indexEventFields(Event event) {
+        Event sameId = idIndex.get(event.getId());
+        if (event.getId() == 0 || (sameId != null && sameId != event)) {
+            event.setId(++lastEventId); // new to this calendar, or its id is already taken here
+        } else {
+            lastEventId = Math.max(lastEventId, event.getId());
+        }
+        idIndex.put(event.getId(), event);
+        dateIndex.add(event);
+        addToIndex(startIndex, event.getStartTime(), event);
+        addToIndex(endIndex, event.getEndTime(), event);
+        updateEventStatus(event);
+        addToIndex(tagIndex, event.getTag(), event);
+        addToIndex(nameIndex, event.getEventName(), event);
+    }
+
+    /**
+     * Removes the specified event from this calendar's indexes.
+     *
+     * @param event an event stored in this calendar.
+     * @return true if the event was indexed, otherwise false.
+     */
+    private boolean unindexEvent(Event event) {
+        idIndex.remove(event.getId(), event);
+        removeFromIndex(tagIndex, event.getTag(), event);
+        removeFromIndex(nameIndex, event.getEventName(), event);
+        removeFromIndex(startIndex, event.getStartTime(), event);
+        removeFromIndex(endIndex, event.getEndTime(), event);
+        columns.remove(event);
+        return dateIndex.remove(event);
+    }
+
+    /**
+     * Adds the specified event to the specified index under the specified key.
+     *
+     * @param index an index of this calendar's events.
+     * @param key   the key to store the event under.
+     * @param event an event stored in this calendar.
+     */
+    private static <K> void addToIndex(Map<K, ArrayList<Event>> index, K key, Event event) {
+        index.computeIfAbsent(key, k -> new ArrayList<>()).add(event);
+    }
+
+    /**
+     * Removes the specified event from the specified index, if it is stored under the specified key.
+     *
+     * @param index an index of this calendar's events.
+     * @param key   the key the event is stored under.
+     * @param event an event stored in this calendar.
+     * @return true if the event was removed, otherwise false.
+     */
+    private static <K> boolean removeFromIndex(Map<K, ArrayList<Event>> index, K key, Event event) {
+        ArrayList<Event> events = index.get(key);
+        if (events == null || !events.remove(event)) {
+            return false;
+        }
+        if (events.isEmpty()) {
+            index.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Copies the specified list of events from an index.
+     *
+     * @param events a list of events in an index, or null.
+     * @return a new list of the events, empty if there are none.
+     */
+    private static ArrayList<Event> copy(ArrayList<Event> events) {
+        return events == null ? new ArrayList<>() : new ArrayList<>(events);
+    }
+
+    /**
+     * Takes the write lock for a change to this calendar. It is only called while synchronized on this
+     * calendar, and a change made during another, such as by a journal, takes it again.
+     */
+    private void beginWrite() {
+        lock.writeLock().lock();
+    }
+
+    /**
+     * Releases the write lock taken by {@link #beginWrite()}.
+     */
+    private void endWrite() {
+        lock.writeLock().unlock();
+    }
+
+    /**
+     * Runs the specified query under the read lock. A thread making a change to this calendar, such as
+     * a journal recording the change, already holds the write lock and takes the read lock at once.
+     *
+     * @param query reads this calendar.
+     * @return the result of the query.
+     */
+    private <T> T readLocked(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the alerts of this calendar before it is written, if they have not been read yet.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getMyAlerts();
+        synchronized (this) {
+            out.defaultWriteObject();
+        }
+    }
 
-        LocalDate date1 = time.toLocalDate();
+    /**
+     * Rebuilds this calendar's indexes after it is read from file.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        clock = Clock.systemDefaultZone();
+        lock = new ReentrantReadWriteLock(true);
+        rebuildIndexes();
+    }
 
-        LocalDate start = event.getStartTime().toLocalDate();
-        LocalDate end = event.getEndTime().toLocalDate();
-        if (date1.compareTo(start) >= 0 && date1.compareTo(end) <= 0 && !event.getStatus().equals("ongoing")) {
-            event.changeStatus("ongoing");
-        } else if (date1.compareTo(end) > 0 && !event.getStatus().equals("past")) {
-            event.changeStatus("past");
+    /**
+     * Rebuilds this calendar's indexes from its stored events.
+     */
+    private void rebuildIndexes() {
+        dateIndex = new EventIntervalTree();
+        tagIndex = new HashMap<>();
+        nameIndex = new HashMap<>();
+        idIndex = new HashMap<>();
+        startIndex = new TreeMap<>();
+        endIndex = new TreeMap<>();
+        for (Event e : myEvents) {
+            indexEventFields(e);
+            myMemos.indexEvent(e);
         }
+        columns = new EventColumns();
+        columns.build(myEvents);
     }
 
     /**
@@ -405,7 +1090,7 @@ public class Calendar implements Serializable {
      * @return a string representation of the current time of this calendar.
      */
     public String getTime() {
-        return time.toString();
+        return getLocalDateTime().toString();
     }
 
     /**
@@ -415,27 +1100,155 @@ public class Calendar implements Serializable {
      * @return An ArrayList of all the Series <event> is in.
      */
     public ArrayList<Series> getAssociatedSeries(Event event) {
-        ArrayList<Series> assocSeries = new ArrayList<>();
-        for (Series s : mySeries.getSeries()) {
-            if (s.getEvents().contains(event)) {
-                assocSeries.add(s);
+        return readLocked(() -> new ArrayList<>(event.getSeries()));
+    }
+
+    /**
+     * Adds a new series using the given parameters to this calendar's series system.
+     *
+     * @param name  the name of the series.
+     * @param d     the duration of each event in the series.
+     * @param freq  the duration between events in the series.
+     * @param num   the number of events in this series.
+     * @param first the time and date of the first event in this series.
+     */
+    public synchronized void addSeries(String name, Duration d, Period freq, int num, LocalDateTime first) {
+        beginWrite();
+        try {
+            Collection<Event> newEvents = mySeries.buildSeries(name, d, freq, num, first);
+            for (Event e : newEvents) {
+                addEvent(e);
             }
+            if (journal != null) {
+                journal.seriesChanged(mySeries.getSeries().get(mySeries.getSeries().size() - 1));
+            }
+        } finally {
+            endWrite();
         }
-        return assocSeries;
     }
 
     /**
-     * Adds a new series using the given parameters to this calendar's series system.
+     * Adds a new series defined by a recurrence rule to this calendar's series system.
+     * No events are stored for the series; its occurrences are included in date queries
+     * until one of them is edited with {@link #editOccurrence}.
      *
      * @param name  the name of the series.
      * @param d     the duration of each event in the series.
      * @param freq  the duration between events in the series.
      * @param num   the number of events in this series.
      * @param first the time and date of the first event in this series.
+     * @return the new series.
+     */
+    public synchronized RecurringSeries addRecurringSeries(String name, Duration d, Period freq, int num, LocalDateTime first) {
+        beginWrite();
+        try {
+            RecurringSeries series = mySeries.buildRecurringSeries(name, d, freq, num, first);
+            if (journal != null) {
+                journal.seriesChanged(series);
+            }
+            return series;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Adds a new series defined by a recurrence rule, whose events start no later than the
+     * specified time, to this calendar's series system.
+     *
+     * @param name  the name of the series.
+     * @param d     the duration of each event in the series.
+     * @param freq  the duration between events in the series.
+     * @param first the time and date of the first event in this series.
+     * @param until the latest time and date an event in this series can start at.
+     * @return the new series.
+     */
+    public synchronized RecurringSeries addRecurringSeries(String name, Duration d, Period freq, LocalDateTime first,
+                                              LocalDateTime until) {
+        beginWrite();
+        try {
+            RecurringSeries series = mySeries.buildRecurringSeries(name, d, freq, first, until);
+            if (journal != null) {
+                journal.seriesChanged(series);
+            }
+            return series;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Stores the occurrence at the specified position of a recurring series as an event in this
+     * calendar, so that it can be edited like any other event. If the occurrence was already
+     * stored, the stored event is returned.
+     *
+     * @param series a recurring series in this calendar.
+     * @param n      the position of an occurrence in the series, counting from 0.
+     * @return the event stored for the occurrence.
+     */
+    public synchronized Event editOccurrence(RecurringSeries series, int n) {
+        beginWrite();
+        try {
+            if (series.isOverridden(n)) {
+                return series.getOverride(n);
+            }
+            Event occurrence = series.createOccurrence(n);
+            series.addOverride(n, occurrence);
+            addEvent(occurrence);
+            if (journal != null) {
+                journal.seriesChanged(series);
+            }
+            return occurrence;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Stores the specified occurrence of a recurring series, as found by a date query, as an event in
+     * this calendar with {@link #editOccurrence(RecurringSeries, int)}. A stored event is returned as is.
+     *
+     * @param e an event found in this calendar.
+     * @return the event stored for the occurrence.
+     * @throws IllegalArgumentException if the event is neither stored nor an occurrence of a recurring
+     *                                  series in this calendar.
+     */
+    public synchronized Event editOccurrence(Event e) {
+        beginWrite();
+        try {
+            if (idIndex.get(e.getId()) == e) {
+                return e;
+            }
+            for (Series s : e.getSeries()) {
+                if (s instanceof RecurringSeries && mySeries.getSeries().contains(s)) {
+                    int n = ((RecurringSeries) s).getPosition(e);
+                    if (n >= 0) {
+                        return editOccurrence((RecurringSeries) s, n);
+                    }
+                }
+            }
+            throw new IllegalArgumentException(e.getEventName() + " is not an event of this calendar.");
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Throws an exception if the specified event is an occurrence of a recurring series that is not
+     * stored in this calendar, and so cannot be changed.
+     *
+     * @param e an event in this calendar.
      */
-    public void addSeries(String name, Duration d, Period freq, int num, LocalDateTime first) {
-        Collection<Event> newEvents = mySeries.buildSeries(name, d, freq, num, first);
-        this.myEvents.addAll(newEvents);
+    private void checkNotOccurrence(Event e) {
+        if (idIndex.get(e.getId()) == e) {
+            return;
+        }
+        for (Series s : e.getSeries()) {
+            if (s instanceof RecurringSeries) {
+                throw new IllegalArgumentException(e.getEventName() + " is an occurrence of the recurring series "
+                        + s.getName() + "; store it with editOccurrence before changing it.");
+            }
+        }
     }
 
     /**
@@ -444,18 +1257,26 @@ public class Calendar implements Serializable {
      * @param name   the name of the series.
      * @param events a list of events in this calendar to be included in the series.
      */
-    public void addSeries(String name, ArrayList<Event> events) {
-        mySeries.createSeries(name, events);
+    public synchronized void addSeries(String name, ArrayList<Event> events) {
+        beginWrite();
+        try {
+            mySeries.createSeries(name, events);
+            if (journal != null) {
+                journal.seriesChanged(mySeries.getSeries().get(mySeries.getSeries().size() - 1));
+            }
+        } finally {
+            endWrite();
+        }
     }
 
     /**
      * Gets a collection of the events in the series with the given name.
      *
      * @param name the name of the series.
-     * @return a collection of the events in the series with the given name.
+     * @return an unmodifiable snapshot of the events in the series with the given name.
      */
     public Collection<Event> findEventsBySeries(String name) {
-        return mySeries.findEventsBySeries(name);
+        return readLocked(() -> Collections.unmodifiableList(new ArrayList<>(mySeries.findEventsBySeries(name))));
     }
 
     // Methods for getting alerts: all, based on events or current ones
@@ -463,16 +1284,16 @@ public class Calendar implements Serializable {
     /**
      * Gets a list of all the alerts in this calendar's alert system.
      *
-     * @return a list of all the alerts in this calendar's alert system.
+     * @return a snapshot of all the alerts in this calendar's alert system.
      */
     public ArrayList<Alert> getAllAlerts() {
-        return new ArrayList<>(myAlerts.getAllAlerts());
+        return new ArrayList<>(getMyAlerts().getAllAlerts());
     }
 
     @Override
     public String toString() {
         String s = "";
-        for (Event e : myEvents) {
+        for (Event e : getMyEvents()) {
             s += e.toString() + "\n"; // displays events in this calendar
         }
         if (s.length() != 0) {
@@ -482,35 +1303,121 @@ public class Calendar implements Serializable {
     }
 
     /**
-     * Gets the alert system for this calendar.
+     * Gets the alert system for this calendar. It is not a copy: it is shared by every thread using this
+     * calendar and synchronizes its own methods, so it is not guarded by this calendar's lock.
      *
      * @return the alert system for this calendar.
      */
     public AlertSystem getMyAlerts() {
+        if (alertLoader != null) {
+            loadAlerts();
+        }
         return myAlerts;
     }
 
+    /**
+     * Defers reading this calendar's alert system until it is first accessed.
+     *
+     * @param loader reads the alert system of this calendar.
+     */
+    void setAlertLoader(Supplier<AlertSystem> loader) {
+        this.myAlerts = null;
+        this.alertLoader = loader;
+    }
+
+    /**
+     * Reads this calendar's alert system, if it has not been read yet.
+     */
+    private synchronized void loadAlerts() {
+        if (alertLoader != null) {
+            myAlerts = alertLoader.get();
+            myAlerts.setClock(clock);
+            alertLoader = null;
+        }
+    }
+
     /**
      * Adds a notification of an event to this calendar's notification system.
      *
      * @param event an event that was shared with this calendar.
      */
-    public void addEventNotification(Event event) {
-        this.notifications.add(event);
+    public synchronized void addEventNotification(Event event) {
+        beginWrite();
+        try {
+            this.notifications.add(event);
+            if (journal != null) {
+                journal.invitesChanged();
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Removes the specified events from the event invites that this calendar has received.
+     *
+     * @param events events that were shared with this calendar.
+     */
+    public synchronized void removeEventInvites(Collection<Event> events) {
+        beginWrite();
+        try {
+            this.notifications.removeAll(events);
+            if (journal != null) {
+                journal.invitesChanged();
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Replaces the event invites that this calendar has received with the specified events, as read
+     * from its journal.
+     *
+     * @param events events that were shared with this calendar.
+     */
+    synchronized void restoreEventInvites(Collection<Event> events) {
+        beginWrite();
+        try {
+            this.notifications.clear();
+            this.notifications.addAll(events);
+        } finally {
+            endWrite();
+        }
     }
 
     /**
      * Gets a list of the event invites that this calendar has received.
      *
-     * @return a list of the event invites that this calendar has received.
+     * @return an unmodifiable snapshot of the event invites that this calendar has received.
      */
-    public ArrayList<Event> getEventInvites() { return this.notifications; }
+    public List<Event> getEventInvites() {
+        return readLocked(() -> Collections.unmodifiableList(new ArrayList<>(notifications)));
+    }
 
     /**
      * Returns the time of the calendar.
      */
     public LocalDateTime getLocalDateTime() {
-        return time;
+        return readLocked(() -> time);
+    }
+
+    /**
+     * Gets the series system for this calendar.
+     *
+     * @return the series system for this calendar.
+     */
+    SeriesSystem getMySeries() {
+        return mySeries;
+    }
+
+    /**
+     * Gets the largest id number given to an event in this calendar.
+     *
+     * @return the largest event id number.
+     */
+    long getLastEventId() {
+        return lastEventId;
     }
 }
 
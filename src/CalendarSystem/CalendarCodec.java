@@ -0,0 +1,695 @@
+package CalendarSystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes calendars in a compact binary format.
+ * <p>
+ * A file starts with a magic number and a format version, followed by a table of all the strings
+ * in the calendar and by one section per kind of object: memos, events, series, the contents of
+ * the calendar itself, and alerts. Objects refer to strings and to each other by their position in
+ * their table, written as variable-length integers, and times are written as epoch seconds and
+ * nanoseconds. Event statuses, indexes and alert times are not written; they are rebuilt on reading.
+ * <p>
+ * The alerts section is written last, prefixed with its length, so that it is only kept as bytes
+ * when a calendar is read and decoded when its alerts are first accessed. Version 1 files, where the
+ * alerts come before the contents of the calendar, are still read.
+ *
+ * @see CalendarManager
+ */
+public class CalendarCodec {
+
+    /**
+     * The first four bytes of a calendar file in this format ("CALB").
+     */
+    public static final int MAGIC = 0x43414C42;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The first version that writes the alerts section last.
+     */
+    private static final int LAZY_ALERTS_VERSION = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int PLAIN_SERIES = 0;
+    private static final int RECURRING_SERIES = 1;
+    private static final int INDIVIDUAL_ALERT = 0;
+    private static final int FREQUENT_ALERT = 1;
+
+    private CalendarCodec() {
+    }
+
+    /**
+     * Returns true if the specified bytes start a calendar file in this format.
+     *
+     * @param header the first four bytes of a file, read as a big-endian int.
+     * @return true if the header is the magic number of this format, otherwise false.
+     */
+    public static boolean isBinary(int header) {
+        return header == MAGIC;
+    }
+
+    /**
+     * Writes the specified calendar to the specified channel. The channel is not closed.
+     *
+     * @param calendar the calendar to be written.
+     * @param channel  the channel to write to.
+     * @throws IOException if the channel cannot be written to.
+     */
+    public static void write(Calendar calendar, WritableByteChannel channel) throws IOException {
+        Output out = new Output(channel);
+        new Writer(calendar, out).write();
+        out.flush();
+    }
+
+    /**
+     * Reads a calendar from the specified channel, which must be positioned at the magic number.
+     * The channel is not closed.
+     *
+     * @param channel the channel to read from.
+     * @return the calendar that was read.
+     * @throws IOException if the channel cannot be read from or does not hold a calendar in this format.
+     */
+    public static Calendar read(ReadableByteChannel channel) throws IOException {
+        Input in = new Input(channel);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a calendar file.");
+        }
+        int version = in.readVarInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported calendar file version " + version + ".");
+        }
+        return new Reader(in).read(version);
+    }
+
+    /**
+     * Writes one calendar, numbering its strings and objects by the order they are found in.
+     */
+    private static class Writer {
+        private final Calendar calendar;
+        private Output out;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final List<String> stringTable = new ArrayList<>();
+        private final Map<Memo, Integer> memoIds = new IdentityHashMap<>();
+        private final List<Memo> memos = new ArrayList<>();
+        private final Map<Event, Integer> eventIds = new IdentityHashMap<>();
+        private final List<Event> events = new ArrayList<>();
+        private final Map<Series, Integer> seriesIds = new IdentityHashMap<>();
+        private final List<Series> series = new ArrayList<>();
+        private final Map<Alert, Integer> alertIds = new IdentityHashMap<>();
+        private final List<Alert> alerts = new ArrayList<>();
+
+        private Writer(Calendar calendar, Output out) {
+            this.calendar = calendar;
+            this.out = out;
+        }
+
+        private void write() throws IOException {
+            collect();
+            out.writeInt(MAGIC);
+            out.writeVarInt(VERSION);
+
+            out.writeVarInt(stringTable.size());
+            for (String s : stringTable) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeVarInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeVarInt(memos.size());
+            for (Memo m : memos) {
+                out.writeVarInt(m.getIdNumber());
+                writeString(m.getNote());
+            }
+
+            out.writeVarInt(events.size());
+            for (Event e : events) {
+                out.writeVarLong(e.getId());
+                writeString(e.getEventName());
+                out.writeTime(e.getStartTime());
+                out.writeTime(e.getEndTime());
+                writeString(e.getTag());
+                writeString(e.getStatus());
+            }
+
+            out.writeVarInt(series.size());
+            for (Series s : series) {
+                writeString(s.getName());
+                if (s instanceof RecurringSeries) {
+                    RecurringSeries r = (RecurringSeries) s;
+                    out.writeByte(RECURRING_SERIES);
+                    out.writeTime(r.getFirst());
+                    out.writeDuration(r.getDuration());
+                    out.writePeriod(r.getFrequency());
+                    out.writeVarInt(r.getCount());
+                    out.writeVarInt(r.getOverrides().size());
+                    for (Map.Entry<Integer, Event> override : r.getOverrides().entrySet()) {
+                        out.writeVarInt(override.getKey());
+                        out.writeVarInt(eventIds.get(override.getValue()));
+                    }
+                    writeRefs(r.getAddedEvents(), eventIds);
+                } else {
+                    out.writeByte(PLAIN_SERIES);
+                    writeRefs(s.getEvents(), eventIds);
+                }
+            }
+
+            // links from events, written once the series they refer to are numbered
+            for (Event e : events) {
+                writeRefs(e.getMemos(), memoIds);
+                writeRefs(e.getSeries(), seriesIds);
+            }
+
+            writeRefs(calendar.getMyMemos(), memoIds);
+            writeRefs(calendar.getMySeries().getSeries(), seriesIds);
+            writeRefs(calendar.getMyEvents(), eventIds);
+            writeRefs(calendar.getEventInvites(), eventIds);
+            out.writeTime(calendar.getLocalDateTime());
+            out.writeVarLong(calendar.getLastEventId());
+
+            // the alerts go through their own buffer, to be prefixed with their length
+            Output main = out;
+            ByteArrayOutputStream alertBytes = new ByteArrayOutputStream();
+            out = new Output(Channels.newChannel(alertBytes));
+            writeAlerts();
+            out.flush();
+            out = main;
+            out.writeVarInt(alertBytes.size());
+            out.write(alertBytes.toByteArray());
+        }
+
+        private void writeAlerts() throws IOException {
+            out.writeVarInt(alerts.size());
+            for (Alert a : alerts) {
+                writeString(a.getName());
+                out.writeTime(a.getEventTime());
+                writeString(a.getMessage());
+                if (a instanceof FrequentAlert) {
+                    FrequentAlert f = (FrequentAlert) a;
+                    out.writeByte(FREQUENT_ALERT);
+                    out.writeDuration(f.getFrequency());
+                    out.writeBoolean(f.getSince() != null);
+                    if (f.getSince() != null) {
+                        out.writeTime(f.getSince());
+                    }
+                } else {
+                    out.writeByte(INDIVIDUAL_ALERT);
+                    out.writeTime(((IndividualAlert) a).getTime());
+                }
+            }
+            Map<Event, List<Alert>> eventAlerts = calendar.getMyAlerts().getEventAlertsMap();
+            out.writeVarInt(eventAlerts.size());
+            for (Map.Entry<Event, List<Alert>> entry : eventAlerts.entrySet()) {
+                out.writeVarInt(eventIds.get(entry.getKey()));
+                writeRefs(entry.getValue(), alertIds);
+            }
+        }
+
+        /**
+         * Numbers every string, memo, event, series and alert reachable from the calendar.
+         */
+        private void collect() {
+            for (Memo m : calendar.getMyMemos()) {
+                addMemo(m);
+            }
+            for (Series s : calendar.getMySeries().getSeries()) {
+                addSeries(s);
+            }
+            for (Event e : calendar.getMyEvents()) {
+                addEvent(e);
+            }
+            for (Event e : calendar.getEventInvites()) {
+                addEvent(e);
+            }
+            for (Map.Entry<Event, List<Alert>> entry : calendar.getMyAlerts().getEventAlertsMap().entrySet()) {
+                addEvent(entry.getKey());
+                for (Alert a : entry.getValue()) {
+                    if (!alertIds.containsKey(a)) {
+                        alertIds.put(a, alerts.size());
+                        alerts.add(a);
+                        addString(a.getName());
+                        addString(a.getMessage());
+                    }
+                }
+            }
+        }
+
+        private void addMemo(Memo m) {
+            if (!memoIds.containsKey(m)) {
+                memoIds.put(m, memos.size());
+                memos.add(m);
+                addString(m.getNote());
+            }
+        }
+
+        private void addEvent(Event e) {
+            if (eventIds.containsKey(e)) {
+                return;
+            }
+            eventIds.put(e, events.size());
+            events.add(e);
+            addString(e.getEventName());
+            addString(e.getTag());
+            addString(e.getStatus());
+            for (Memo m : e.getMemos()) {
+                addMemo(m);
+            }
+            for (Series s : e.getSeries()) {
+                addSeries(s);
+            }
+        }
+
+        private void addSeries(Series s) {
+            if (seriesIds.containsKey(s)) {
+                return;
+            }
+            seriesIds.put(s, series.size());
+            series.add(s);
+            addString(s.getName());
+            if (s instanceof RecurringSeries) {
+                RecurringSeries r = (RecurringSeries) s;
+                for (Event e : r.getOverrides().values()) {
+                    addEvent(e);
+                }
+                for (Event e : r.getAddedEvents()) {
+                    addEvent(e);
+                }
+            } else {
+                for (Event e : s.getEvents()) {
+                    addEvent(e);
+                }
+            }
+        }
+
+        private void addString(String s) {
+            if (s != null && !strings.containsKey(s)) {
+                strings.put(s, stringTable.size());
+                stringTable.add(s);
+            }
+        }
+
+        /**
+         * Writes a string as its position in the string table plus one, or 0 for null.
+         */
+        private void writeString(String s) throws IOException {
+            out.writeVarInt(s == null ? 0 : strings.get(s) + 1);
+        }
+
+        private <T> void writeRefs(Collection<? extends T> objects, Map<T, Integer> ids) throws IOException {
+            out.writeVarInt(objects.size());
+            for (T o : objects) {
+                out.writeVarInt(ids.get(o));
+            }
+        }
+    }
+
+    /**
+     * Reads one calendar, in the order it was written by {@link Writer}.
+     */
+    private static class Reader {
+        private final Input in;
+        private String[] strings;
+        private Memo[] memos;
+        private Event[] events;
+        private Series[] series;
+        private Alert[] alerts;
+
+        private Reader(Input in) {
+            this.in = in;
+        }
+
+        private Calendar read(int version) throws IOException {
+            strings = new String[in.readVarInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[in.readVarInt()];
+                in.readFully(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            memos = new Memo[in.readVarInt()];
+            for (int i = 0; i < memos.length; i++) {
+                int idNum = in.readVarInt();
+                memos[i] = new Memo(idNum, readString());
+            }
+
+            events = new Event[in.readVarInt()];
+            for (int i = 0; i < events.length; i++) {
+                long id = in.readVarLong();
+                String name = readString();
+                LocalDateTime start = in.readTime();
+                Event e = new Event(name, start, in.readTime());
+                e.setId(id);
+                e.setTag(readString());
+                e.changeStatus(readString());
+                events[i] = e;
+            }
+
+            series = new Series[in.readVarInt()];
+            for (int i = 0; i < series.length; i++) {
+                String name = readString();
+                if (in.readByte() == RECURRING_SERIES) {
+                    LocalDateTime first = in.readTime();
+                    Duration duration = in.readDuration();
+                    Period frequency = in.readPeriod();
+                    RecurringSeries r = new RecurringSeries(name, first, duration, frequency, in.readVarInt());
+                    int overrides = in.readVarInt();
+                    for (int j = 0; j < overrides; j++) {
+                        int n = in.readVarInt();
+                        r.addOverride(n, events[in.readVarInt()]);
+                    }
+                    for (Event e : readEventRefs()) {
+                        r.addEvent(e);
+                    }
+                    series[i] = r;
+                } else {
+                    series[i] = new Series(name, readEventRefs());
+                }
+            }
+
+            for (Event e : events) {
+                int memoCount = in.readVarInt();
+                for (int j = 0; j < memoCount; j++) {
+                    e.getMemos().add(memos[in.readVarInt()]);
+                }
+                int seriesCount = in.readVarInt();
+                for (int j = 0; j < seriesCount; j++) {
+                    e.associateSeries(series[in.readVarInt()]);
+                }
+            }
+
+            AlertSystem alertSystem = version < LAZY_ALERTS_VERSION ? readAlerts() : null;
+
+            MemoSystem memoSystem = new MemoSystem();
+            int memoCount = in.readVarInt();
+            for (int i = 0; i < memoCount; i++) {
+                memoSystem.restoreMemo(memos[in.readVarInt()]);
+            }
+            SeriesSystem seriesSystem = new SeriesSystem();
+            int seriesCount = in.readVarInt();
+            for (int i = 0; i < seriesCount; i++) {
+                seriesSystem.restoreSeries(series[in.readVarInt()]);
+            }
+            ArrayList<Event> myEvents = readEventRefs();
+            ArrayList<Event> notifications = readEventRefs();
+            LocalDateTime time = in.readTime();
+            long lastEventId = in.readVarLong();
+            Calendar calendar = new Calendar(myEvents, memoSystem, seriesSystem, alertSystem, notifications,
+                    time, lastEventId);
+
+            if (alertSystem == null) {
+                byte[] alertBytes = new byte[in.readVarInt()];
+                in.readFully(alertBytes);
+                String[] alertStrings = strings;
+                Event[] alertEvents = events;
+                calendar.setAlertLoader(() -> {
+                    Reader alertReader = new Reader(new Input(Channels.newChannel(
+                            new ByteArrayInputStream(alertBytes)), Math.max(1, alertBytes.length)));
+                    alertReader.strings = alertStrings;
+                    alertReader.events = alertEvents;
+                    try {
+                        return alertReader.readAlerts();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException("Cannot read the alerts of the calendar.", ex);
+                    }
+                });
+            }
+            return calendar;
+        }
+
+        private AlertSystem readAlerts() throws IOException {
+            alerts = new Alert[in.readVarInt()];
+            for (int i = 0; i < alerts.length; i++) {
+                String name = readString();
+                LocalDateTime eventTime = in.readTime();
+                String message = readString();
+                if (in.readByte() == FREQUENT_ALERT) {
+                    Duration frequency = in.readDuration();
+                    LocalDateTime since = in.readBoolean() ? in.readTime() : null;
+                    alerts[i] = new FrequentAlert(eventTime, name, message, frequency, since);
+                } else {
+                    alerts[i] = new IndividualAlert(eventTime, name, message, in.readTime());
+                }
+            }
+            AlertSystem alertSystem = new AlertSystem();
+            int eventAlertCount = in.readVarInt();
+            for (int i = 0; i < eventAlertCount; i++) {
+                Event e = events[in.readVarInt()];
+                int count = in.readVarInt();
+                for (int j = 0; j < count; j++) {
+                    alertSystem.restoreAlert(e, alerts[in.readVarInt()]);
+                }
+            }
+            return alertSystem;
+        }
+
+        private String readString() throws IOException {
+            int ref = in.readVarInt();
+            return ref == 0 ? null : strings[ref - 1];
+        }
+
+        private ArrayList<Event> readEventRefs() throws IOException {
+            int count = in.readVarInt();
+            ArrayList<Event> refs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                refs.add(events[in.readVarInt()]);
+            }
+            return refs;
+        }
+    }
+
+    /**
+     * Writes the primitive values of the format to a channel through a buffer.
+     */
+    static class Output {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        Output(WritableByteChannel channel) {
+            this(channel, BUFFER_SIZE);
+        }
+
+        Output(WritableByteChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(bufferSize);
+        }
+
+        void writeByte(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) b);
+        }
+
+        void writeBoolean(boolean b) throws IOException {
+            writeByte(b ? 1 : 0);
+        }
+
+        void writeInt(int i) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(i);
+        }
+
+        void write(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void writeVarInt(int value) throws IOException {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Writes a non-negative number seven bits at a time, lowest bits first, setting the high
+         * bit of every byte except the last.
+         */
+        void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        /**
+         * Writes a number zigzag-encoded, so that small negative numbers stay short.
+         */
+        void writeSignedVarLong(long value) throws IOException {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        /**
+         * Writes a string as its length in UTF-8 bytes plus one (0 for null), followed by the bytes.
+         */
+        void writeUtf8(String s) throws IOException {
+            if (s == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            write(bytes);
+        }
+
+        void writeTime(LocalDateTime time) throws IOException {
+            writeSignedVarLong(time.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(time.getNano());
+        }
+
+        void writeDuration(Duration d) throws IOException {
+            writeSignedVarLong(d.getSeconds());
+            writeVarInt(d.getNano());
+        }
+
+        void writePeriod(Period p) throws IOException {
+            writeSignedVarLong(p.getYears());
+            writeSignedVarLong(p.getMonths());
+            writeSignedVarLong(p.getDays());
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads the primitive values of the format from a channel through a buffer.
+     */
+    static class Input {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        Input(ReadableByteChannel channel) {
+            this(channel, BUFFER_SIZE);
+        }
+
+        Input(ReadableByteChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(bufferSize);
+            buffer.limit(0);
+        }
+
+        byte readByte() throws IOException {
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+            return buffer.get();
+        }
+
+        boolean readBoolean() throws IOException {
+            return readByte() != 0;
+        }
+
+        int readInt() throws IOException {
+            return (readByte() & 0xFF) << 24 | (readByte() & 0xFF) << 16 | (readByte() & 0xFF) << 8
+                    | (readByte() & 0xFF);
+        }
+
+        void readFully(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    fill();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.get(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        int readVarInt() throws IOException {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable-length integer.");
+        }
+
+        long readSignedVarLong() throws IOException {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readUtf8() throws IOException {
+            int length = readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length - 1];
+            readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        LocalDateTime readTime() throws IOException {
+            long seconds = readSignedVarLong();
+            return LocalDateTime.ofEpochSecond(seconds, readVarInt(), ZoneOffset.UTC);
+        }
+
+        Duration readDuration() throws IOException {
+            long seconds = readSignedVarLong();
+            return Duration.ofSeconds(seconds, readVarInt());
+        }
+
+        Period readPeriod() throws IOException {
+            int years = (int) readSignedVarLong();
+            int months = (int) readSignedVarLong();
+            return Period.of(years, months, (int) readSignedVarLong());
+        }
+
+        private void fill() throws IOException {
+            buffer.clear();
+            int n;
+            do {
+                n = channel.read(buffer);
+            } while (n == 0);
+            buffer.flip();
+            if (n < 0) {
+                throw new EOFException("Unexpected end of calendar file.");
+            }
+        }
+    }
+}
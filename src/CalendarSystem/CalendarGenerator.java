@@ -0,0 +1,314 @@
+package CalendarSystem;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds synthetic calendars of a known shape for benchmarks and stress tests. The same seed and
+ * settings always give the same calendar.
+ * <p>
+ * Events are spread over a number of days from a start date. Most start on the quarter hour during
+ * working hours and last up to two hours, so they overlap the way meetings do; a few last all day or
+ * several days. Tags are skewed, so a few tags are on most tagged events. Memos are on events close
+ * together in time, and series repeat daily, weekly, every two weeks or monthly. Individual alerts go
+ * off shortly before their event; frequent alerts are only added to events after the calendar's
+ * current time, where they are valid.
+ *
+ * @see Calendar
+ * @see CalendarManager
+ */
+public class CalendarGenerator {
+
+    private static final String[] NAMES = {"Meeting", "Lecture", "Lunch", "Gym", "Review", "Call",
+            "Lab", "Seminar", "Dinner", "Appointment", "Study", "Standup"};
+
+    /**
+     * The lengths of events in minutes, and how often each length is picked out of 100.
+     */
+    private static final int[] LENGTHS = {15, 30, 60, 90, 120, 240, 1440};
+    private static final int[] LENGTH_WEIGHTS = {10, 25, 35, 10, 10, 5, 4};
+
+    private static final Period[] FREQUENCIES = {Period.ofDays(1), Period.ofWeeks(1), Period.ofWeeks(2),
+            Period.ofMonths(1)};
+    private static final int[] FREQUENCY_WEIGHTS = {20, 50, 15, 15};
+
+    private static final Duration[] ALERT_LEADS = {Duration.ofMinutes(5), Duration.ofMinutes(15),
+            Duration.ofMinutes(30), Duration.ofHours(1), Duration.ofDays(1)};
+    private static final Duration[] ALERT_FREQUENCIES = {Duration.ofMinutes(15), Duration.ofHours(1),
+            Duration.ofDays(1)};
+
+    private final long seed;
+
+    private int events = 1000;
+    private int tags = 8;
+    private int memos = 50;
+    private int memoEvents = 3;
+    private int series = 5;
+    private int seriesLength = 12;
+    private int recurringSeries = 0;
+    private int individualAlerts = 50;
+    private int frequentAlerts = 10;
+    private LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private int days = 365;
+
+    /**
+     * Creates a generator with the specified seed and the default settings: 1000 events over a year
+     * from the start of 2020, 8 tags, 50 memos on 3 events each on average, 5 series of up to 12
+     * events, 50 individual alerts and 10 frequent alerts.
+     *
+     * @param seed the seed of the random numbers.
+     */
+    public CalendarGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the number of events not in a series.
+     *
+     * @param events the number of events.
+     */
+    public void setEvents(int events) {
+        this.events = events;
+    }
+
+    /**
+     * Sets the number of distinct tags. Three quarters of the events are tagged.
+     *
+     * @param tags the number of tags; 0 for no tags.
+     */
+    public void setTags(int tags) {
+        this.tags = tags;
+    }
+
+    /**
+     * Sets the number of memos and the average number of events each is on.
+     *
+     * @param memos      the number of memos.
+     * @param memoEvents the average number of events a memo is on, at least 1.
+     */
+    public void setMemos(int memos, int memoEvents) {
+        this.memos = memos;
+        this.memoEvents = Math.max(1, memoEvents);
+    }
+
+    /**
+     * Sets the number of series whose events are stored, and the largest number of events in one.
+     * Their events are in addition to those set by {@link #setEvents(int)}.
+     *
+     * @param series       the number of series.
+     * @param seriesLength the largest number of events in a series, at least 2.
+     */
+    public void setSeries(int series, int seriesLength) {
+        this.series = series;
+        this.seriesLength = Math.max(2, seriesLength);
+    }
+
+    /**
+     * Sets the number of series defined by a recurrence rule, whose occurrences are not stored.
+     *
+     * @param recurringSeries the number of recurring series.
+     */
+    public void setRecurringSeries(int recurringSeries) {
+        this.recurringSeries = recurringSeries;
+    }
+
+    /**
+     * Sets the number of individual and frequent alerts.
+     *
+     * @param individualAlerts the number of individual alerts.
+     * @param frequentAlerts   the number of frequent alerts; fewer are added if there are not enough
+     *                         events after the calendar's current time.
+     */
+    public void setAlerts(int individualAlerts, int frequentAlerts) {
+        this.individualAlerts = individualAlerts;
+        this.frequentAlerts = frequentAlerts;
+    }
+
+    /**
+     * Sets the days the events are spread over.
+     *
+     * @param start the start of the first day.
+     * @param days  the number of days, at least 1.
+     */
+    public void setRange(LocalDateTime start, int days) {
+        this.start = start;
+        this.days = Math.max(1, days);
+    }
+
+    /**
+     * Gets the start of the first day the events are spread over.
+     *
+     * @return the start of the range.
+     */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the number of days the events are spread over.
+     *
+     * @return the number of days.
+     */
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * Builds a new calendar using the specified clock.
+     *
+     * @param clock the clock giving the current time to the calendar.
+     * @return the generated calendar.
+     */
+    public Calendar generate(Clock clock) {
+        Calendar calendar = new Calendar(clock);
+        fill(calendar);
+        return calendar;
+    }
+
+    /**
+     * Creates a calendar with the specified name for the user of the specified manager, fills it and
+     * saves it in full.
+     *
+     * @param manager the manager of the user the calendar is created for.
+     * @param name    the name of the new calendar.
+     * @throws IOException
+     */
+    public void writeTo(CalendarManager manager, String name) throws IOException {
+        manager.createCalendar(name);
+        fill(manager.getCalendar());
+        manager.saveToFile();
+    }
+
+    /**
+     * Adds the generated events, series, memos and alerts to the specified calendar.
+     *
+     * @param calendar the calendar to be filled.
+     */
+    public void fill(Calendar calendar) {
+        Random random = new Random(seed);
+        ArrayList<Event> sorted = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            LocalDateTime eventStart = startTime(random);
+            Event e = new Event(NAMES[random.nextInt(NAMES.length)] + " " + i, eventStart,
+                    eventStart.plus(length(random)));
+            if (tags > 0 && random.nextInt(4) != 0) {
+                double skew = random.nextDouble();
+                e.setTag("tag" + (int) (tags * skew * skew));
+            }
+            sorted.add(e);
+        }
+        ArrayList<ArrayList<Event>> seriesEvents = new ArrayList<>(series);
+        for (int i = 0; i < series; i++) {
+            ArrayList<Event> occurrences = new ArrayList<>();
+            LocalDateTime first = startTime(random);
+            Duration d = Duration.ofMinutes(random.nextBoolean() ? 30 : 60);
+            Period freq = FREQUENCIES[pick(random, FREQUENCY_WEIGHTS)];
+            int num = 2 + random.nextInt(seriesLength - 1);
+            for (int n = 0; n < num; n++) {
+                LocalDateTime occurrence = first.plus(freq.multipliedBy(n));
+                occurrences.add(new Event("Series " + i + ": Event " + (n + 1), occurrence, occurrence.plus(d)));
+            }
+            seriesEvents.add(occurrences);
+            sorted.addAll(occurrences);
+        }
+
+        // events added in order of start time are appended to the calendar's indexes
+        sorted.sort(Comparator.comparing(Event::getStartTime));
+        for (Event e : sorted) {
+            calendar.addEvent(e);
+        }
+        for (int i = 0; i < seriesEvents.size(); i++) {
+            calendar.addSeries("Series " + i, seriesEvents.get(i));
+        }
+        for (int i = 0; i < recurringSeries; i++) {
+            Period freq = FREQUENCIES[pick(random, FREQUENCY_WEIGHTS)];
+            calendar.addRecurringSeries("Recurring " + i, Duration.ofMinutes(random.nextBoolean() ? 30 : 60),
+                    freq, 2 + random.nextInt(seriesLength - 1), startTime(random));
+        }
+
+        if (!sorted.isEmpty()) {
+            for (int i = 0; i < memos; i++) {
+                calendar.createMemo(nearbyEvents(random, sorted), "Note " + i);
+            }
+            for (int i = 0; i < individualAlerts; i++) {
+                Event e = sorted.get(random.nextInt(sorted.size()));
+                calendar.addIndividualAlert(e, "Reminder " + i,
+                        e.getStartTime().minus(ALERT_LEADS[random.nextInt(ALERT_LEADS.length)]));
+            }
+            addFrequentAlerts(calendar, random, sorted);
+        }
+    }
+
+    /**
+     * Adds frequent alerts to random events starting after the calendar's current time.
+     */
+    private void addFrequentAlerts(Calendar calendar, Random random, List<Event> sorted) {
+        LocalDateTime now = LocalDateTime.now(calendar.getClock());
+        int firstFuture = 0;
+        while (firstFuture < sorted.size() && !sorted.get(firstFuture).getStartTime().isAfter(now)) {
+            firstFuture++;
+        }
+        int future = sorted.size() - firstFuture;
+        for (int i = 0; i < frequentAlerts && future > 0; i++) {
+            Event e = sorted.get(firstFuture + random.nextInt(future));
+            Duration frequency = ALERT_FREQUENCIES[random.nextInt(ALERT_FREQUENCIES.length)];
+            if (FrequentAlert.isValidFrequentAlert(e.getStartTime(), now, frequency)) {
+                calendar.addFrequentAlert(e, "Every " + i, frequency);
+            }
+        }
+    }
+
+    /**
+     * Picks a start time on a random day: on the quarter hour during working hours mostly, otherwise
+     * at any quarter hour of the day.
+     */
+    private LocalDateTime startTime(Random random) {
+        LocalDateTime day = start.plusDays(random.nextInt(days));
+        int quarter = random.nextInt(10) < 8 ? 32 + random.nextInt(40) : random.nextInt(96);
+        return day.plusMinutes(15L * quarter);
+    }
+
+    /**
+     * Picks the length of an event; one event in a hundred lasts several days.
+     */
+    private static Duration length(Random random) {
+        if (random.nextInt(100) == 0) {
+            return Duration.ofDays(2 + random.nextInt(4));
+        }
+        return Duration.ofMinutes(LENGTHS[pick(random, LENGTH_WEIGHTS)]);
+    }
+
+    /**
+     * Picks events for a memo, close to each other in the specified list of events sorted by start.
+     */
+    private List<Event> nearbyEvents(Random random, List<Event> sorted) {
+        int count = Math.min(sorted.size(), 1 + random.nextInt(2 * memoEvents - 1));
+        int first = random.nextInt(sorted.size() - count + 1);
+        return new ArrayList<>(sorted.subList(first, first + count));
+    }
+
+    /**
+     * Picks a position in the specified list of weights, with a chance proportional to its weight.
+     */
+    private static int pick(Random random, int[] weights) {
+        int total = 0;
+        for (int w : weights) {
+            total += w;
+        }
+        int r = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+}
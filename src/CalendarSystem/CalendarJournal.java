@@ -0,0 +1,775 @@
+package CalendarSystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the changes made to a calendar since it was last saved in full.
+ * <p>
+ * The calendar tells its journal about every change as it is made, and the journal appends one
+ * record holding the new state of the changed event, memo, series, list of alerts or list of
+ * invites. Records only hold state, not operations, so replaying a record twice gives the same
+ * result; a calendar is restored by reading its last full save and replaying its journal on top.
+ * Each record is framed with its length and a CRC32 checksum, so a record cut short by a crash is
+ * detected and dropped.
+ * <p>
+ * When the calendar is saved in the background, records are held in memory and written by the
+ * {@link CalendarSaver}'s thread, so a burst of changes costs one write.
+ *
+ * @see Calendar
+ * @see CalendarManager
+ * @see CalendarCodec
+ */
+public class CalendarJournal implements Closeable {
+
+    /**
+     * The first four bytes of a journal file ("CALJ").
+     */
+    public static final int MAGIC = 0x43414C4A;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 5;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int RECORD_BUFFER_SIZE = 256;
+
+    private static final byte EVENT = 1;
+    private static final byte EVENT_REMOVED = 2;
+    private static final byte MEMO = 3;
+    private static final byte MEMO_REMOVED = 4;
+    private static final byte ALERTS = 5;
+    private static final byte SERIES = 6;
+    private static final byte INVITES = 7;
+
+    private static final byte PLAIN_SERIES = 0;
+    private static final byte RECURRING_SERIES = 1;
+    private static final byte INDIVIDUAL_ALERT = 0;
+    private static final byte FREQUENT_ALERT = 1;
+
+    private static final Logger logger = Logger.getLogger(CalendarJournal.class.getName());
+
+    /**
+     * The file this journal appends to.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The calendar whose changes are recorded.
+     */
+    private Calendar calendar;
+
+    /**
+     * True if a change could not be recorded, so that the journal no longer holds every change.
+     */
+    private volatile boolean incomplete;
+
+    /**
+     * The saver writing held records in the background, or null if records are written as they are made.
+     */
+    private CalendarSaver saver;
+
+    /**
+     * The framed records not written to the file yet.
+     */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    /**
+     * The number of records not written to the file yet.
+     */
+    private int pendingRecords;
+
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+    private final CalendarCodec.Output record =
+            new CalendarCodec.Output(Channels.newChannel(recordBytes), RECORD_BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Opens the journal at the specified path for appending, creating it if it does not exist.
+     * Records already in the file are kept; they should have been replayed with {@link #replay}.
+     *
+     * @param path the path of the journal file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public CalendarJournal(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            reset();
+        } else {
+            channel.position(channel.size());
+        }
+    }
+
+    /**
+     * Replays the journal at the specified path on the specified calendar, which must not be recording
+     * to a journal. Records after the first damaged one are dropped, and the file is truncated there.
+     *
+     * @param calendar the calendar read from the last full save.
+     * @param path     the path of the journal file; nothing is done if it does not exist.
+     * @return the number of records replayed.
+     * @throws IOException if the file cannot be read or is not a journal.
+     */
+    public static int replay(Calendar calendar, Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            return 0;
+        }
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.allocate((int) in.size());
+            while (bytes.hasRemaining() && in.read(bytes) >= 0) {
+                // read the whole journal
+            }
+            bytes.flip();
+            if (bytes.remaining() < HEADER_SIZE || bytes.getInt() != MAGIC) {
+                throw new IOException("Not a calendar journal.");
+            }
+            int version = bytes.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported calendar journal version " + version + ".");
+            }
+            Replayer replayer = new Replayer(calendar);
+            CRC32 checksum = new CRC32();
+            int count = 0;
+            while (bytes.remaining() >= RECORD_HEADER_SIZE) {
+                int start = bytes.position();
+                int length = bytes.getInt();
+                int expected = bytes.getInt();
+                if (length < 0 || length > bytes.remaining()) {
+                    bytes.position(start);
+                    break;
+                }
+                byte[] payload = new byte[length];
+                bytes.get(payload);
+                checksum.reset();
+                checksum.update(payload);
+                if ((int) checksum.getValue() != expected) {
+                    bytes.position(start);
+                    break;
+                }
+                replayer.apply(new CalendarCodec.Input(Channels.newChannel(new ByteArrayInputStream(payload)),
+                        RECORD_BUFFER_SIZE));
+                count++;
+            }
+            if (bytes.hasRemaining()) {
+                logger.log(Level.WARNING, "Dropping a damaged record at the end of " + path + ".");
+                in.truncate(bytes.position());
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Starts recording the changes made to the specified calendar.
+     *
+     * @param calendar the calendar whose changes are recorded, or null to stop recording.
+     */
+    public void attach(Calendar calendar) {
+        if (this.calendar != null) {
+            this.calendar.setJournal(null);
+        }
+        this.calendar = calendar;
+        if (calendar != null) {
+            calendar.setJournal(this);
+        }
+    }
+
+    /**
+     * Holds new records in memory until the specified saver writes them, or, if it is null, writes the
+     * records held so far and writes new records as they are made.
+     *
+     * @param saver the saver writing the records in the background, or null.
+     * @throws IOException if held records cannot be written.
+     */
+    void setSaver(CalendarSaver saver) throws IOException {
+        synchronized (this) {
+            this.saver = saver;
+        }
+        if (saver == null) {
+            writePending();
+        }
+    }
+
+    /**
+     * Gets the size of this journal, not counting records not written yet.
+     *
+     * @return the size of the journal file in bytes.
+     * @throws IOException if the size cannot be read.
+     */
+    public synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Gets the number of records held in memory that have not been written to the file yet.
+     *
+     * @return the number of unwritten records.
+     */
+    public synchronized int getPendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * Writes the records held in memory to the file in a single write.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void writePending() throws IOException {
+        if (pendingRecords == 0) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(pending.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        pending.reset();
+        pendingRecords = 0;
+    }
+
+    /**
+     * Returns true if a change could not be recorded since this journal was last reset, in which case
+     * the calendar must be saved in full.
+     *
+     * @return true if the journal is missing a change, otherwise false.
+     */
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+
+    /**
+     * Removes every record from this journal, once the calendar has been saved in full.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void reset() throws IOException {
+        truncate();
+        incomplete = false;
+    }
+
+    /**
+     * Marks the start of a full save of the calendar, which will hold every change made so far. Changes
+     * that cannot be recorded from now on make the journal incomplete again.
+     *
+     * @return the size of the journal, to pass to {@link #discard} once the save is written.
+     * @throws IOException if held records cannot be written or the size cannot be read.
+     */
+    public long mark() throws IOException {
+        writePending();
+        incomplete = false;
+        return size();
+    }
+
+    /**
+     * Records that a full save started with {@link #mark} could not be written, so that the journal is
+     * missing any change it could not record before the save.
+     */
+    public void saveFailed() {
+        incomplete = true;
+    }
+
+    /**
+     * Removes the records written before the specified mark, once the calendar has been saved in full
+     * as it was when the mark was taken. Records written or held since are kept.
+     *
+     * @param mark the size of the journal when the calendar was saved.
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void discard(long mark) throws IOException {
+        ByteBuffer kept = ByteBuffer.allocate((int) (channel.size() - mark));
+        channel.position(mark);
+        while (kept.hasRemaining() && channel.read(kept) >= 0) {
+            // read the records written since the mark
+        }
+        kept.flip();
+        truncate();
+        while (kept.hasRemaining()) {
+            channel.write(kept);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        attach(null);
+        setSaver(null);
+        channel.close();
+    }
+
+    // methods called by the calendar when it changes
+
+    /**
+     * Records the current state of the specified event, if it is stored in the calendar.
+     */
+    void eventChanged(Event e) {
+        if (calendar.getEvent(e.getId()) != e) {
+            return;
+        }
+        if (!isStored(e)) {
+            incomplete = true; // it refers to memos or series of another calendar, which records cannot hold
+        }
+        try {
+            record.writeByte(EVENT);
+            record.writeVarLong(e.getId());
+            record.writeUtf8(e.getEventName());
+            record.writeTime(e.getStartTime());
+            record.writeTime(e.getEndTime());
+            record.writeUtf8(e.getTag());
+            record.writeVarInt(e.getMemos().size());
+            for (Memo m : e.getMemos()) {
+                record.writeVarInt(m.getIdNumber());
+            }
+            writeSeriesRefs(e.getSeries());
+            append();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records that the specified event was removed from the calendar.
+     */
+    void eventRemoved(Event e) {
+        try {
+            record.writeByte(EVENT_REMOVED);
+            record.writeVarLong(e.getId());
+            append();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records the current note of the specified memo.
+     */
+    void memoChanged(Memo m) {
+        try {
+            record.writeByte(MEMO);
+            record.writeVarInt(m.getIdNumber());
+            record.writeUtf8(m.getNote());
+            append();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records that the specified memo was deleted from the calendar.
+     */
+    void memoRemoved(Memo m) {
+        try {
+            record.writeByte(MEMO_REMOVED);
+            record.writeVarInt(m.getIdNumber());
+            append();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records the current alerts of the specified event, if it is stored in the calendar.
+     */
+    void alertsChanged(Event e) {
+        if (e == null || calendar.getEvent(e.getId()) != e) {
+            return;
+        }
+        List<Alert> alerts = calendar.getMyAlerts().getEventAlerts(e);
+        try {
+            record.writeByte(ALERTS);
+            record.writeVarLong(e.getId());
+            record.writeVarInt(alerts.size());
+            for (Alert a : alerts) {
+                record.writeUtf8(a.getName());
+                record.writeTime(a.getEventTime());
+                record.writeUtf8(a.getMessage());
+                if (a instanceof FrequentAlert) {
+                    FrequentAlert f = (FrequentAlert) a;
+                    record.writeByte(FREQUENT_ALERT);
+                    record.writeDuration(f.getFrequency());
+                    record.writeBoolean(f.getSince() != null);
+                    if (f.getSince() != null) {
+                        record.writeTime(f.getSince());
+                    }
+                } else {
+                    record.writeByte(INDIVIDUAL_ALERT);
+                    record.writeTime(((IndividualAlert) a).getTime());
+                }
+            }
+            append();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records the current state of the specified series, which is stored in the calendar's series system.
+     */
+    void seriesChanged(Series s) {
+        int index = calendar.getMySeries().getSeries().indexOf(s);
+        if (index < 0) {
+            return;
+        }
+        try {
+            record.writeByte(SERIES);
+            record.writeVarInt(index);
+            record.writeUtf8(s.getName());
+            if (s instanceof RecurringSeries) {
+                RecurringSeries r = (RecurringSeries) s;
+                record.writeByte(RECURRING_SERIES);
+                record.writeTime(r.getFirst());
+                record.writeDuration(r.getDuration());
+                record.writePeriod(r.getFrequency());
+                record.writeVarInt(r.getCount());
+                record.writeVarInt(r.getOverrides().size());
+                for (Map.Entry<Integer, Event> override : r.getOverrides().entrySet()) {
+                    record.writeVarInt(override.getKey());
+                    record.writeVarLong(override.getValue().getId());
+                }
+                writeEventRefs(r.getAddedEvents());
+            } else {
+                record.writeByte(PLAIN_SERIES);
+                writeEventRefs(s.getEvents());
+            }
+            append();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records the current list of events shared to the calendar.
+     */
+    void invitesChanged() {
+        List<Event> invites = calendar.getEventInvites();
+        for (Event e : invites) {
+            if (!e.getMemos().isEmpty() || !e.getSeries().isEmpty()) {
+                incomplete = true; // records only hold the times, name and tag of invites
+            }
+        }
+        try {
+            record.writeByte(INVITES);
+            record.writeVarInt(invites.size());
+            for (Event e : invites) {
+                record.writeUtf8(e.getEventName());
+                record.writeTime(e.getStartTime());
+                record.writeTime(e.getEndTime());
+                record.writeUtf8(e.getTag());
+            }
+            append();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    // helper methods
+
+    /**
+     * Returns true if all the memos and series of the specified event are stored in the calendar.
+     */
+    private boolean isStored(Event e) {
+        for (Memo m : e.getMemos()) {
+            if (!calendar.getMemoSystem().contains(m)) {
+                return false;
+            }
+        }
+        return calendar.getMySeries().getSeries().containsAll(e.getSeries());
+    }
+
+    private void writeSeriesRefs(List<Series> series) throws IOException {
+        List<Series> stored = calendar.getMySeries().getSeries();
+        ArrayList<Integer> indexes = new ArrayList<>();
+        for (Series s : series) {
+            int index = stored.indexOf(s);
+            if (index >= 0) {
+                indexes.add(index);
+            }
+        }
+        record.writeVarInt(indexes.size());
+        for (int index : indexes) {
+            record.writeVarInt(index);
+        }
+    }
+
+    private void writeEventRefs(Collection<Event> events) throws IOException {
+        record.writeVarInt(events.size());
+        for (Event e : events) {
+            record.writeVarLong(e.getId());
+        }
+    }
+
+    /**
+     * Appends the record built so far to the file, framed with its length and checksum.
+     */
+    private void append() throws IOException {
+        record.flush();
+        byte[] payload = recordBytes.toByteArray();
+        recordBytes.reset();
+        crc.reset();
+        crc.update(payload);
+        ByteBuffer framed = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+        framed.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        CalendarSaver notify;
+        synchronized (this) {
+            notify = saver;
+            if (saver == null) {
+                while (framed.hasRemaining()) {
+                    channel.write(framed);
+                }
+            } else {
+                pending.write(framed.array(), 0, framed.limit());
+                pendingRecords++;
+            }
+        }
+        if (notify != null) {
+            notify.changed();
+        }
+    }
+
+    /**
+     * Empties the file, leaving only its header.
+     */
+    private void truncate() throws IOException {
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).put((byte) VERSION).flip();
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private void fail(IOException ex) {
+        incomplete = true;
+        recordBytes.reset();
+        logger.log(Level.SEVERE, "Cannot write to the calendar journal.", ex);
+    }
+
+    /**
+     * Applies records to a calendar, finding events by id number and memos by id number.
+     */
+    private static class Replayer {
+        private final Calendar calendar;
+        private final Map<Integer, Memo> memos = new HashMap<>();
+
+        private Replayer(Calendar calendar) {
+            this.calendar = calendar;
+            for (Memo m : calendar.getMyMemos()) {
+                memos.put(m.getIdNumber(), m);
+            }
+            for (Event e : calendar.getMyEvents()) {
+                for (Memo m : e.getMemos()) {
+                    memos.putIfAbsent(m.getIdNumber(), m);
+                }
+            }
+        }
+
+        private void apply(CalendarCodec.Input in) throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case EVENT:
+                    applyEvent(in);
+                    break;
+                case EVENT_REMOVED:
+                    Event removed = calendar.getEvent(in.readVarLong());
+                    if (removed != null) {
+                        calendar.deleteEvent(removed);
+                    }
+                    break;
+                case MEMO:
+                    applyMemo(in);
+                    break;
+                case MEMO_REMOVED:
+                    Memo memo = memos.get(in.readVarInt());
+                    if (memo != null && calendar.getMemoSystem().contains(memo)) {
+                        calendar.deleteMemo(memo);
+                    }
+                    break;
+                case ALERTS:
+                    applyAlerts(in);
+                    break;
+                case SERIES:
+                    applySeries(in);
+                    break;
+                case INVITES:
+                    applyInvites(in);
+                    break;
+                default:
+                    throw new IOException("Unknown calendar journal record " + type + ".");
+            }
+        }
+
+        private void applyEvent(CalendarCodec.Input in) throws IOException {
+            long id = in.readVarLong();
+            String name = in.readUtf8();
+            LocalDateTime start = in.readTime();
+            LocalDateTime end = in.readTime();
+            String tag = in.readUtf8();
+            Event e = calendar.getEvent(id);
+            if (e == null) {
+                e = new Event(name, start, end);
+                e.setId(id);
+                e.setTag(tag);
+                calendar.addEvent(e);
+            } else {
+                calendar.updateEvent(e, name, start, end, tag);
+            }
+
+            ArrayList<Memo> eventMemos = new ArrayList<>();
+            int memoCount = in.readVarInt();
+            for (int i = 0; i < memoCount; i++) {
+                Memo m = memos.get(in.readVarInt());
+                if (m != null) {
+                    eventMemos.add(m);
+                }
+            }
+            for (Memo m : new ArrayList<>(e.getMemos())) {
+                if (!eventMemos.contains(m)) {
+                    calendar.getMemoSystem().removeMemoFromEvent(m, e);
+                }
+            }
+            for (Memo m : eventMemos) {
+                calendar.getMemoSystem().addMemoToEvent(m, e);
+            }
+
+            List<Series> stored = calendar.getMySeries().getSeries();
+            int seriesCount = in.readVarInt();
+            for (int i = 0; i < seriesCount; i++) {
+                int index = in.readVarInt();
+                if (index < stored.size() && !e.getSeries().contains(stored.get(index))) {
+                    e.associateSeries(stored.get(index));
+                }
+            }
+        }
+
+        private void applyMemo(CalendarCodec.Input in) throws IOException {
+            int id = in.readVarInt();
+            String note = in.readUtf8();
+            Memo m = memos.get(id);
+            if (m == null) {
+                m = new Memo(id, note);
+                memos.put(id, m);
+            }
+            if (!calendar.getMemoSystem().contains(m)) {
+                m.setNote(note);
+                calendar.getMemoSystem().restoreMemo(m);
+            } else if (!m.getNote().equals(note)) {
+                calendar.getMemoSystem().changeMemoNote(m, note);
+            }
+        }
+
+        private void applyAlerts(CalendarCodec.Input in) throws IOException {
+            Event e = calendar.getEvent(in.readVarLong());
+            int count = in.readVarInt();
+            ArrayList<Alert> alerts = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUtf8();
+                LocalDateTime eventTime = in.readTime();
+                String message = in.readUtf8();
+                if (in.readByte() == FREQUENT_ALERT) {
+                    Duration frequency = in.readDuration();
+                    LocalDateTime since = in.readBoolean() ? in.readTime() : null;
+                    alerts.add(new FrequentAlert(eventTime, name, message, frequency, since));
+                } else {
+                    alerts.add(new IndividualAlert(eventTime, name, message, in.readTime()));
+                }
+            }
+            if (e != null) {
+                calendar.getMyAlerts().replaceAlerts(e, alerts);
+            }
+        }
+
+        private void applySeries(CalendarCodec.Input in) throws IOException {
+            int index = in.readVarInt();
+            String name = in.readUtf8();
+            List<Series> stored = calendar.getMySeries().getSeries();
+            Series s = index < stored.size() ? stored.get(index) : null;
+            if (in.readByte() == RECURRING_SERIES) {
+                LocalDateTime first = in.readTime();
+                Duration duration = in.readDuration();
+                Period frequency = in.readPeriod();
+                int count = in.readVarInt();
+                if (!(s instanceof RecurringSeries)) {
+                    s = new RecurringSeries(name, first, duration, frequency, count);
+                    calendar.getMySeries().restoreSeries(s);
+                }
+                RecurringSeries r = (RecurringSeries) s;
+                int overrides = in.readVarInt();
+                for (int i = 0; i < overrides; i++) {
+                    int n = in.readVarInt();
+                    Event e = calendar.getEvent(in.readVarLong());
+                    if (e != null && !r.isOverridden(n)) {
+                        r.addOverride(n, e);
+                    }
+                    link(e, r);
+                }
+                for (Event e : readEvents(in)) {
+                    if (!r.getAddedEvents().contains(e)) {
+                        r.addEvent(e);
+                    }
+                    link(e, r);
+                }
+            } else {
+                ArrayList<Event> events = readEvents(in);
+                if (s == null) {
+                    s = new Series(name, new ArrayList<>(events));
+                    calendar.getMySeries().restoreSeries(s);
+                } else {
+                    s.getEvents().clear();
+                    s.getEvents().addAll(events);
+                }
+                for (Event e : events) {
+                    link(e, s);
+                }
+            }
+        }
+
+        private void applyInvites(CalendarCodec.Input in) throws IOException {
+            ArrayList<Event> invites = new ArrayList<>();
+            int count = in.readVarInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUtf8();
+                LocalDateTime start = in.readTime();
+                Event e = new Event(name, start, in.readTime());
+                e.setTag(in.readUtf8());
+                invites.add(e);
+            }
+            calendar.restoreEventInvites(invites);
+        }
+
+        private ArrayList<Event> readEvents(CalendarCodec.Input in) throws IOException {
+            ArrayList<Event> events = new ArrayList<>();
+            int count = in.readVarInt();
+            for (int i = 0; i < count; i++) {
+                Event e = calendar.getEvent(in.readVarLong());
+                if (e != null) {
+                    events.add(e);
+                }
+            }
+            return events;
+        }
+
+        private void link(Event e, Series s) {
+            if (e != null && !e.getSeries().contains(s)) {
+                e.associateSeries(s);
+            }
+        }
+    }
+}
@@ -1,7 +1,29 @@
 package CalendarSystem;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -10,9 +32,49 @@ import java.util.logging.Logger;
 /**
  * CalendarManager is a class that is user-specific and handles the creation and storage of the user's calendar(s).
  * It is also responsible for saving the user's calendar information to a .ser file.
+ * <p>
+ * Changes to the selected calendar are appended to a journal next to its file as they are made, so
+ * that saving them does not rewrite the whole file; the file is only rewritten, and the journal
+ * emptied, when the journal grows large.
+ * <p>
+ * With {@link #startBackgroundSaves(Duration)}, changes are instead held in memory and written by a
+ * {@link CalendarSaver} thread once no change has been made for a quiet period, so that saving never
+ * blocks the thread making the changes. Switching calendars and closing flush the changes first.
+ * <p>
+ * Calendars switched away from stay loaded in a small least-recently-used cache, bounded by a number
+ * of calendars and an estimate of their size in memory, so that switching back to one does not read
+ * it again unless its files have changed since.
+ *
+ * @see CalendarJournal
+ * @see CalendarSaver
  */
 public class CalendarManager {
 
+    /**
+     * The smallest journal size at which saving changes rewrites the calendar file.
+     */
+    private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+    /**
+     * The default number of calendars other than the selected one kept in memory.
+     */
+    public static final int DEFAULT_MAX_CACHED_CALENDARS = 4;
+
+    /**
+     * The default estimated size in bytes of the calendars other than the selected one kept in memory.
+     */
+    public static final long DEFAULT_MAX_CACHED_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * The estimated size in memory of an event stored in a calendar, with its share of the indexes.
+     */
+    private static final long BYTES_PER_EVENT = 1024;
+
+    /**
+     * The largest number of inboxes written at once when sharing events with many users.
+     */
+    public static final int MAX_SHARE_THREADS = 4;
+
     /**
      * The user's selected calendar.
      */
@@ -28,6 +90,63 @@ public class CalendarManager {
      */
     private String userPath;
 
+    /**
+     * The directory holding the files of this user and of the users they share events with.
+     */
+    private final File dataDirectory;
+
+    /**
+     * The clock giving the current time to the user's calendars.
+     */
+    private final Clock clock;
+
+    /**
+     * The journal the changes to the selected calendar are recorded in.
+     */
+    private volatile CalendarJournal journal;
+
+    /**
+     * The listener alerts of the selected calendar are delivered to, if alerts are being delivered.
+     */
+    private AlertListener alertListener;
+
+    /**
+     * The scheduler delivering the alerts of the selected calendar, if alerts are being delivered.
+     */
+    private AlertScheduler alertScheduler;
+
+    /**
+     * The saver writing the changes to the selected calendar in the background, if changes are saved
+     * in the background.
+     */
+    private volatile CalendarSaver saver;
+
+    /**
+     * The calendars switched away from that are still in memory, by file name, least recently used first.
+     */
+    private final LinkedHashMap<String, CachedCalendar> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The names of the user's calendars as listed in their manifest, once it has been read.
+     */
+    private ArrayList<String> calendarNames;
+
+    /**
+     * The time the manifest was last modified and its size when it was last read or written, so that
+     * it is read again once another manager changes it.
+     */
+    private FileTime manifestModified;
+    private long manifestSize;
+
+    /**
+     * Whether this manager has been closed, so closing it again does not write its calendar over
+     * changes made since by another manager.
+     */
+    private boolean closed;
+
+    private int maxCachedCalendars = DEFAULT_MAX_CACHED_CALENDARS;
+    private long maxCachedBytes = DEFAULT_MAX_CACHED_BYTES;
+
     private static final Logger logger = Logger.getLogger(CalendarManager.class.getName());
     private static final Handler consoleHandler = new ConsoleHandler();
 
@@ -39,9 +158,25 @@ public class CalendarManager {
      * @throws ClassNotFoundException
      */
     public CalendarManager(String filePath) throws ClassNotFoundException, IOException {
-        this.calendar = new Calendar();
+        this(filePath, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a new empty CalendarManager with the specified filePath as the username, whose calendars
+     * use the specified clock.
+     *
+     * @param filePath the name of the user.
+     * @param clock    the clock giving the current time to the user's calendars.
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    public CalendarManager(String filePath, Clock clock) throws ClassNotFoundException, IOException {
+        this.clock = clock;
+        this.calendar = new Calendar(clock);
         this.userPath = filePath;
         this.filePath = filePath + "default.ser"; // default name of calendar
+        File parent = new File(filePath).getParentFile();
+        this.dataDirectory = parent != null ? parent : new File(".");
 
         // Associate the handler with the logger.
         logger.setLevel(Level.ALL);
@@ -51,81 +186,454 @@ public class CalendarManager {
         // Reads serializable objects from file.
         // Populates the record list using stored data, if it exists.
         File file = new File(this.filePath);
-        if (file.exists()) {
-            readFromFile();
-        } else {
+        if (!file.exists()) {
             file.createNewFile();
         }
+        readFromFile();
     }
 
     /**
      * Creates another calendar for the user with the specified name.
      * Note: This does not replace the user's default calendar, but is
      * another calendar added to the user's set of calendars.
+     * The calendar is added to the user's manifest before it is selected.
      *
      * @param name the name of the new calendar.
      * @throws IOException
      */
-    public void createCalendar(String name) throws IOException {
-        saveToFile();
+    public synchronized void createCalendar(String name) throws IOException {
+        flush();
+        cacheSelected();
         this.filePath = this.userPath + name + ".ser";
-        this.calendar = new Calendar();
+        cache.remove(filePath);
+        this.calendar = new Calendar(clock);
         File file = new File(filePath);
         file.createNewFile();
+        addToManifest(name);
+        openJournal();
         saveToFile();
+        restartAlertScheduler();
     }
 
     /**
-     * Changes the user's selected calendar to that with the specified name and reads from its file.
+     * Changes the user's selected calendar to that with the specified name and reads from its file,
+     * unless it is still in memory and its files have not changed since it was switched away from.
      *
      * @param name the name of one of the user's calendars
      * @throws ClassNotFoundException
      * @throws IOException
      */
-    public void selectCalendar(String name) throws ClassNotFoundException, IOException {
-        saveToFile();
+    public synchronized void selectCalendar(String name) throws ClassNotFoundException, IOException {
+        flush();
+        cacheSelected();
         this.filePath = this.userPath + name + ".ser";
         File file = new File(filePath);
-        if (file.exists()) {
-            readFromFile();
-        } else {
+        if (!file.exists()) {
             file.createNewFile();
+            addToManifest(name);
         }
+        CachedCalendar cached = cache.remove(filePath);
+        if (cached != null && cached.isCurrent(Paths.get(filePath), journalPath(filePath))) {
+            calendar = cached.calendar;
+            calendar.setClock(clock);
+            openJournal();
+        } else {
+            readFromFile();
+        }
+        restartAlertScheduler();
     }
 
     /**
-     * Reads from the file storing the user's calendar information.
+     * Sets how many calendars other than the selected one are kept in memory, and their largest
+     * estimated total size. Least recently used calendars are dropped first to stay within both.
      *
-     * @throws ClassNotFoundException
+     * @param maxCalendars the largest number of calendars kept; 0 to keep none.
+     * @param maxBytes     the largest estimated size in bytes of the calendars kept.
+     */
+    public synchronized void setCacheLimits(int maxCalendars, long maxBytes) {
+        this.maxCachedCalendars = maxCalendars;
+        this.maxCachedBytes = maxBytes;
+        trimCache();
+    }
+
+    /**
+     * Gets the names of the files of the calendars other than the selected one kept in memory.
+     *
+     * @return the file names, least recently used first.
      */
-    public void readFromFile() throws ClassNotFoundException {
+    public synchronized ArrayList<String> getCachedCalendars() {
+        return new ArrayList<>(cache.keySet());
+    }
+
+    /**
+     * Keeps the selected calendar in memory as it is switched away from. Its changes must have been
+     * written already; it stops recording them.
+     */
+    private void cacheSelected() {
+        closeJournal();
         try {
-            InputStream file = new FileInputStream(filePath);
-            InputStream buffer = new BufferedInputStream(file);
-            ObjectInput input = new ObjectInputStream(buffer);
+            cache.put(filePath, new CachedCalendar(calendar, Paths.get(filePath), journalPath(filePath)));
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Cannot read the state of the calendar files; not keeping it in memory.", ex);
+        }
+        trimCache();
+    }
+
+    /**
+     * Drops the least recently used calendars from memory until the cache is within its limits.
+     */
+    private void trimCache() {
+        long bytes = 0;
+        for (CachedCalendar cached : cache.values()) {
+            bytes += cached.size;
+        }
+        Iterator<CachedCalendar> eldest = cache.values().iterator();
+        while (eldest.hasNext() && (cache.size() > maxCachedCalendars || bytes > maxCachedBytes)) {
+            bytes -= eldest.next().size;
+            eldest.remove();
+        }
+    }
 
-            // deserialize
-            calendar = (Calendar) input.readObject();
-            input.close();
+    /**
+     * Starts delivering the alerts of the selected calendar to the specified listener when they are due.
+     * Alerts keep being delivered for whichever calendar is selected until {@link #stopAlertScheduler()}.
+     *
+     * @param listener the listener the alerts are delivered to.
+     */
+    public void startAlertScheduler(AlertListener listener) {
+        stopAlertScheduler();
+        this.alertListener = listener;
+        this.alertScheduler = new AlertScheduler(calendar.getMyAlerts(), listener);
+        this.alertScheduler.start();
+    }
+
+    /**
+     * Stops delivering alerts.
+     */
+    public void stopAlertScheduler() {
+        if (alertScheduler != null) {
+            alertScheduler.stop();
+        }
+        alertScheduler = null;
+        alertListener = null;
+    }
+
+    /**
+     * Restarts the alert scheduler for the selected calendar, if alerts are being delivered.
+     */
+    private void restartAlertScheduler() {
+        if (alertListener != null) {
+            startAlertScheduler(alertListener);
+        }
+    }
+
+    /**
+     * Reads from the file storing the user's calendar information and replays the changes recorded in
+     * its journal since it was last saved. Files saved by an older version with Java serialization are
+     * still read, and are converted to the binary format as soon as they are read.
+     *
+     * @throws ClassNotFoundException
+     */
+    public synchronized void readFromFile() throws ClassNotFoundException {
+        Path path = Paths.get(filePath);
+        boolean legacy = false;
+        try {
+            if (Files.size(path) > 0) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    legacy = !isBinary(channel);
+                    calendar = readCalendar(channel);
+                }
+            } else {
+                calendar = new Calendar(clock);
+            }
+            calendar.setClock(clock);
+            CalendarJournal.replay(calendar, journalPath(filePath));
         } catch (IOException ex) {
             logger.log(Level.SEVERE, "Cannot read from input.", ex);
         }
+        openJournal();
+        if (legacy) {
+            try {
+                saveToFile(); // rather than on the next save, so the file and its journal agree on memo id numbers
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, "Cannot convert " + filePath + " to the binary format.", ex);
+            }
+        }
+    }
+
+    /**
+     * Writes the calendar to file at filePath and removes the changes it holds from its journal.
+     * The calendar is only locked while it is encoded; the file is written after, to a temporary file
+     * that then replaces it, so that a failed write leaves the last save intact.
+     *
+     * @throws IOException
+     */
+    public synchronized void saveToFile() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long mark = 0;
+        synchronized (calendar) { // the save and the journal mark must hold the same changes
+            CalendarCodec.write(calendar, Channels.newChannel(bytes));
+            if (journal != null) {
+                mark = journal.mark();
+            }
+        }
+        Path path = Paths.get(filePath);
+        Path temp = Paths.get(filePath + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            if (journal != null) {
+                journal.saveFailed();
+            }
+            throw ex;
+        }
+        if (journal != null) {
+            journal.discard(mark);
+        }
+    }
+
+    /**
+     * Saves the changes made to the calendar since it was read or last saved. If changes are saved in
+     * the background, this only marks the calendar dirty; otherwise see {@link #flush()}.
+     *
+     * @throws IOException
+     */
+    public void saveChanges() throws IOException {
+        CalendarSaver current = saver;
+        if (current != null) {
+            current.changed();
+        } else {
+            writeChanges();
+        }
+    }
+
+    /**
+     * Writes every change made to the calendar that has not been written yet, waiting for a background
+     * write in progress to finish first.
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        writeChanges();
+    }
+
+    /**
+     * Writes the changes held by the journal to its file. The changes are then all in the journal, so
+     * this only rewrites the calendar file when the journal has grown past half the size of the file,
+     * or could not record a change.
+     *
+     * @throws IOException
+     */
+    synchronized void writeChanges() throws IOException {
+        if (journal != null) {
+            journal.writePending();
+        }
+        if (journal == null || journal.isIncomplete()
+                || journal.size() > Math.max(MIN_COMPACTION_SIZE, Files.size(Paths.get(filePath)) / 2)) {
+            saveToFile();
+        }
+    }
+
+    /**
+     * Gets the number of changes made to the selected calendar that have not been written to file yet.
+     *
+     * @return the number of unsaved changes; always 0 unless changes are saved in the background.
+     */
+    public int getPendingChanges() {
+        CalendarJournal current = journal;
+        return current == null ? 0 : current.getPendingRecords();
+    }
+
+    /**
+     * Starts saving the changes made to the selected calendar in the background, once no change has
+     * been made for the specified quiet period. Changes keep being saved in the background for
+     * whichever calendar is selected until {@link #stopBackgroundSaves()} or {@link #close()}.
+     *
+     * @param quietPeriod how long no change must be made before the changes are written.
+     * @throws IOException
+     */
+    public void startBackgroundSaves(Duration quietPeriod) throws IOException {
+        stopBackgroundSaves();
+        synchronized (this) {
+            saver = new CalendarSaver(this, quietPeriod);
+            if (journal != null) {
+                journal.setSaver(saver);
+            }
+        }
+    }
+
+    /**
+     * Stops saving changes in the background, writing the changes not written yet.
+     *
+     * @throws IOException
+     */
+    public void stopBackgroundSaves() throws IOException {
+        CalendarSaver stopped = saver;
+        if (stopped == null) {
+            return;
+        }
+        stopped.stop(); // outside the lock, which a write in progress may be waiting for
+        synchronized (this) {
+            saver = null;
+            if (journal != null) {
+                journal.setSaver(null);
+            }
+            writeChanges();
+        }
+    }
+
+    /**
+     * Stops saving in the background, writes the changes not written yet, stops recording them and
+     * drops the calendars kept in memory. Closing a manager that is already closed does nothing.
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        stopBackgroundSaves();
+        synchronized (this) {
+            writeChanges();
+            closeJournal();
+            cache.clear();
+        }
+    }
+
+    /**
+     * Starts recording the changes to the selected calendar in its journal.
+     */
+    private void openJournal() {
+        closeJournal();
+        try {
+            journal = new CalendarJournal(journalPath(filePath));
+            journal.attach(calendar);
+            journal.setSaver(saver);
+        } catch (IOException ex) {
+            logger.log(Level.SEVERE, "Cannot open the calendar journal; changes will be saved in full.", ex);
+        }
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ex) {
+                logger.log(Level.WARNING, "Cannot close the calendar journal.", ex);
+            }
+            journal = null;
+        }
+    }
+
+    /**
+     * Gets the path of the journal of the calendar in the specified file.
+     *
+     * @param calendarPath the name of a calendar file.
+     * @return the path of the calendar file, with .journal in place of .ser.
+     */
+    private static Path journalPath(String calendarPath) {
+        return Paths.get(calendarPath.substring(0, calendarPath.length() - ".ser".length()) + ".journal");
     }
 
     /**
-     * Writes the calendar to file at filePath.
+     * Returns true if the specified channel starts with the magic number of the binary format.
      *
+     * @param channel a channel positioned at the start of a calendar file; it is left there.
+     * @return true if the calendar file is in the binary format, otherwise false.
      * @throws IOException
      */
-    public void saveToFile() throws IOException {
+    private static boolean isBinary(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        while (header.hasRemaining() && channel.read(header) >= 0) {
+            // read until the header is full or the file ends
+        }
+        channel.position(0);
+        return !header.hasRemaining() && CalendarCodec.isBinary(header.getInt(0));
+    }
 
-        OutputStream file = new FileOutputStream(filePath);
-        OutputStream buffer = new BufferedOutputStream(file);
-        ObjectOutput output = new ObjectOutputStream(buffer);
+    /**
+     * Reads a calendar from the specified channel, in the binary format or, if the channel does not
+     * start with its magic number, with Java serialization.
+     *
+     * @param channel a channel positioned at the start of a calendar file.
+     * @return the calendar that was read.
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    private static Calendar readCalendar(FileChannel channel) throws IOException, ClassNotFoundException {
+        if (isBinary(channel)) {
+            return CalendarCodec.read(channel);
+        }
+        ObjectInput input = new ObjectInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        return (Calendar) input.readObject();
+    }
 
-        // serialize the Map
-        output.writeObject(calendar);
-        output.close();
+    /**
+     * Writes the events of the selected calendar to the user's archive with the specified name,
+     * replacing it if it exists. Memos, series and alerts are not archived.
+     *
+     * @param name the name of the archive.
+     * @throws IOException
+     * @see MappedEventStore
+     */
+    public void archiveEvents(String name) throws IOException {
+        MappedEventStore.write(archivePath(name), calendar.getMyEvents());
+    }
+
+    /**
+     * Opens the user's archive with the specified name, without reading its events into memory.
+     * The archive must be closed once it is no longer used.
+     *
+     * @param name the name of an archive written by {@link #archiveEvents(String)}.
+     * @return the archived events.
+     * @throws IOException
+     */
+    public MappedEventStore openArchive(String name) throws IOException {
+        return MappedEventStore.open(archivePath(name));
+    }
+
+    /**
+     * Gets the path of the user's archive with the specified name.
+     */
+    private Path archivePath(String name) {
+        return Paths.get(userPath + name + ".events");
+    }
+
+    /**
+     * A calendar kept in memory, with the state of its files when it was switched away from.
+     */
+    private static class CachedCalendar {
+        private final Calendar calendar;
+        private final long size;
+        private final FileTime modified;
+        private final long fileSize;
+        private final long journalSize;
+
+        private CachedCalendar(Calendar calendar, Path file, Path journal) throws IOException {
+            this.calendar = calendar;
+            this.size = calendar.getEventCount() * BYTES_PER_EVENT;
+            this.modified = Files.getLastModifiedTime(file);
+            this.fileSize = Files.size(file);
+            this.journalSize = Files.exists(journal) ? Files.size(journal) : -1;
+        }
+
+        /**
+         * Returns true if the calendar's files have not changed since it was kept.
+         */
+        private boolean isCurrent(Path file, Path journal) throws IOException {
+            return Files.getLastModifiedTime(file).equals(modified) && Files.size(file) == fileSize
+                    && (Files.exists(journal) ? Files.size(journal) : -1) == journalSize;
+        }
     }
 
     /**
@@ -138,21 +646,108 @@ public class CalendarManager {
     }
 
     /**
-     * Gets a list of names of this user's calendars.
+     * Gets a list of names of this user's calendars, the default calendar first.
+     * <p>
+     * The names are read from the user's calendar manifest, again only when it has changed since it
+     * was last read, so listing them does not depend on how many other users there are. A user
+     * without a manifest has it built from the calendar files in the user data directory the first time.
      *
      * @return the list of names of this user's calendars.
+     * @throws UncheckedIOException if the manifest cannot be read or written.
      */
-    public ArrayList<String> getUserCalendars() {
-        File userData = new File("user_data");
-        String username = userPath.substring(12);
+    public synchronized ArrayList<String> getUserCalendars() {
+        try {
+            return new ArrayList<>(calendarNames());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Gets the names of this user's calendars, reading or building the manifest if it has not been
+     * read yet or has changed since.
+     */
+    private ArrayList<String> calendarNames() throws IOException {
+        Path manifest = manifestPath();
+        boolean exists = Files.exists(manifest);
+        if (calendarNames == null || (exists && (!Files.getLastModifiedTime(manifest).equals(manifestModified)
+                || Files.size(manifest) != manifestSize))) {
+            ArrayList<String> names = new ArrayList<>();
+            if (exists) {
+                for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                    if (!line.isEmpty() && !names.contains(line)) {
+                        names.add(line);
+                    }
+                }
+            } else {
+                names.add("default");
+                names.addAll(scanUserCalendars());
+            }
+            if (!names.contains("default")) {
+                names.add(0, "default");
+            }
+            calendarNames = names;
+            if (exists) {
+                manifestModified = Files.getLastModifiedTime(manifest);
+                manifestSize = Files.size(manifest);
+            } else {
+                writeManifest();
+            }
+        }
+        return calendarNames;
+    }
+
+    /**
+     * Adds the calendar with the specified name to this user's manifest, if it is not listed yet.
+     *
+     * @param name the name of one of the user's calendars.
+     * @throws IOException
+     */
+    private void addToManifest(String name) throws IOException {
+        ArrayList<String> names = calendarNames();
+        if (!names.contains(name)) {
+            names.add(name);
+            writeManifest();
+        }
+    }
+
+    /**
+     * Replaces this user's manifest with the names of their calendars, by writing a new file and
+     * renaming it over the old one, so the manifest is never seen half written.
+     */
+    private void writeManifest() throws IOException {
+        Path manifest = manifestPath();
+        Path temp = Paths.get(manifest + ".tmp");
+        Files.write(temp, calendarNames, StandardCharsets.UTF_8);
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        manifestModified = Files.getLastModifiedTime(manifest);
+        manifestSize = Files.size(manifest);
+    }
+
+    /**
+     * Gets the path of the file listing the names of this user's calendars.
+     */
+    private Path manifestPath() {
+        return Paths.get(userPath + "calendars.manifest");
+    }
+
+    /**
+     * Finds the names of this user's calendars by listing the user data directory, for users whose
+     * calendars were created before the manifest was kept.
+     *
+     * @return the names of the calendar files starting with the user's prefix, other than the default.
+     */
+    private ArrayList<String> scanUserCalendars() {
+        String username = new File(userPath).getName();
         ArrayList<String> userCalendars = new ArrayList<>();
-        if (userData.isDirectory()) {
-            File[] sample = userData.listFiles();
-            if (sample != null) {
-                for (File f : sample) {
-                    if (f.getName().contains(username)) {
-                        userCalendars.add(f.getName().replace(username, "").
-                                replace(".ser", ""));
+        File[] sample = dataDirectory.listFiles();
+        if (sample != null) {
+            for (File f : sample) {
+                String fileName = f.getName();
+                if (fileName.startsWith(username) && fileName.endsWith(".ser")) {
+                    String name = fileName.substring(username.length(), fileName.length() - ".ser".length());
+                    if (!name.equals("default")) {
+                        userCalendars.add(name);
                     }
                 }
             }
@@ -161,24 +756,152 @@ public class CalendarManager {
     }
 
     /**
-     * Shares the specified event with another user's calendar.
+     * Moves the events other users have shared with this user from their inbox to the event invites
+     * of the selected calendar. The calendar is saved before the events are removed from the inbox, so
+     * no event is lost if the program stops in between.
      *
-     * @param name  the name of the other user.
+     * @return the number of events received.
+     * @throws IOException
+     * @see EventInbox
+     */
+    public synchronized int receiveInvites() throws IOException {
+        EventInbox inbox = new EventInbox(inboxPath(userPath));
+        ArrayList<Event> events = inbox.read();
+        if (events.isEmpty()) {
+            return 0;
+        }
+        for (Event e : events) {
+            calendar.addEventNotification(e);
+        }
+        flush();
+        inbox.acknowledge();
+        return events.size();
+    }
+
+    /**
+     * Gets the path of the inbox of the user whose files start with the specified path.
+     */
+    private static Path inboxPath(String userPath) {
+        return Paths.get(userPath + "invites.inbox");
+    }
+
+    /**
+     * Gets the path the files of the user with the specified name start with, in this user's data
+     * directory.
+     */
+    private String otherUserPath(String name) {
+        return new File(dataDirectory, name + "_").getPath();
+    }
+
+    /**
+     * Shares the specified event with another user by appending it to their inbox, without reading
+     * their calendar. They receive it with {@link #receiveInvites()}.
+     *
+     * @param name  the name of the other user, whose files are in the same directory as this user's.
      * @param event the event to be shared.
      * @return true if event was shared, otherwise false.
      * @throws IOException
-     * @throws ClassNotFoundException
      */
-    public boolean shareEvent(String name, Event event) throws IOException, ClassNotFoundException {
-        String otherUserPath = "./user_data/" + name + "_";
+    public boolean shareEvent(String name, Event event) throws IOException {
+        String otherUserPath = otherUserPath(name);
         File friendFile = new File(otherUserPath + "default.ser");
         if (friendFile.exists()) {
-            CalendarManager friendCalManager = new CalendarManager(otherUserPath);
-            friendCalManager.getCalendar().addEventNotification(event);
-            friendCalManager.saveToFile();
+            new EventInbox(inboxPath(otherUserPath)).deliver(event);
             return true;
         } else {
             return false;
         }
     }
+
+    /**
+     * Shares the specified events with each of the specified users by appending them to their inboxes.
+     * The recipients are checked against a single listing of the user data directory, and the inboxes
+     * are written in parallel by at most {@link #MAX_SHARE_THREADS} threads.
+     *
+     * @param names  the names of the other users, whose files are in the same directory as this user's.
+     * @param events the events to be shared.
+     * @return the result of sharing with each user, in the order the users were given.
+     * @throws IOException if the events cannot be encoded.
+     */
+    public LinkedHashMap<String, ShareResult> shareEvents(Collection<String> names, Collection<Event> events)
+            throws IOException {
+        LinkedHashMap<String, ShareResult> results = new LinkedHashMap<>();
+        byte[] records;
+        synchronized (calendar) {
+            records = EventInbox.frame(events);
+        }
+        HashSet<String> files = new HashSet<>();
+        String[] listed = dataDirectory.list();
+        if (listed != null) {
+            files.addAll(Arrays.asList(listed));
+        }
+        LinkedHashMap<String, Future<?>> writes = new LinkedHashMap<>();
+        ExecutorService pool = null;
+        try {
+            for (String name : names) {
+                if (results.containsKey(name)) {
+                    continue;
+                }
+                if (!files.contains(name + "_default.ser")) {
+                    results.put(name, ShareResult.NO_SUCH_USER);
+                    continue;
+                }
+                if (pool == null) {
+                    pool = Executors.newFixedThreadPool(Math.min(MAX_SHARE_THREADS, names.size()), r -> {
+                        Thread t = new Thread(r, "event-sharer");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                EventInbox inbox = new EventInbox(inboxPath(otherUserPath(name)));
+                writes.put(name, pool.submit(() -> {
+                    inbox.append(records);
+                    return null;
+                }));
+                results.put(name, null);
+            }
+            for (Map.Entry<String, Future<?>> write : writes.entrySet()) {
+                try {
+                    write.getValue().get();
+                    results.put(write.getKey(), ShareResult.SHARED);
+                } catch (ExecutionException ex) {
+                    logger.log(Level.WARNING, "Cannot share events with " + write.getKey() + ".", ex.getCause());
+                    results.put(write.getKey(), ShareResult.FAILED);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            for (Map.Entry<String, Future<?>> write : writes.entrySet()) {
+                if (results.get(write.getKey()) == null) {
+                    write.getValue().cancel(true);
+                    results.put(write.getKey(), ShareResult.FAILED);
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The result of sharing events with one user.
+     *
+     * @see #shareEvents(Collection, Collection)
+     */
+    public enum ShareResult {
+        /**
+         * The events were appended to the user's inbox.
+         */
+        SHARED,
+        /**
+         * There is no user with the given name.
+         */
+        NO_SUCH_USER,
+        /**
+         * The user's inbox could not be written.
+         */
+        FAILED
+    }
 }
@@ -0,0 +1,134 @@
+package CalendarSystem;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A background thread that saves the changes made to a user's selected calendar.
+ * <p>
+ * Each change marks the calendar dirty; once no change has been made for the quiet period, the
+ * saver writes every change made since its last write at once, so a burst of changes costs a single
+ * write and none of them is written on the thread making them. A write that fails is retried after
+ * the next quiet period.
+ *
+ * @see CalendarManager#startBackgroundSaves(Duration)
+ * @see CalendarJournal
+ */
+public class CalendarSaver {
+
+    private static final Logger logger = Logger.getLogger(CalendarSaver.class.getName());
+
+    /**
+     * The manager whose selected calendar is saved.
+     */
+    private final CalendarManager manager;
+
+    /**
+     * How long no change must be made before the changes are written, in nanoseconds.
+     */
+    private final long quietPeriod;
+
+    /**
+     * The thread writing the changes.
+     */
+    private final Thread worker;
+
+    /**
+     * True if a change was made since the changes were last written.
+     */
+    private boolean dirty;
+
+    /**
+     * The value of {@link System#nanoTime()} when the last change was made.
+     */
+    private long lastChange;
+
+    private boolean running = true;
+
+    /**
+     * Creates and starts a saver for the selected calendar of the specified manager.
+     *
+     * @param manager     the manager whose selected calendar is saved.
+     * @param quietPeriod how long no change must be made before the changes are written.
+     */
+    CalendarSaver(CalendarManager manager, Duration quietPeriod) {
+        this.manager = manager;
+        this.quietPeriod = quietPeriod.toNanos();
+        this.worker = new Thread(this::run, "calendar-saver");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Marks the calendar dirty, postponing the next write until the quiet period has passed.
+     */
+    synchronized void changed() {
+        dirty = true;
+        lastChange = System.nanoTime();
+        notifyAll();
+    }
+
+    /**
+     * Returns true if a change was made that the saver has not written yet.
+     *
+     * @return true if the calendar is dirty, otherwise false.
+     */
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Stops the saver once any write in progress is finished. Changes not written yet are left to
+     * the manager.
+     */
+    void stop() {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (awaitQuietPeriod()) {
+            try {
+                manager.writeChanges();
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, "Cannot save the calendar; retrying after the quiet period.", ex);
+                changed();
+            }
+        }
+    }
+
+    /**
+     * Waits until the calendar is dirty and no change has been made for the quiet period, then marks
+     * it clean.
+     *
+     * @return true if the changes should be written, or false if the saver was stopped.
+     */
+    private synchronized boolean awaitQuietPeriod() {
+        while (running) {
+            long remaining = dirty ? quietPeriod - (System.nanoTime() - lastChange) : 0;
+            if (dirty && remaining <= 0) {
+                dirty = false;
+                return true;
+            }
+            try {
+                if (dirty) {
+                    wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+                } else {
+                    wait();
+                }
+            } catch (InterruptedException ex) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
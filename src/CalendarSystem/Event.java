@@ -12,6 +12,14 @@ import java.util.ArrayList;
  */
 public class Event implements Serializable {
 
+    private static final long serialVersionUID = -6395784628840331520L;
+
+    /**
+     * The id number of this event, unique within the calendar storing it.
+     * An event that has not been added to a calendar has id number 0.
+     */
+    private long id;
+
     /**
      * The name of this event.
      */
@@ -78,6 +86,24 @@ public class Event implements Serializable {
         series = new ArrayList<>();
     }
 
+    /**
+     * Gets the id number of this event.
+     *
+     * @return this event's id number, or 0 if it has not been added to a calendar.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id number of this event. Id numbers are assigned by the calendar storing this event.
+     *
+     * @param id the new id number for this event.
+     */
+    void setId(long id) {
+        this.id = id;
+    }
+
     /**
      * Gets the name of this event.
      *
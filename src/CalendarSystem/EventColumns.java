@@ -0,0 +1,220 @@
+package CalendarSystem;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * The start and end times of the events stored in a calendar, kept in parallel primitive arrays
+ * sorted by start time, next to an array of the events themselves. Times are held in seconds since
+ * the epoch, so scans over many events read contiguous longs instead of following references from
+ * each Event to its LocalDateTimes, and the events found are already in order.
+ * <p>
+ * Seconds are enough to compare a time against the start of a day; the nanoseconds of start times
+ * are kept so that events starting in the same second are still ordered exactly. Events sharing a
+ * start time are kept in the order they were added. An event must be removed before its start or
+ * end time is changed.
+ *
+ * @see Calendar
+ * @see EventIntervalTree
+ */
+public class EventColumns {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Event[] events = new Event[INITIAL_CAPACITY];
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private int[] startNanos = new int[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * The longest duration of an event added to these columns, in seconds, which bounds how long
+     * before a day an event happening during it can start. It is not lowered when events are removed.
+     */
+    private long maxDuration;
+
+    /**
+     * Adds the specified event after the events starting at or before the same time.
+     *
+     * @param event an event stored in the calendar.
+     */
+    public void add(Event event) {
+        if (size == events.length) {
+            int capacity = size * 2;
+            events = Arrays.copyOf(events, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            startNanos = Arrays.copyOf(startNanos, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        long start = seconds(event.getStartTime());
+        int nano = event.getStartTime().getNano();
+        int index = firstStartingAfter(start, nano);
+        int moved = size - index;
+        System.arraycopy(events, index, events, index + 1, moved);
+        System.arraycopy(starts, index, starts, index + 1, moved);
+        System.arraycopy(startNanos, index, startNanos, index + 1, moved);
+        System.arraycopy(ends, index, ends, index + 1, moved);
+        events[index] = event;
+        starts[index] = start;
+        startNanos[index] = nano;
+        ends[index] = seconds(event.getEndTime());
+        size++;
+        maxDuration = Math.max(maxDuration, ends[index] - start);
+    }
+
+    /**
+     * Replaces the events in these columns with the specified events, sorting them once rather than
+     * shifting the arrays for each event as {@link #add(Event)} does. Events sharing a start time are
+     * kept in the order of the collection.
+     *
+     * @param all the events stored in the calendar.
+     */
+    public void build(Collection<Event> all) {
+        Event[] sorted = all.toArray(new Event[0]);
+        Arrays.sort(sorted, Comparator.comparing(Event::getStartTime)); // stable, so ties keep their order
+        int capacity = Math.max(INITIAL_CAPACITY, sorted.length);
+        events = Arrays.copyOf(sorted, capacity);
+        starts = new long[capacity];
+        startNanos = new int[capacity];
+        ends = new long[capacity];
+        size = sorted.length;
+        maxDuration = 0;
+        for (int i = 0; i < size; i++) {
+            starts[i] = seconds(sorted[i].getStartTime());
+            startNanos[i] = sorted[i].getStartTime().getNano();
+            ends[i] = seconds(sorted[i].getEndTime());
+            maxDuration = Math.max(maxDuration, ends[i] - starts[i]);
+        }
+    }
+
+    /**
+     * Removes the specified event, whose times must not have changed since it was added.
+     *
+     * @param event an event in these columns.
+     * @return true if the event was removed, otherwise false.
+     */
+    public boolean remove(Event event) {
+        long start = seconds(event.getStartTime());
+        int nano = event.getStartTime().getNano();
+        for (int i = firstStartingAfter(start, nano - 1L); i < size && starts[i] == start
+                && startNanos[i] == nano; i++) {
+            if (events[i] == event) {
+                int moved = size - i - 1;
+                System.arraycopy(events, i + 1, events, i, moved);
+                System.arraycopy(starts, i + 1, starts, i, moved);
+                System.arraycopy(startNanos, i + 1, startNanos, i, moved);
+                System.arraycopy(ends, i + 1, ends, i, moved);
+                size--;
+                events[size] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of events in these columns.
+     *
+     * @return the number of events.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the events happening on some day between the specified dates (inclusive), that is the
+     * events starting before the end of the range and ending on or after its start.
+     *
+     * @param from the first day of the range.
+     * @param to   the last day of the range.
+     * @return a list of the events happening in the range, ordered by start time.
+     */
+    public ArrayList<Event> findOverlapping(LocalDate from, LocalDate to) {
+        long first = startOf(from);
+        int begin = firstStartingAfter(first - maxDuration - 1, Integer.MAX_VALUE);
+        int end = firstStartingAfter(startOf(to.plusDays(1)) - 1, Integer.MAX_VALUE);
+        int[] found = new int[Math.max(0, end - begin)];
+        int count = 0;
+        for (int i = begin; i < end; i++) {
+            // every position is written and only matches are kept, so the loop has no branch to mispredict
+            found[count] = i;
+            count += ends[i] >= first ? 1 : 0;
+        }
+        ArrayList<Event> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(events[found[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of events {@link #findOverlapping} looks at for the specified range, which is
+     * more than the events starting in the range when long events make it start looking further back.
+     *
+     * @param from the first day of the range.
+     * @param to   the last day of the range.
+     * @return the number of events scanned for the range.
+     */
+    public int countScanned(LocalDate from, LocalDate to) {
+        return Math.max(0, firstStartingAfter(startOf(to.plusDays(1)) - 1, Integer.MAX_VALUE)
+                - firstStartingAfter(startOf(from) - maxDuration - 1, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Gets the number of events starting on some day between the specified dates (inclusive).
+     *
+     * @param from the first day of the range.
+     * @param to   the last day of the range.
+     * @return the number of events starting in the range.
+     */
+    public int countStarting(LocalDate from, LocalDate to) {
+        return Math.max(0, firstStartingAfter(startOf(to.plusDays(1)) - 1, Integer.MAX_VALUE)
+                - firstStartingAfter(startOf(from) - 1, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Gets the events starting after the specified time.
+     *
+     * @param time a time.
+     * @return a list of the events starting after the time, ordered by start time.
+     */
+    public ArrayList<Event> findStartingAfter(LocalDateTime time) {
+        int begin = firstStartingAfter(seconds(time), time.getNano());
+        return new ArrayList<>(Arrays.asList(events).subList(begin, size));
+    }
+
+    /**
+     * Finds the position of the first event starting after the specified time, by binary search.
+     *
+     * @param seconds the time in seconds since the epoch.
+     * @param nano    the nanoseconds of the time, which may be out of range to stand for before or
+     *                after every event starting in the same second.
+     * @return the position of the first event starting after the time, or the number of events.
+     */
+    private int firstStartingAfter(long seconds, long nano) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < seconds || (starts[mid] == seconds && startNanos[mid] <= nano)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long startOf(LocalDate date) {
+        return date.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
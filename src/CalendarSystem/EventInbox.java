@@ -0,0 +1,300 @@
+package CalendarSystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of the events other users have shared with a user, waiting for the user to
+ * receive them into their calendar.
+ * <p>
+ * Sharing an event appends one small record to the inbox, so the sender never reads or rewrites the
+ * recipient's calendar. Records are framed with their length and a CRC32 checksum like those of a
+ * {@link CalendarJournal}, and the file is locked while it is written or trimmed, so senders do not
+ * interleave their records. A file lock is held by the whole process and cannot be taken twice in it,
+ * so threads of this process first take a lock shared by every inbox object on the same path. Only
+ * the name, times and tag of an event are kept.
+ * <p>
+ * Records stay in the inbox until {@link #acknowledge()} is called after {@link #read()}, so events
+ * read but not saved in the calendar yet are read again after a crash.
+ *
+ * @see CalendarManager#shareEvent(String, Event)
+ * @see CalendarManager#receiveInvites()
+ */
+public class EventInbox {
+
+    /**
+     * The first four bytes of an inbox file ("CALI").
+     */
+    public static final int MAGIC = 0x43414C49;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 5;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int RECORD_BUFFER_SIZE = 256;
+
+    private static final Logger logger = Logger.getLogger(EventInbox.class.getName());
+
+    /**
+     * The locks taken by the threads of this process before they lock an inbox file, by its path.
+     */
+    private static final ConcurrentHashMap<Path, ReentrantLock> pathLocks = new ConcurrentHashMap<>();
+
+    /**
+     * The path of the inbox file.
+     */
+    private final Path path;
+
+    /**
+     * The position in the file after the records returned by the last read.
+     */
+    private long readUpTo = HEADER_SIZE;
+
+    /**
+     * Creates an inbox kept in the file at the specified path, which is created when the first event
+     * is delivered.
+     *
+     * @param path the path of the inbox file.
+     */
+    public EventInbox(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Appends the specified event to this inbox.
+     *
+     * @param event the event to be shared.
+     * @throws IOException if the file cannot be written.
+     */
+    public void deliver(Event event) throws IOException {
+        append(frame(Collections.singletonList(event)));
+    }
+
+    /**
+     * Appends the specified events to this inbox at once.
+     *
+     * @param events the events to be shared.
+     * @throws IOException if the file cannot be written.
+     */
+    public void deliver(Collection<Event> events) throws IOException {
+        append(frame(events));
+    }
+
+    /**
+     * Encodes the specified events as framed records, so the same records can be appended to the
+     * inboxes of many users without encoding the events again.
+     *
+     * @param events the events to be shared.
+     * @return the framed records.
+     * @throws IOException
+     */
+    static byte[] frame(Collection<Event> events) throws IOException {
+        ByteArrayOutputStream framed = new ByteArrayOutputStream();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CalendarCodec.Output record = new CalendarCodec.Output(Channels.newChannel(bytes), RECORD_BUFFER_SIZE);
+        CRC32 crc = new CRC32();
+        for (Event event : events) {
+            record.writeUtf8(event.getEventName());
+            record.writeTime(event.getStartTime());
+            record.writeTime(event.getEndTime());
+            record.writeUtf8(event.getTag());
+            record.flush();
+            byte[] payload = bytes.toByteArray();
+            bytes.reset();
+            crc.reset();
+            crc.update(payload);
+            framed.write(ByteBuffer.allocate(RECORD_HEADER_SIZE).putInt(payload.length)
+                    .putInt((int) crc.getValue()).array());
+            framed.write(payload);
+        }
+        return framed.toByteArray();
+    }
+
+    /**
+     * Appends the specified framed records to this inbox, writing its header first if it is new. A
+     * damaged tail left by a delivery that did not finish is cut off first, so the new records follow the
+     * last whole one and can be read.
+     *
+     * @param records records encoded by {@link #frame(Collection)}.
+     * @throws IOException if the file cannot be written.
+     */
+    void append(byte[] records) throws IOException {
+        withLockedFile(channel -> {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + records.length);
+            if (size < HEADER_SIZE) {
+                buffer.putInt(MAGIC).put((byte) VERSION);
+                size = 0;
+            } else {
+                int end = parseRecords(readAll(channel), null);
+                if (end < size) {
+                    logger.log(Level.WARNING, "Removing a damaged record from " + path + ".");
+                    channel.truncate(end);
+                    size = end;
+                }
+            }
+            buffer.put(records).flip();
+            channel.position(size);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads the events in this inbox. Reading stops at the first damaged record, which the next delivery
+     * removes.
+     *
+     * @return a list of the events in the inbox, in the order they were delivered.
+     * @throws IOException if the file cannot be read or is not an inbox.
+     */
+    public ArrayList<Event> read() throws IOException {
+        ArrayList<Event> events = new ArrayList<>();
+        readUpTo = HEADER_SIZE;
+        if (!Files.exists(path)) {
+            return events;
+        }
+        withLockedFile(channel -> {
+            ByteBuffer bytes = readAll(channel);
+            readUpTo = parseRecords(bytes, events);
+            if (readUpTo < bytes.limit()) {
+                logger.log(Level.WARNING, "Skipping a damaged record in " + path + ".");
+            }
+        }, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return events;
+    }
+
+    /**
+     * Parses the records from the position of the specified buffer up to the first damaged one.
+     *
+     * @param bytes  the contents of the inbox, positioned after the header.
+     * @param events the list the events are added to, or null to only find the end of the records.
+     * @return the position in the file after the last whole record.
+     * @throws IOException if a record cannot be decoded.
+     */
+    private static int parseRecords(ByteBuffer bytes, ArrayList<Event> events) throws IOException {
+        int end = bytes.position();
+        while (bytes.remaining() >= RECORD_HEADER_SIZE) {
+            int length = bytes.getInt();
+            int expected = bytes.getInt();
+            if (length < 0 || length > bytes.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            bytes.get(payload);
+            CRC32 checksum = new CRC32();
+            checksum.update(payload);
+            if ((int) checksum.getValue() != expected) {
+                break;
+            }
+            if (events != null) {
+                CalendarCodec.Input in = new CalendarCodec.Input(
+                        Channels.newChannel(new ByteArrayInputStream(payload)), RECORD_BUFFER_SIZE);
+                String name = in.readUtf8();
+                LocalDateTime start = in.readTime();
+                Event e = new Event(name, start, in.readTime());
+                e.setTag(in.readUtf8());
+                events.add(e);
+            }
+            end = bytes.position();
+        }
+        return end;
+    }
+
+    /**
+     * Removes the records returned by the last read from this inbox, keeping any delivered since and any
+     * bytes the last read could not parse.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void acknowledge() throws IOException {
+        if (readUpTo == HEADER_SIZE || !Files.exists(path)) {
+            return;
+        }
+        withLockedFile(channel -> {
+            ByteBuffer bytes = readAll(channel);
+            bytes.position((int) Math.min(readUpTo, bytes.limit()));
+            ByteBuffer rest = bytes.slice();
+            channel.truncate(HEADER_SIZE);
+            channel.position(HEADER_SIZE);
+            while (rest.hasRemaining()) {
+                channel.write(rest);
+            }
+        }, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        readUpTo = HEADER_SIZE;
+    }
+
+    /**
+     * Opens the inbox file with the specified options and runs the specified task while holding both the
+     * lock of its path in this process and a lock on the file.
+     *
+     * @param task    the task reading or writing the file.
+     * @param options the options to open the file with.
+     * @throws IOException if the file cannot be opened or locked, or the task fails.
+     */
+    private void withLockedFile(FileTask task, OpenOption... options) throws IOException {
+        ReentrantLock pathLock = pathLocks.computeIfAbsent(path.toAbsolutePath().normalize(),
+                p -> new ReentrantLock());
+        pathLock.lock();
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            FileLock lock = channel.lock();
+            try {
+                task.run(channel);
+            } finally {
+                lock.release();
+            }
+        } finally {
+            pathLock.unlock();
+        }
+    }
+
+    /**
+     * A task run on the inbox file while it is locked.
+     */
+    private interface FileTask {
+        void run(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Reads the whole file and checks its header.
+     *
+     * @return the contents of the file, positioned after the header.
+     */
+    private ByteBuffer readAll(FileChannel channel) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) channel.size());
+        channel.position(0);
+        while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+            // read the whole inbox
+        }
+        bytes.flip();
+        if (bytes.remaining() < HEADER_SIZE || bytes.getInt() != MAGIC) {
+            throw new IOException("Not an event inbox.");
+        }
+        int version = bytes.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported event inbox version " + version + ".");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,271 @@
+package CalendarSystem;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+/**
+ * An augmented interval tree indexing events by their start and end times.
+ * The tree is a balanced (AVL) binary search tree keyed by start time, where each node
+ * also stores the latest end time in its subtree, so that overlap queries only visit
+ * the subtrees that can contain a match.
+ * <p>
+ * Events sharing the same start time are kept together in a single node.
+ * An event must be removed from the tree before its start or end time is changed.
+ *
+ * @see Calendar
+ * @see Event
+ */
+public class EventIntervalTree {
+
+    /**
+     * A node of this tree, holding all the events that start at the same time.
+     */
+    private static class Node {
+
+        /**
+         * The start time shared by the events in this node.
+         */
+        private final LocalDateTime start;
+
+        /**
+         * The events starting at this node's start time.
+         */
+        private final ArrayList<Event> events = new ArrayList<>();
+
+        /**
+         * The latest end time of the events in this node.
+         */
+        private LocalDateTime end;
+
+        /**
+         * The latest end time of the events in this node's subtree.
+         */
+        private LocalDateTime maxEnd;
+
+        /**
+         * The height of this node's subtree.
+         */
+        private int height = 1;
+
+        private Node left;
+        private Node right;
+
+        private Node(LocalDateTime start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * The root of this tree.
+     */
+    private Node root;
+
+    /**
+     * The number of events stored in this tree.
+     */
+    private int size;
+
+    /**
+     * Adds the specified event to this tree.
+     *
+     * @param e the event to be added.
+     */
+    public void add(Event e) {
+        root = insert(root, e);
+        size++;
+    }
+
+    /**
+     * Removes the specified event from this tree, if it is present.
+     * The event's start time must be the same as when it was added.
+     *
+     * @param e the event to be removed.
+     * @return true if the event was removed, otherwise false.
+     */
+    public boolean remove(Event e) {
+        int oldSize = size;
+        root = delete(root, e);
+        return size != oldSize;
+    }
+
+    /**
+     * Removes all the events from this tree.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Gets the number of events stored in this tree.
+     *
+     * @return the number of events in this tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the events happening on any day between the specified dates (inclusive),
+     * ordered by start time.
+     *
+     * @param from the first day of the range.
+     * @param to   the last day of the range.
+     * @return a list of the events overlapping the range.
+     */
+    public ArrayList<Event> findOverlapping(LocalDate from, LocalDate to) {
+        ArrayList<Event> events = new ArrayList<>();
+        collect(root, from, to, events);
+        return events;
+    }
+
+    /**
+     * Adds the events of the subtree rooted at node that overlap [from, to] to result, in order.
+     */
+    private void collect(Node node, LocalDate from, LocalDate to, ArrayList<Event> result) {
+        if (node == null || node.maxEnd.toLocalDate().isBefore(from)) {
+            return; // nothing in this subtree ends on or after from
+        }
+        collect(node.left, from, to, result);
+        if (node.start.toLocalDate().isAfter(to)) {
+            return; // this node and everything to its right start after to
+        }
+        for (Event e : node.events) {
+            if (!e.getEndTime().toLocalDate().isBefore(from)) {
+                result.add(e);
+            }
+        }
+        collect(node.right, from, to, result);
+    }
+
+    // helper methods for keeping the tree balanced
+
+    private Node insert(Node node, Event e) {
+        if (node == null) {
+            node = new Node(e.getStartTime());
+            node.events.add(e);
+            node.end = e.getEndTime();
+            update(node);
+            return node;
+        }
+        int cmp = e.getStartTime().compareTo(node.start);
+        if (cmp < 0) {
+            node.left = insert(node.left, e);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, e);
+        } else {
+            node.events.add(e);
+            if (e.getEndTime().isAfter(node.end)) {
+                node.end = e.getEndTime();
+            }
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, Event e) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = e.getStartTime().compareTo(node.start);
+        if (cmp < 0) {
+            node.left = delete(node.left, e);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, e);
+        } else {
+            if (!node.events.remove(e)) {
+                return node;
+            }
+            size--;
+            if (node.events.isEmpty()) {
+                if (node.left == null) {
+                    return node.right;
+                } else if (node.right == null) {
+                    return node.left;
+                }
+                Node successor = node.right;
+                while (successor.left != null) {
+                    successor = successor.left;
+                }
+                successor.right = deleteMin(node.right);
+                successor.left = node.left;
+                node = successor;
+            } else {
+                node.end = latestEnd(node.events);
+            }
+        }
+        return balance(node);
+    }
+
+    private Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        } else if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        update(node);
+        update(newRoot);
+        return newRoot;
+    }
+
+    private Node rotateRight(Node node) {
+        Node newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        update(node);
+        update(newRoot);
+        return newRoot;
+    }
+
+    /**
+     * Recomputes the height and latest end time of node from its events and children.
+     */
+    private void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private LocalDateTime latestEnd(ArrayList<Event> events) {
+        LocalDateTime latest = events.get(0).getEndTime();
+        for (Event e : events) {
+            if (e.getEndTime().isAfter(latest)) {
+                latest = e.getEndTime();
+            }
+        }
+        return latest;
+    }
+
+    private int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+}
@@ -0,0 +1,132 @@
+package CalendarSystem;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A read-only view of an event stored in a {@link MappedEventStore}. A view only holds the position
+ * of the event's record, and reads the record each time it is asked for a field, so views of millions
+ * of events cost almost no memory.
+ *
+ * @see MappedEventStore
+ * @see Event
+ */
+public class EventView {
+
+    private final MappedEventStore store;
+
+    /**
+     * The position of the event's record in the store.
+     */
+    private final int index;
+
+    EventView(MappedEventStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    /**
+     * Gets the id number of this event.
+     *
+     * @return this event's id number.
+     */
+    public long getId() {
+        return store.id(index);
+    }
+
+    /**
+     * Gets the name of this event.
+     *
+     * @return this event's name.
+     */
+    public String getEventName() {
+        return store.name(index);
+    }
+
+    /**
+     * Gets the start time of this event.
+     *
+     * @return the time and date at which this event starts.
+     */
+    public LocalDateTime getStartTime() {
+        return LocalDateTime.ofEpochSecond(store.start(index), store.startNano(index), ZoneOffset.UTC);
+    }
+
+    /**
+     * Gets the end time of this event.
+     *
+     * @return the time and date at which this event ends.
+     */
+    public LocalDateTime getEndTime() {
+        return LocalDateTime.ofEpochSecond(store.end(index), store.endNano(index), ZoneOffset.UTC);
+    }
+
+    /**
+     * Gets the tag of this event.
+     *
+     * @return this event's tag.
+     */
+    public String getTag() {
+        return store.tag(index);
+    }
+
+    /**
+     * Returns whether this event is "past", "ongoing" or "future" at the specified time.
+     *
+     * @param time a time.
+     * @return "past" || "ongoing" || "future"
+     */
+    public String getStatus(LocalDateTime time) {
+        if (getEndTime().isBefore(time)) {
+            return "past";
+        } else if (getStartTime().isAfter(time)) {
+            return "future";
+        }
+        return "ongoing";
+    }
+
+    /**
+     * Returns true if this event had memos when it was stored; the memos themselves are not stored.
+     *
+     * @return true if the event had memos, otherwise false.
+     */
+    public boolean hadMemos() {
+        return (store.flags(index) & MappedEventStore.FLAG_MEMOS) != 0;
+    }
+
+    /**
+     * Returns true if this event was part of a series when it was stored; the series are not stored.
+     *
+     * @return true if the event was in a series, otherwise false.
+     */
+    public boolean wasInSeries() {
+        return (store.flags(index) & MappedEventStore.FLAG_SERIES) != 0;
+    }
+
+    /**
+     * Copies this event to the heap, without memos or series.
+     *
+     * @return a new event with this event's id number, name, times and tag.
+     */
+    public Event toEvent() {
+        Event e = new Event(getEventName(), getStartTime(), getEndTime());
+        e.setId(getId());
+        e.setTag(getTag());
+        return e;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EventView && ((EventView) o).store == store && ((EventView) o).index == index;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(store) + index;
+    }
+
+    @Override
+    public String toString() {
+        return getEventName() + "\t" + getStartTime().toString() + " to " + getEndTime().toString();
+    }
+}
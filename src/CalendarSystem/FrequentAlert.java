@@ -2,32 +2,44 @@ package CalendarSystem;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 
 /**
  * A Frequent Alert is a type of alert with appear times defined by frequency.
  * It is a subclass of Alert.
+ * <p>
+ * The appear times are not stored: they are every multiple of the frequency before the event time,
+ * from the last one at or before the time the alert was set, and are computed when asked for.
  *
  * @see Alert
  */
 public class FrequentAlert extends Alert {
 
+    private static final long serialVersionUID = 3112488434754302189L;
+
     /**
      * The frequency of the alert (ex. every 1 day).
      */
     private Duration frequency;
 
     /**
-     * Initializes a new FrequentAlert object using the specified parameters.
+     * The time the frequency was set at; the first appear time is the last one at or before it.
+     */
+    private LocalDateTime since;
+
+    /**
+     * Initializes a new FrequentAlert object set at the specified time.
      *
      * @param evT     datetime of the associated event.
      * @param name    name of the associated event.
      * @param message message content of the alert.
      * @param d       frequency of the alert (ex. every 1 day).
+     * @param now     the time the alert is set at.
      */
-    public FrequentAlert(LocalDateTime evT, String name, String message, Duration d) {
+    public FrequentAlert(LocalDateTime evT, String name, String message, Duration d, LocalDateTime now) {
         super(evT, message, name);
         frequency = d;
-        setTimesHelper();
+        setTimesHelper(now);
         setData("Frequent Alert: " + message + " every " + durationToString(d));
     }
 
@@ -47,33 +59,124 @@ public class FrequentAlert extends Alert {
     // methods for editing FrequentAlert
 
     /**
-     * Changes the frequency of the frequent alert.
+     * Changes the frequency of the frequent alert at the specified time.
      *
      * @param newDur the new frequency.
+     * @param now    the time the frequency is changed at.
      */
-    public void changeFrequency(Duration newDur) {
+    public void changeFrequency(Duration newDur, LocalDateTime now) {
         this.resetTimes();
         this.frequency = newDur;
-        setTimesHelper();
+        setTimesHelper(now);
+    }
+
+    /**
+     * Sets the time the appear times are counted from.
+     *
+     * @param now the time the frequency is set at.
+     */
+    private void setTimesHelper(LocalDateTime now) {
+        this.since = now;
+    }
+
+    /**
+     * Gets the time the appear times are counted from.
+     *
+     * @return the time the frequency was set at, or null if the appear times are stored.
+     */
+    LocalDateTime getSince() {
+        return since;
     }
 
     /**
-     * Adds every appear datetime to attribute times based on frequency.
+     * Replaces the appear times stored by an older version of this class with the time they are
+     * counted from. The earliest stored time is the first appear time, so it gives the same times.
      */
-    private void setTimesHelper() {
-        LocalDateTime t = getEventTime();
-        do {
-            t = t.minus(this.frequency);
+    void convertStoredTimes() {
+        if (since == null && !super.getTimes().isEmpty()) {
+            LocalDateTime earliest = super.getTimes().get(0);
+            for (LocalDateTime t : super.getTimes()) {
+                if (t.isBefore(earliest)) {
+                    earliest = t;
+                }
+            }
+            since = earliest;
+            resetTimes();
         }
+    }
 
-        //use system time now - needs to be changed!!
-        while (t.isAfter(LocalDateTime.now()));
+    /**
+     * Gets the number of appear times: the number of multiples of the frequency between
+     * the first appear time and the event time.
+     *
+     * @return the number of appear times.
+     */
+    private long getNumberOfTimes() {
+        if (since == null) {
+            return 0;
+        }
+        Duration untilEvent = Duration.between(since, getEventTime());
+        if (untilEvent.isNegative() || untilEvent.isZero()) {
+            return 1;
+        }
+        long n = untilEvent.dividedBy(frequency);
+        return frequency.multipliedBy(n).equals(untilEvent) ? n : n + 1;
+    }
 
-        //then t is the first alarm time
-        while (t.isBefore(this.getEventTime())) {
-            addtoTimes(t);
-            t = t.plus(this.frequency);
+    /**
+     * Gets the appear time that is the specified number of frequencies before the event time.
+     */
+    private LocalDateTime timeBeforeEvent(long k) {
+        return getEventTime().minus(frequency.multipliedBy(k));
+    }
+
+    /**
+     * Gets the number of whole frequencies in the time from t to the event time.
+     */
+    private long frequenciesUntilEvent(LocalDateTime t) {
+        return Duration.between(t, getEventTime()).dividedBy(frequency);
+    }
+
+    @Override
+    public ArrayList<LocalDateTime> getTimes(LocalDateTime from, LocalDateTime to) {
+        if (since == null) {
+            return super.getTimes(from, to); // stored by an older version of this class
+        }
+        ArrayList<LocalDateTime> result = new ArrayList<>();
+        if (!from.isBefore(getEventTime()) || !from.isBefore(to)) {
+            return result;
+        }
+        // the k-th time before the event is in [from, to) when minK <= k <= maxK
+        long maxK = Math.min(frequenciesUntilEvent(from), getNumberOfTimes());
+        long minK = to.isBefore(getEventTime()) ? frequenciesUntilEvent(to) + 1 : 1;
+        for (long k = maxK; k >= minK; k--) {
+            result.add(timeBeforeEvent(k));
+        }
+        return result;
+    }
+
+    @Override
+    public LocalDateTime nextTime(LocalDateTime from) {
+        if (since == null) {
+            return super.nextTime(from);
+        } else if (!from.isBefore(getEventTime())) {
+            return null;
+        }
+        long k = Math.min(frequenciesUntilEvent(from), getNumberOfTimes());
+        return k >= 1 ? timeBeforeEvent(k) : null;
+    }
+
+    /**
+     * Gets every time at which the alert should appear.
+     *
+     * @return a list of the appear times, in order.
+     */
+    @Override
+    public ArrayList<LocalDateTime> getTimes() {
+        if (since == null) {
+            return super.getTimes();
         }
+        return getTimes(timeBeforeEvent(getNumberOfTimes()), getEventTime());
     }
 
     // implement abstract methods
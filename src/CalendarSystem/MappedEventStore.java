@@ -0,0 +1,523 @@
+package CalendarSystem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * A read-only store of events kept in a memory-mapped file, for archive calendars too large to hold
+ * on the heap.
+ * <p>
+ * Each event is a fixed-width record holding its id number, its start and end times in seconds and
+ * nanoseconds since the epoch, the offsets of its name and tag in a pool of distinct strings, and
+ * flag bits. Records are sorted by start time, so date queries are binary searches, and events are
+ * returned as {@link EventView}s that read their record when asked rather than copies on the heap.
+ * Opening a store only reads its header, whatever its size.
+ * <p>
+ * The file starts with a header (the magic number, the version, the number of records, the longest
+ * event duration in seconds and the size of the string pool), followed by the records and the pool.
+ *
+ * @see EventView
+ * @see CalendarManager#openArchive(String)
+ */
+public class MappedEventStore implements Closeable {
+
+    /**
+     * The first four bytes of an event store file ("CALM").
+     */
+    public static final int MAGIC = 0x43414C4D;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int VERSION = 1;
+
+    static final int FLAG_NAME = 1;
+    static final int FLAG_TAG = 1 << 1;
+    static final int FLAG_MEMOS = 1 << 2;
+    static final int FLAG_SERIES = 1 << 3;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 48;
+    private static final int ID = 0;
+    private static final int START = 8;
+    private static final int END = 16;
+    private static final int START_NANO = 24;
+    private static final int END_NANO = 28;
+    private static final int NAME = 32;
+    private static final int TAG = 36;
+    private static final int FLAGS = 40;
+
+    /**
+     * The number of records in each mapped segment, which must stay under the 2 GB a buffer can map.
+     */
+    private static final int RECORDS_PER_SEGMENT = (1 << 30) / RECORD_SIZE;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+
+    /**
+     * The records, in segments of {@link #RECORDS_PER_SEGMENT}.
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * The string pool, holding each name and tag once as its length followed by its UTF-8 bytes.
+     */
+    private final MappedByteBuffer pool;
+
+    private final int size;
+
+    /**
+     * The longest duration of an event in this store, in seconds, which bounds how far before a date
+     * an event overlapping it can start.
+     */
+    private final long maxDuration;
+
+    private MappedEventStore(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // read the whole header
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException("Not an event store.");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported event store version " + version + ".");
+        }
+        size = header.getInt();
+        header.getInt(); // reserved
+        maxDuration = header.getLong();
+        long poolSize = header.getLong();
+        if (size < 0 || poolSize < 0 || poolSize > Integer.MAX_VALUE
+                || channel.size() < HEADER_SIZE + (long) size * RECORD_SIZE + poolSize) {
+            throw new IOException("Damaged event store.");
+        }
+
+        segments = new MappedByteBuffer[(size + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT];
+        for (int i = 0; i < segments.length; i++) {
+            int records = Math.min(RECORDS_PER_SEGMENT, size - i * RECORDS_PER_SEGMENT);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + (long) i * RECORDS_PER_SEGMENT * RECORD_SIZE, (long) records * RECORD_SIZE);
+        }
+        pool = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + (long) size * RECORD_SIZE, poolSize);
+    }
+
+    /**
+     * Opens the event store at the specified path.
+     *
+     * @param path the path of a file written by {@link #write}.
+     * @return the store.
+     * @throws IOException if the file cannot be read or is not an event store.
+     */
+    public static MappedEventStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedEventStore(channel);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Writes the specified events to an event store at the specified path, replacing any file there.
+     * Memos, series and alerts are not stored; the records only note whether an event had any.
+     *
+     * @param path   the path of the file to write.
+     * @param events the events to store.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Path path, Collection<Event> events) throws IOException {
+        ArrayList<Event> sorted = new ArrayList<>(events);
+        sorted.sort(Comparator.comparing(Event::getStartTime));
+
+        Map<String, Integer> offsets = new HashMap<>();
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        long maxDuration = 0;
+        for (Event e : sorted) {
+            intern(e.getEventName(), offsets, strings);
+            intern(e.getTag(), offsets, strings);
+            maxDuration = Math.max(maxDuration, seconds(e.getEndTime()) - seconds(e.getStartTime()));
+        }
+
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(sorted.size()).putInt(0)
+                    .putLong(maxDuration).putLong(strings.size());
+            for (Event e : sorted) {
+                if (buffer.remaining() < RECORD_SIZE) {
+                    drain(buffer, out);
+                }
+                int flags = (e.getEventName() != null ? FLAG_NAME : 0) | (e.getTag() != null ? FLAG_TAG : 0)
+                        | (e.getMemos().isEmpty() ? 0 : FLAG_MEMOS) | (e.getSeries().isEmpty() ? 0 : FLAG_SERIES);
+                buffer.putLong(e.getId())
+                        .putLong(seconds(e.getStartTime()))
+                        .putLong(seconds(e.getEndTime()))
+                        .putInt(e.getStartTime().getNano())
+                        .putInt(e.getEndTime().getNano())
+                        .putInt(e.getEventName() != null ? offsets.get(e.getEventName()) : 0)
+                        .putInt(e.getTag() != null ? offsets.get(e.getTag()) : 0)
+                        .putInt(flags)
+                        .putInt(0); // reserved
+            }
+            drain(buffer, out);
+            ByteBuffer pooled = ByteBuffer.wrap(strings.toByteArray());
+            while (pooled.hasRemaining()) {
+                out.write(pooled);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of events in this store.
+     *
+     * @return the number of events.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets every event in this store, ordered by start time. The list reads the file as it is used.
+     *
+     * @return a read-only list of views of all the events.
+     */
+    public List<EventView> getMyEvents() {
+        return new Views(0, size);
+    }
+
+    /**
+     * Gets the event in this store with the specified id number.
+     *
+     * @param id the id number of an event.
+     * @return a view of the event, or null if there is none.
+     */
+    public EventView getEvent(long id) {
+        for (int i = 0; i < size; i++) {
+            if (segment(i).getLong(offset(i) + ID) == id) {
+                return new EventView(this, i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets all the events in this store with the specified name.
+     *
+     * @param name the name of an event.
+     * @return a list of views of the events with the name, ordered by start time.
+     */
+    public ArrayList<EventView> getEvents(String name) {
+        return findByString(name, NAME, FLAG_NAME);
+    }
+
+    /**
+     * Finds the events in this store with the specified tag.
+     *
+     * @param tag the tag of an event.
+     * @return a list of views of the events with the tag, ordered by start time.
+     */
+    public ArrayList<EventView> findEvent(String tag) {
+        return findByString(tag, TAG, FLAG_TAG);
+    }
+
+    /**
+     * Finds the events in this store happening during the specified date.
+     *
+     * @param date a date.
+     * @return a list of views of the events happening during the date, ordered by start time.
+     */
+    public ArrayList<EventView> findEvent(LocalDate date) {
+        return findOverlapping(date, date);
+    }
+
+    /**
+     * Finds the events in this store by a range of dates.
+     *
+     * @param from the first date of the range.
+     * @param to   the date after the last date of the range.
+     * @return a map from each date in [from, to) to the list of events happening during that date.
+     */
+    public TreeMap<LocalDate, ArrayList<EventView>> findEvents(LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, ArrayList<EventView>> eventsByDate = new TreeMap<>();
+        if (!from.isBefore(to)) {
+            return eventsByDate;
+        }
+        LocalDate last = to.minusDays(1);
+        for (LocalDate date = from; !date.isAfter(last); date = date.plusDays(1)) {
+            eventsByDate.put(date, new ArrayList<>());
+        }
+        for (EventView event : findOverlapping(from, last)) {
+            LocalDate start = event.getStartTime().toLocalDate();
+            LocalDate end = event.getEndTime().toLocalDate();
+            LocalDate first = start.isAfter(from) ? start : from;
+            LocalDate stop = end.isBefore(last) ? end : last;
+            for (LocalDate date = first; !date.isAfter(stop); date = date.plusDays(1)) {
+                eventsByDate.get(date).add(event);
+            }
+        }
+        return eventsByDate;
+    }
+
+    /**
+     * Gets the events in this store that start after the specified time.
+     *
+     * @param time a time.
+     * @return a read-only list of views of the future events, ordered by start time.
+     */
+    public List<EventView> getFutureEvents(LocalDateTime time) {
+        return new Views(firstStartingAfter(seconds(time), time.getNano()), size);
+    }
+
+    /**
+     * Gets the events in this store that ended before the specified time.
+     *
+     * @param time a time.
+     * @return a list of views of the past events, ordered by start time.
+     */
+    public ArrayList<EventView> getPastEvents(LocalDateTime time) {
+        ArrayList<EventView> events = new ArrayList<>();
+        long seconds = seconds(time);
+        int last = firstStartingAfter(seconds, time.getNano());
+        for (int i = 0; i < last; i++) {
+            if (compare(end(i), endNano(i), seconds, time.getNano()) < 0) {
+                events.add(new EventView(this, i));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Gets the events in this store happening at the specified time.
+     *
+     * @param time a time.
+     * @return a list of views of the current events, ordered by start time.
+     */
+    public ArrayList<EventView> getCurrentEvents(LocalDateTime time) {
+        ArrayList<EventView> events = new ArrayList<>();
+        long seconds = seconds(time);
+        int last = firstStartingAfter(seconds, time.getNano());
+        for (int i = firstStartingAfter(seconds - maxDuration - 1, 0); i < last; i++) {
+            if (compare(start(i), startNano(i), seconds, time.getNano()) < 0
+                    && compare(end(i), endNano(i), seconds, time.getNano()) > 0) {
+                events.add(new EventView(this, i));
+            }
+        }
+        return events;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // methods reading a record, used by EventView
+
+    long id(int index) {
+        return segment(index).getLong(offset(index) + ID);
+    }
+
+    long start(int index) {
+        return segment(index).getLong(offset(index) + START);
+    }
+
+    long end(int index) {
+        return segment(index).getLong(offset(index) + END);
+    }
+
+    int startNano(int index) {
+        return segment(index).getInt(offset(index) + START_NANO);
+    }
+
+    int endNano(int index) {
+        return segment(index).getInt(offset(index) + END_NANO);
+    }
+
+    int flags(int index) {
+        return segment(index).getInt(offset(index) + FLAGS);
+    }
+
+    String name(int index) {
+        return (flags(index) & FLAG_NAME) == 0 ? null : string(segment(index).getInt(offset(index) + NAME));
+    }
+
+    String tag(int index) {
+        return (flags(index) & FLAG_TAG) == 0 ? null : string(segment(index).getInt(offset(index) + TAG));
+    }
+
+    // helper methods
+
+    private ByteBuffer segment(int index) {
+        return segments[index / RECORDS_PER_SEGMENT];
+    }
+
+    private static int offset(int index) {
+        return (index % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+    }
+
+    /**
+     * Gets the events overlapping any day between the specified dates (inclusive).
+     */
+    private ArrayList<EventView> findOverlapping(LocalDate from, LocalDate to) {
+        ArrayList<EventView> events = new ArrayList<>();
+        long fromSeconds = from.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long toSeconds = to.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        for (int i = firstStartingAfter(fromSeconds - maxDuration - 1, 0); i < size && start(i) < toSeconds; i++) {
+            if (end(i) >= fromSeconds) {
+                events.add(new EventView(this, i));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Gets the views of the events whose name or tag, at the specified field, is the specified string.
+     * The string is looked up in the pool once, so the records are only compared by offset.
+     */
+    private ArrayList<EventView> findByString(String s, int field, int flag) {
+        ArrayList<EventView> events = new ArrayList<>();
+        int target = s == null ? -1 : poolOffset(s);
+        if (s != null && target < 0) {
+            return events;
+        }
+        for (int i = 0; i < size; i++) {
+            ByteBuffer segment = segment(i);
+            int at = offset(i);
+            boolean present = (segment.getInt(at + FLAGS) & flag) != 0;
+            if (s == null ? !present : present && segment.getInt(at + field) == target) {
+                events.add(new EventView(this, i));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Finds the index of the first record starting after the specified time, by binary search.
+     */
+    private int firstStartingAfter(long seconds, int nano) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(start(mid), startNano(mid), seconds, nano) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(long seconds, int nano, long otherSeconds, int otherNano) {
+        int c = Long.compare(seconds, otherSeconds);
+        return c != 0 ? c : Integer.compare(nano, otherNano);
+    }
+
+    /**
+     * Gets the offset of the specified string in the pool, or -1 if it is not there.
+     */
+    private int poolOffset(String s) {
+        byte[] target = s.getBytes(StandardCharsets.UTF_8);
+        int at = 0;
+        while (at < pool.limit()) {
+            int length = pool.getInt(at);
+            if (length == target.length && matches(at + 4, target)) {
+                return at;
+            }
+            at += 4 + length;
+        }
+        return -1;
+    }
+
+    private boolean matches(int at, byte[] target) {
+        for (int i = 0; i < target.length; i++) {
+            if (pool.get(at + i) != target[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String string(int at) {
+        byte[] bytes = new byte[pool.getInt(at)];
+        ByteBuffer source = pool.duplicate(); // a copy of the position, so that concurrent reads are safe
+        source.position(at + 4);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static void intern(String s, Map<String, Integer> offsets, ByteArrayOutputStream strings) {
+        if (s == null || offsets.containsKey(s)) {
+            return;
+        }
+        offsets.put(s, strings.size());
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        strings.write(bytes.length >>> 24);
+        strings.write(bytes.length >>> 16);
+        strings.write(bytes.length >>> 8);
+        strings.write(bytes.length);
+        strings.write(bytes, 0, bytes.length);
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * A read-only list of views of the records in [from, to), created as they are asked for.
+     */
+    private class Views extends AbstractList<EventView> implements RandomAccess {
+        private final int from;
+        private final int to;
+
+        private Views(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public EventView get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return new EventView(MappedEventStore.this, from + index);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
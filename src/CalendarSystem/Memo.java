@@ -1,5 +1,7 @@
 package CalendarSystem;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -10,6 +12,8 @@ import java.io.Serializable;
  */
 public class Memo implements Serializable {
 
+    private static final long serialVersionUID = 6738671309393208515L;
+
     /**
      * The id number for this memo.
      */
@@ -36,6 +40,18 @@ public class Memo implements Serializable {
         this.note = note;
     }
 
+    /**
+     * Initializes a Memo object read from file, keeping the id number it was saved with.
+     *
+     * @param idNum the id number of the memo.
+     * @param note  the message stored in the memo.
+     */
+    Memo(int idNum, String note) {
+        numOfMemos = Math.max(numOfMemos, idNum); // later memos get new id numbers
+        this.idNum = idNum;
+        this.note = note;
+    }
+
     /**
      * Gets the id number of this memo.
      *
@@ -65,6 +81,14 @@ public class Memo implements Serializable {
         this.note = newNote;
     }
 
+    /**
+     * Reads this memo with Java serialization, keeping later memos from getting its id number.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        numOfMemos = Math.max(numOfMemos, idNum); // later memos get new id numbers
+    }
+
     @Override
     public String toString() {
         return "Memo " + this.idNum + ": " + this.note;
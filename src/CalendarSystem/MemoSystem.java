@@ -1,11 +1,17 @@
 package CalendarSystem;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
  * A system for handling the creation and storage of Memos.
+ * Its methods are synchronized, so that the memos can be read while a calendar changes them.
  *
  * @see Memo
  */
@@ -16,13 +22,25 @@ public class MemoSystem implements Serializable {
     /**
      * A list of stored memos.
      */
-    public ArrayList<Memo> memos;
+    private ArrayList<Memo> memos;
+
+    /**
+     * An index mapping each memo to the events it is associated with.
+     */
+    private transient HashMap<Memo, LinkedHashSet<Event>> memoEvents;
+
+    /**
+     * An index mapping each note to the stored memos containing that note.
+     */
+    private transient HashMap<String, ArrayList<Memo>> noteIndex;
 
     /**
      * Initializes a new MemoSystem object with no memos.
      */
     public MemoSystem() {
         this.memos = new ArrayList<>();
+        this.memoEvents = new HashMap<>();
+        this.noteIndex = new HashMap<>();
     }
 
     /**
@@ -30,27 +48,127 @@ public class MemoSystem implements Serializable {
      *
      * @param events a list of events associated with the memo.
      * @param note   the message to be stored in the memo.
+     * @return the new memo.
      */
-    public void createMemo(List<Event> events, String note) {
+    public synchronized Memo createMemo(List<Event> events, String note) {
         // initialize a new Memo object with specified note
         Memo memo = new Memo(note);
 
         // adds memo to the list of memos stored in this memo system
         this.memos.add(memo);
+        noteIndex.computeIfAbsent(note, k -> new ArrayList<>()).add(memo);
 
         // adds memo to each event's memos from the input list of events
         for (Event event : events) {
+            addMemoToEvent(memo, event);
+        }
+        return memo;
+    }
+
+    /**
+     * Stores the specified memo read from file in this memo system.
+     *
+     * @param memo a memo that is not stored in this memo system.
+     */
+    synchronized void restoreMemo(Memo memo) {
+        this.memos.add(memo);
+        noteIndex.computeIfAbsent(memo.getNote(), k -> new ArrayList<>()).add(memo);
+    }
+
+    /**
+     * Associates the specified memo with the specified event, if it is not already.
+     *
+     * @param memo  a memo stored in this memo system.
+     * @param event the event to be associated with the memo.
+     */
+    public synchronized void addMemoToEvent(Memo memo, Event event) {
+        if (!event.getMemos().contains(memo)) {
             event.getMemos().add(memo);
         }
+        memoEvents.computeIfAbsent(memo, k -> new LinkedHashSet<>()).add(event);
+    }
+
+    /**
+     * Removes the association between the specified memo and the specified event.
+     *
+     * @param memo  a memo associated with the event.
+     * @param event an event associated with the memo.
+     */
+    public synchronized void removeMemoFromEvent(Memo memo, Event event) {
+        event.deleteMemo(memo);
+        LinkedHashSet<Event> events = memoEvents.get(memo);
+        if (events != null) {
+            events.remove(event);
+            if (events.isEmpty()) {
+                memoEvents.remove(memo);
+            }
+        }
+    }
+
+    /**
+     * Adds the associations between the specified event and its memos to this memo system's index.
+     *
+     * @param event an event whose memos are stored in this memo system.
+     */
+    public synchronized void indexEvent(Event event) {
+        for (Memo memo : event.getMemos()) {
+            memoEvents.computeIfAbsent(memo, k -> new LinkedHashSet<>()).add(event);
+        }
+    }
+
+    /**
+     * Gets the events associated with the specified memo.
+     *
+     * @param memo a memo stored in this memo system.
+     * @return a list of the events associated with the memo.
+     */
+    public synchronized ArrayList<Event> getEvents(Memo memo) {
+        LinkedHashSet<Event> events = memoEvents.get(memo);
+        return events == null ? new ArrayList<>() : new ArrayList<>(events);
+    }
+
+    /**
+     * Gets the stored memos containing the specified note.
+     *
+     * @param note the note of a memo.
+     * @return a list of the memos containing the note.
+     */
+    public synchronized ArrayList<Memo> findMemos(String note) {
+        ArrayList<Memo> found = noteIndex.get(note);
+        return found == null ? new ArrayList<>() : new ArrayList<>(found);
+    }
+
+    /**
+     * Changes the note of the specified memo to the specified new note.
+     *
+     * @param memo    a memo stored in this memo system.
+     * @param newNote the new note to be stored in the memo.
+     */
+    public synchronized void changeMemoNote(Memo memo, String newNote) {
+        removeFromNoteIndex(memo);
+        memo.setNote(newNote);
+        if (memos.contains(memo)) {
+            noteIndex.computeIfAbsent(newNote, k -> new ArrayList<>()).add(memo);
+        }
     }
 
     /**
      * Gets a list of all the memos stored in this memo system.
      *
-     * @return the list of stored memos.
+     * @return an unmodifiable snapshot of the list of stored memos.
+     */
+    public synchronized List<Memo> getMemos() {
+        return Collections.unmodifiableList(new ArrayList<>(memos));
+    }
+
+    /**
+     * Returns true if the specified memo is stored in this memo system.
+     *
+     * @param memo a memo.
+     * @return true if the memo is stored, otherwise false.
      */
-    public ArrayList<Memo> getMemos() {
-        return memos;
+    public synchronized boolean contains(Memo memo) {
+        return memos.contains(memo);
     }
 
     /**
@@ -60,7 +178,7 @@ public class MemoSystem implements Serializable {
      * @param id the id number of a memo in this memo system.
      * @return the memo with the specified id number.
      */
-    public Memo getMemo(int id) {
+    public synchronized Memo getMemo(int id) {
         for (Memo memo : memos) {
             if (memo.getIdNumber() == id) {
                 return memo;
@@ -71,13 +189,21 @@ public class MemoSystem implements Serializable {
     }
 
     /**
-     * Removes the specified memo from the stored memos, if it exists.
+     * Removes the specified memo from the stored memos, if it exists, and from all
+     * the events it is associated with.
      *
      * @param memo a memo stored in this memo system.
      */
-    public void deleteMemo(Memo memo) {
+    public synchronized void deleteMemo(Memo memo) {
         if (this.memos.contains(memo)) {
             this.memos.remove(memo);
+            removeFromNoteIndex(memo);
+            LinkedHashSet<Event> events = memoEvents.remove(memo);
+            if (events != null) {
+                for (Event event : events) {
+                    event.deleteMemo(memo); // deletes memo from events
+                }
+            }
             System.out.println("Memo deleted");
         } else {
             System.out.println("Entered invalid Memo"); // memo not in this memo system
@@ -89,11 +215,39 @@ public class MemoSystem implements Serializable {
      *
      * @return true if there is at least one stored memo, otherwise false
      */
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         if (memos == null) {
             return false;
         } else {
             return memos.isEmpty();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Removes the specified memo from the note index.
+     *
+     * @param memo a memo stored in this memo system.
+     */
+    private void removeFromNoteIndex(Memo memo) {
+        ArrayList<Memo> sameNote = noteIndex.get(memo.getNote());
+        if (sameNote != null) {
+            sameNote.remove(memo);
+            if (sameNote.isEmpty()) {
+                noteIndex.remove(memo.getNote());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the note index after this memo system is read from file.
+     * The calendar storing this memo system re-indexes its events with {@link #indexEvent(Event)}.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        memoEvents = new HashMap<>();
+        noteIndex = new HashMap<>();
+        for (Memo memo : memos) {
+            noteIndex.computeIfAbsent(memo.getNote(), k -> new ArrayList<>()).add(memo);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package CalendarSystem;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Represents a series of events defined by a recurrence rule rather than by stored events.
+ * The n-th occurrence (counting from 0) starts at <code>first + n * frequency</code> and lasts
+ * <code>duration</code>. Occurrences are only created when they are asked for; the only events
+ * stored in this series are the occurrences that were edited (overridden) in the calendar.
+ * <p>
+ * An occurrence that was not edited is a new event each time it is asked for, with no id number and
+ * stored nowhere, so it cannot be changed or deleted; it is stored with
+ * {@link Calendar#editOccurrence(Event)} first.
+ *
+ * @see Series
+ * @see SeriesSystem
+ */
+public class RecurringSeries extends Series {
+
+    private static final long serialVersionUID = 8660269838917389619L;
+
+    /**
+     * The start time and date of the first occurrence.
+     */
+    private LocalDateTime first;
+
+    /**
+     * The duration of each occurrence.
+     */
+    private Duration duration;
+
+    /**
+     * The time between the starts of two consecutive occurrences.
+     */
+    private Period frequency;
+
+    /**
+     * The number of occurrences in this series.
+     */
+    private int count;
+
+    /**
+     * The occurrences that were edited, by their position in this series.
+     */
+    private TreeMap<Integer, Event> overrides = new TreeMap<>();
+
+    /**
+     * Initializes a RecurringSeries object with the specified name and recurrence rule.
+     *
+     * @param name      the name of the series.
+     * @param first     the start time and date of the first occurrence.
+     * @param duration  the duration of each occurrence.
+     * @param frequency the time between two consecutive occurrences; must be positive.
+     * @param count     the number of occurrences in the series.
+     */
+    public RecurringSeries(String name, LocalDateTime first, Duration duration, Period frequency, int count) {
+        super(name, new ArrayList<>());
+        if (frequency.isZero() || frequency.isNegative()) {
+            throw new IllegalArgumentException("The frequency of a series must be positive.");
+        }
+        this.first = first;
+        this.duration = duration;
+        this.frequency = frequency;
+        this.count = Math.max(count, 0);
+    }
+
+    /**
+     * Initializes a RecurringSeries object with the specified name and recurrence rule, whose
+     * occurrences start no later than the specified time.
+     *
+     * @param name      the name of the series.
+     * @param first     the start time and date of the first occurrence.
+     * @param duration  the duration of each occurrence.
+     * @param frequency the time between two consecutive occurrences; must be positive.
+     * @param until     the latest start time and date of an occurrence.
+     */
+    public RecurringSeries(String name, LocalDateTime first, Duration duration, Period frequency,
+                           LocalDateTime until) {
+        this(name, first, duration, frequency, 0);
+        if (!first.isAfter(until)) {
+            int high = 1;
+            while (high < Integer.MAX_VALUE / 2 && !occurrenceStart(high).isAfter(until)) {
+                high *= 2;
+            }
+            // the number of occurrences is the first position starting after until
+            this.count = firstPosition(high, start -> start.isAfter(until));
+        }
+    }
+
+    /**
+     * Gets the number of occurrences in this series.
+     *
+     * @return the number of occurrences in this series.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the time between the starts of two consecutive occurrences.
+     *
+     * @return the frequency of this series.
+     */
+    public Period getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Gets the duration of each occurrence.
+     *
+     * @return the duration of each occurrence.
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the start time and date of the first occurrence.
+     *
+     * @return the start of the first occurrence.
+     */
+    public LocalDateTime getFirst() {
+        return first;
+    }
+
+    /**
+     * Gets the start time and date of the occurrence at the specified position.
+     *
+     * @param n the position of an occurrence, counting from 0.
+     * @return the start of the occurrence.
+     */
+    public LocalDateTime occurrenceStart(int n) {
+        return first.plus(frequency.multipliedBy(n));
+    }
+
+    /**
+     * Gets the position of the specified occurrence of this series.
+     *
+     * @param occurrence an event created by this series for one of its occurrences.
+     * @return the position of the occurrence, counting from 0, or -1 if no occurrence of this
+     * series starts at the time the event starts.
+     */
+    public int getPosition(Event occurrence) {
+        LocalDateTime start = occurrence.getStartTime();
+        int n = firstPosition(count, s -> !s.isBefore(start));
+        return n < count && occurrenceStart(n).equals(start) ? n : -1;
+    }
+
+    /**
+     * Creates an event for the occurrence at the specified position. The event is not stored anywhere.
+     *
+     * @param n the position of an occurrence, counting from 0.
+     * @return a new event for the occurrence.
+     */
+    public Event createOccurrence(int n) {
+        LocalDateTime start = occurrenceStart(n);
+        Event occurrence = new Event(getName() + ": Event " + (n + 1), start, start.plus(duration));
+        occurrence.associateSeries(this);
+        return occurrence;
+    }
+
+    /**
+     * Records the specified event as the edited version of the occurrence at the specified position.
+     *
+     * @param n the position of an occurrence, counting from 0.
+     * @param e the event replacing the occurrence.
+     */
+    public void addOverride(int n, Event e) {
+        overrides.put(n, e);
+        addEvent(e);
+    }
+
+    /**
+     * Returns true if the occurrence at the specified position was edited.
+     *
+     * @param n the position of an occurrence, counting from 0.
+     * @return true if the occurrence has an override, otherwise false.
+     */
+    public boolean isOverridden(int n) {
+        return overrides.containsKey(n);
+    }
+
+    /**
+     * Gets the edited version of the occurrence at the specified position.
+     *
+     * @param n the position of an occurrence, counting from 0.
+     * @return the event replacing the occurrence, or null if it was not edited.
+     */
+    public Event getOverride(int n) {
+        return overrides.get(n);
+    }
+
+    /**
+     * Gets the edited occurrences of this series, by their position.
+     *
+     * @return the overrides of this series.
+     */
+    TreeMap<Integer, Event> getOverrides() {
+        return overrides;
+    }
+
+    /**
+     * Gets the events that were added to this series other than by editing an occurrence.
+     *
+     * @return a list of the added events.
+     */
+    ArrayList<Event> getAddedEvents() {
+        ArrayList<Event> added = new ArrayList<>();
+        for (Event e : super.getEvents()) {
+            if (!overrides.containsValue(e)) {
+                added.add(e);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Gets the occurrences that happen on any day between the specified dates (inclusive)
+     * and were not edited. Edited occurrences are stored in the calendar as ordinary events.
+     *
+     * @param from the first day of the range.
+     * @param to   the last day of the range.
+     * @return a list of new events for the occurrences in the range, ordered by start time.
+     */
+    public ArrayList<Event> getOccurrences(LocalDate from, LocalDate to) {
+        ArrayList<Event> occurrences = new ArrayList<>();
+        int n = firstPosition(count, start -> !start.plus(duration).toLocalDate().isBefore(from));
+        for (; n < count; n++) {
+            if (occurrenceStart(n).toLocalDate().isAfter(to)) {
+                break;
+            }
+            if (!isOverridden(n)) {
+                occurrences.add(createOccurrence(n));
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Gets all the events of this series: its occurrences in order (the edited ones and new events
+     * for the others), followed by any other events that were added to this series.
+     *
+     * @return the events of this series.
+     */
+    @Override
+    public Collection<Event> getEvents() {
+        ArrayList<Event> occurrences = new ArrayList<>();
+        for (int n = 0; n < count; n++) {
+            occurrences.add(isOverridden(n) ? overrides.get(n) : createOccurrence(n));
+        }
+        occurrences.addAll(getAddedEvents());
+        return occurrences;
+    }
+
+    /**
+     * Finds the first position below limit whose occurrence start satisfies the specified
+     * condition, assuming that once it holds it keeps holding for later positions.
+     *
+     * @return the first such position, or limit if there is none.
+     */
+    private int firstPosition(int limit, Predicate<LocalDateTime> condition) {
+        int low = 0;
+        int high = limit;
+        while (low < high) {
+            int mid = low + (high - low) / 2;
+            if (condition.test(occurrenceStart(mid))) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
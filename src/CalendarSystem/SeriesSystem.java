@@ -14,6 +14,8 @@ import java.util.Collection;
  */
 public class SeriesSystem implements Serializable {
 
+    private static final long serialVersionUID = 5636497896206445763L;
+
     /**
      * A list of series stored in this series system.
      */
@@ -35,6 +37,15 @@ public class SeriesSystem implements Serializable {
         }
     }
 
+    /**
+     * Stores the specified series read from file in this series system.
+     *
+     * @param s a series that is not stored in this series system.
+     */
+    void restoreSeries(Series s) {
+        mySeries.add(s);
+    }
+
     public ArrayList<Series> getSeries() {
         return mySeries;
     }
@@ -59,6 +70,57 @@ public class SeriesSystem implements Serializable {
         return newEvents;
     }
 
+    /**
+     * Builds a new RecurringSeries object using the given parameters and stores it in this
+     * series system. Unlike {@link #buildSeries}, no events are created: the occurrences
+     * are expanded when they are asked for.
+     *
+     * @param name  the name of the series.
+     * @param d     the duration of each event in the series.
+     * @param freq  duration between each event.
+     * @param num   the number of events in the series.
+     * @param first the dateTime of the first event in the series.
+     * @return the new series.
+     */
+    public RecurringSeries buildRecurringSeries(String name, Duration d, Period freq, int num, LocalDateTime first) {
+        RecurringSeries s = new RecurringSeries(name, first, d, freq, num);
+        mySeries.add(s);
+        return s;
+    }
+
+    /**
+     * Builds a new RecurringSeries object whose events start no later than the specified
+     * time and stores it in this series system.
+     *
+     * @param name  the name of the series.
+     * @param d     the duration of each event in the series.
+     * @param freq  duration between each event.
+     * @param first the dateTime of the first event in the series.
+     * @param until the latest dateTime an event in the series can start at.
+     * @return the new series.
+     */
+    public RecurringSeries buildRecurringSeries(String name, Duration d, Period freq, LocalDateTime first,
+                                                LocalDateTime until) {
+        RecurringSeries s = new RecurringSeries(name, first, d, freq, until);
+        mySeries.add(s);
+        return s;
+    }
+
+    /**
+     * Gets the series in this series system that are defined by a recurrence rule.
+     *
+     * @return a list of the recurring series.
+     */
+    public ArrayList<RecurringSeries> getRecurringSeries() {
+        ArrayList<RecurringSeries> recurring = new ArrayList<>();
+        for (Series s : mySeries) {
+            if (s instanceof RecurringSeries) {
+                recurring.add((RecurringSeries) s);
+            }
+        }
+        return recurring;
+    }
+
     /**
      * Adds the specified event to the specified series.
      *
@@ -0,0 +1,206 @@
+package CalendarSystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The usernames and passwords of the users, kept in a file with one "username,password" line per user.
+ * <p>
+ * The users are held in a hash map, so looking one up does not read the file again. Users are only
+ * ever appended to the file, so when it has grown since it was last read only the lines added are
+ * read; it is read again in full if it changes without growing. Adding a user locks the file and checks
+ * the lines added by others first, so two users cannot sign up with the same name, even from
+ * different programs. Stores on the same file in one program also share a lock taken before the
+ * file lock, which the whole program holds at once.
+ */
+public class UserStore {
+
+    /**
+     * The locks taken by the stores of this process before they lock a file, by its path.
+     */
+    private static final ConcurrentHashMap<Path, ReentrantLock> pathLocks = new ConcurrentHashMap<>();
+
+    /**
+     * The file the users are kept in.
+     */
+    private final Path path;
+
+    /**
+     * The password of each user read from the file, by username.
+     */
+    private final HashMap<String, String> users = new HashMap<>();
+
+    /**
+     * The position in the file after the last complete line read.
+     */
+    private long readUpTo;
+
+    /**
+     * The time the file was last modified when it was last read, or null if it has not been read.
+     */
+    private FileTime modified;
+
+    /**
+     * Creates a store of the users kept in the file at the specified path, which is created when the
+     * first user is added.
+     *
+     * @param path the path of the file.
+     */
+    public UserStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns true if there is a user with the specified name.
+     *
+     * @param username the name of a user.
+     * @return true if the user exists, otherwise false.
+     * @throws IOException if the file cannot be read.
+     */
+    public synchronized boolean contains(String username) throws IOException {
+        refresh();
+        return users.containsKey(username);
+    }
+
+    /**
+     * Returns true if there is a user with the specified name and password.
+     *
+     * @param username the name of a user.
+     * @param password the password given for the user.
+     * @return true if the password is the user's, otherwise false.
+     * @throws IOException if the file cannot be read.
+     */
+    public synchronized boolean authenticate(String username, String password) throws IOException {
+        refresh();
+        return password != null && password.equals(users.get(username));
+    }
+
+    /**
+     * Gets the number of users.
+     *
+     * @return the number of users.
+     * @throws IOException if the file cannot be read.
+     */
+    public synchronized int size() throws IOException {
+        refresh();
+        return users.size();
+    }
+
+    /**
+     * Adds a user with the specified name and password, unless there is already a user with the name.
+     *
+     * @param username the name of the new user, which must not contain a comma or line break.
+     * @param password the password of the new user, which must not contain a line break.
+     * @return true if the user was added, or false if the name is taken.
+     * @throws IOException if the file cannot be read or written.
+     */
+    public synchronized boolean addUser(String username, String password) throws IOException {
+        if (username.contains(",") || username.contains("\n") || username.contains("\r")
+                || password.contains("\n") || password.contains("\r")) {
+            throw new IllegalArgumentException("Usernames cannot contain commas or line breaks, "
+                    + "and passwords cannot contain line breaks.");
+        }
+        ReentrantLock pathLock = pathLocks.computeIfAbsent(path.toAbsolutePath().normalize(),
+                p -> new ReentrantLock());
+        pathLock.lock();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                read(channel);
+                if (users.containsKey(username)) {
+                    return false;
+                }
+                long size = channel.size();
+                String line = username + "," + password + "\n";
+                if (size > readUpTo) {
+                    line = "\n" + line; // end the unfinished last line first
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+                channel.position(size);
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                users.put(username, password);
+                readUpTo = channel.size();
+            } finally {
+                lock.release();
+            }
+        } finally {
+            pathLock.unlock();
+        }
+        modified = Files.getLastModifiedTime(path);
+        return true;
+    }
+
+    /**
+     * Reads the lines added to the file since it was last read, or the whole file if it was rewritten.
+     */
+    private void refresh() throws IOException {
+        FileTime time;
+        long size;
+        try {
+            time = Files.getLastModifiedTime(path);
+            size = Files.size(path);
+        } catch (NoSuchFileException ex) {
+            users.clear();
+            readUpTo = 0;
+            modified = null;
+            return;
+        }
+        if (time.equals(modified) && size == readUpTo) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            read(channel);
+        }
+        modified = time;
+    }
+
+    /**
+     * Reads the lines of the specified file after the last complete line read, starting again from the
+     * beginning if the file is now shorter. An unfinished last line is read, but read again next time.
+     */
+    private void read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < readUpTo || (size == readUpTo && modified != null
+                && !Files.getLastModifiedTime(path).equals(modified))) {
+            users.clear();
+            readUpTo = 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (size - readUpTo));
+        channel.position(readUpTo);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // read the lines added
+        }
+        byte[] bytes = buffer.array();
+        int lineStart = 0;
+        for (int i = 0; i <= buffer.position(); i++) {
+            if (i == buffer.position() || bytes[i] == '\n') {
+                String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                if (line.endsWith("\r")) {
+                    line = line.substring(0, line.length() - 1);
+                }
+                String[] login = line.split(",", 2);
+                if (login.length == 2) {
+                    users.put(login[0], login[1]);
+                }
+                if (i < buffer.position()) {
+                    lineStart = i + 1;
+                }
+            }
+        }
+        readUpTo += lineStart;
+    }
+}
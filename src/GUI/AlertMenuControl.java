@@ -15,7 +15,6 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public class AlertMenuControl extends Controller{
     @FXML private TableView<AlertSystemData> upcomingTableView;
@@ -41,10 +40,10 @@ public class AlertMenuControl extends Controller{
         ObservableList<AlertSystemData> upcomingAlertTableItems = FXCollections.observableArrayList();
 
         //add by running through alert system
-        Map<LocalDateTime, List<Alert>> dateAlertsMap = getCalendar().getMyAlerts().getDateAlertsMap();
-        Set<LocalDateTime> alertTimes = getCalendar().getMyAlerts().getCurrAlertTime();
-        for(LocalDateTime d: alertTimes){
-            List<Alert> alerts = dateAlertsMap.get(d);
+        Map<LocalDateTime, List<Alert>> upcomingAlerts =
+                getCalendar().getMyAlerts().getNextAlerts().descendingMap();
+        for(LocalDateTime d: upcomingAlerts.keySet()){
+            List<Alert> alerts = upcomingAlerts.get(d);
             for(Alert a: alerts){
                 upcomingAlertTableItems.add(new AlertSystemData(d, a.getName(), a.getMessage(), a.getAlertType()));
             }
@@ -118,7 +117,7 @@ public class AlertMenuControl extends Controller{
                     alertEditWindow.showAndWait();
                 }
                 refreshTables();
-                getCalendarManager().saveToFile();
+                getCalendarManager().saveChanges();
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -134,7 +133,7 @@ public class AlertMenuControl extends Controller{
         if (selected != null) {
             getCalendar().deleteAlert(selected);
             refreshTables();
-            getCalendarManager().saveToFile();
+            getCalendarManager().saveChanges();
         }
     }
 
@@ -2,6 +2,7 @@ package GUI;
 
 import CalendarSystem.CalendarManager;
 import CalendarSystem.Calendar;
+import CalendarSystem.UserStore;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
@@ -10,11 +11,17 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 public abstract class Controller {
 
+    /**
+     * The users who can log in, shared by every screen so they are only read from the file once.
+     */
+    private static final UserStore userStore = new UserStore(Paths.get("users.csv"));
+
     private CalendarManager calendarManager;
 
     private String theme = "GUI/Light.css";
@@ -35,6 +42,10 @@ public abstract class Controller {
         return calendarManager;
     }
 
+    protected UserStore getUserStore() {
+        return userStore;
+    }
+
     /*
      * Changes scene to display on the stage <item> is on to a new scene
      * specified by <fxmlFileName>. Then initializes the new scene controller
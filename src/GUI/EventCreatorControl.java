@@ -54,7 +54,7 @@ public class EventCreatorControl extends Controller {
         eventStartDate.setConverter(converter);
         eventEndDate.setConverter(converter);
         //Display all this calendar's memos
-        for (Memo m : getCalendar().getMyMemos().getMemos()) {
+        for (Memo m : getCalendar().getMyMemos()) {
             memoOptions.getItems().add(m.getNote());
         }
         //Initialize to single event creation
@@ -197,11 +197,9 @@ public class EventCreatorControl extends Controller {
             getCalendar().createMemo(eventsToAdd, selectedMemo);
             memoOptions.getItems().add(selectedMemo);
         } else if (memoOptions.getItems().contains(selectedMemo)) {
-            for (Memo m : getCalendar().getMyMemos().getMemos()) {
-                if (m.getNote().equals(selectedMemo)) {
-                    for (Event e : eventsToAdd) { e.getMemos().add(m); }
-                    break;
-                }
+            ArrayList<Memo> sameNote = getCalendar().findMemos(selectedMemo);
+            if (!sameNote.isEmpty()) {
+                getCalendar().addMemoToEvents(sameNote.get(0), eventsToAdd);
             }
         }
     }
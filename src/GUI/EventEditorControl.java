@@ -60,7 +60,7 @@ public class EventEditorControl extends Controller{
                     if (!tagInput.equals("")) {
                         changeEventTag(event, ogTag, tagInput);
                     }
-                    getCalendarManager().saveToFile();
+                    getCalendarManager().saveChanges();
                     eventTable.refresh();
                     noChangeMsg.setVisible(false);
                     successMsg.setVisible(true);
@@ -155,7 +155,7 @@ public class EventMenuController extends Controller {
             getCalendar().deleteEvent(e);
             eventTable.getItems().remove(e);
         }
-        getCalendarManager().saveToFile();
+        getCalendarManager().saveChanges();
     }
 
     @FXML private void postPoneSelectedEvent() {
@@ -219,9 +219,7 @@ public class EventMenuController extends Controller {
             eventTable.getItems().addAll(getCalendar().findEventsBySeries(userInput));
             eventTable.getItems().addAll(getCalendar().findEvent(userInput));
             eventTable.getItems().addAll(getCalendar().findEventByMemoNote(userInput));
-            if (getCalendar().getEvent(userInput) != null) {
-                eventTable.getItems().add(getCalendar().getEvent(userInput));
-            }
+            eventTable.getItems().addAll(getCalendar().getEvents(userInput));
             try {
                 eventTable.getItems().addAll(getCalendar().findEvent(LocalDate.parse(userInput,
                         DateTimeFormatter.ofPattern("dd/MM/yyyy"))));
@@ -258,7 +256,7 @@ public class EventMenuController extends Controller {
                     instructions.setText("Event Shared!\nWaiting on " + username + "'s response");
                     userInput.clear();
                 } else { instructions.setText(username + "'s account not found"); }
-            } catch (IOException | ClassNotFoundException ex) {
+            } catch (IOException ex) {
                 instructions.setText("An unexpected error has occured");
             }
         });
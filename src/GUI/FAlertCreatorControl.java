@@ -78,13 +78,13 @@ public class FAlertCreatorControl extends Controller {
             } else {
                 //valid alert inputs!!!
                 if (edit_Mode) {
-                    calendar.getMyAlerts().editFrequentAlert(alert, messageVal, durationVal);
+                    calendar.editFrequentAlert(alert, messageVal, durationVal);
                     edited = true;
                 }
                 else
                     calendar.addFrequentAlert(calendar.getEvent(eventNameVal), messageVal, durationVal);
 
-                getCalendarManager().saveToFile();
+                getCalendarManager().saveChanges();
 
                 // close the window
                 Stage stage = (Stage) submit.getScene().getWindow();
@@ -75,13 +75,13 @@ public class IAlertCreatorControl extends Controller {
 
             //create/edit the individual alert
             if (edit_Mode) {
-                calendar.getMyAlerts().editIndividualAlert(alert, messageVal, dateTimeVal);
+                calendar.editIndividualAlert(alert, messageVal, dateTimeVal);
                 edited = true;
             } else
                 calendar.addIndividualAlert(calendar.getEvent(eventNameVal), messageVal, dateTimeVal);
 
             try{
-                getCalendarManager().saveToFile();
+                getCalendarManager().saveChanges();
 
                 // close the window
                 Stage stage = (Stage) submit.getScene().getWindow();
@@ -1,23 +1,26 @@
 package GUI;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Scanner;
+import java.time.Duration;
+import java.time.LocalDateTime;
 
+import CalendarSystem.Alert;
 import CalendarSystem.CalendarManager;
 import javafx.stage.Stage;
 
 public class LoginControl extends Controller {
 
+    /**
+     * How long the user must stop making changes before they are saved.
+     */
+    private static final Duration SAVE_QUIET_PERIOD = Duration.ofSeconds(1);
+
     @FXML
     private Label errorIn;
     @FXML
@@ -36,40 +39,46 @@ public class LoginControl extends Controller {
 
     @FXML
     private void newUser() throws IOException {
-        FXMLLoader signUpLoader = setNewWindowAndGetLoader("UserCreatorScene.fxml",
-                (Stage) createNewUser.getScene().getWindow(), 900, 600);
-        UserCreatorControl signUpControl = signUpLoader.getController();
-        signUpControl.setUsernames(new ArrayList<>(getUsers().keySet()));
+        setNewWindowAndGetLoader("UserCreatorScene.fxml", (Stage) createNewUser.getScene().getWindow(), 900, 600);
     }
 
     @FXML
     private void login() throws ClassNotFoundException, IOException {
         String user = userInfo.getText();
         String pswd = passInfo.getText();
-        HashMap<String, String> users = getUsers();
-        if (users.containsKey(user)) {
-            if (users.get(user).equals(pswd)) {
-                CalendarManager cm = new CalendarManager("./user_data/" + user + "_");
-                setCalendarManager(cm);
-                cm.saveToFile();
-                setScreen("MainMenuScene.fxml", userInfo);
-            } else {
-                errorIn.setVisible(true);
-            }
+        if (getUserStore().authenticate(user, pswd)) {
+            CalendarManager cm = new CalendarManager("./user_data/" + user + "_");
+            setCalendarManager(cm);
+            cm.saveChanges();
+            cm.startBackgroundSaves(SAVE_QUIET_PERIOD);
+            cm.startAlertScheduler(this::showAlert);
+            // save the changes not written yet if the window is closed without logging out
+            ((Stage) userInfo.getScene().getWindow()).setOnHidden(event -> closeOnExit(cm));
+            setScreen("MainMenuScene.fxml", userInfo);
         } else {
             errorIn.setVisible(true);
         }
     }
 
-    private HashMap<String, String> getUsers() throws FileNotFoundException {
-        Scanner scanner = new Scanner(new FileInputStream("users.csv"));
-        String[] login;
-        HashMap<String, String> users = new HashMap<>();
-        while (scanner.hasNextLine()) {
-            login = scanner.nextLine().split(",");
-            users.put(login[0], login[1]);
+    private void closeOnExit(CalendarManager cm) {
+        cm.stopAlertScheduler();
+        try {
+            cm.close();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-        return users;
+    }
+
+    private void showAlert(Alert alert, LocalDateTime time) {
+        Platform.runLater(() -> {
+            Label alertMsg = new Label(alert.getName() + " at " + alert.getEventTime() + "\n\n" + alert.getMessage());
+            alertMsg.wrapTextProperty().setValue(true);
+            Button dismiss = new Button("Dismiss");
+            PopUp alertPopUp = new PopUp("Alert", getTheme());
+            dismiss.setOnAction(e -> alertPopUp.exit());
+            alertPopUp.getContent().addAll(alertMsg, dismiss);
+            alertPopUp.display();
+        });
     }
 
 }
@@ -9,11 +9,14 @@ import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
 import javafx.util.Duration;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 
 public class MainMenuControl extends Controller {
@@ -39,7 +42,10 @@ public class MainMenuControl extends Controller {
 
     @FXML
     private void logOut() throws IOException {
-        getCalendarManager().saveToFile();
+        getCalendarManager().stopAlertScheduler();
+        getCalendarManager().close();
+        // the manager is closed, so closing the window later must not save it again
+        ((Stage) logOutButton.getScene().getWindow()).setOnHidden(null);
         setScreen("LoginScene.fxml", logOutButton);
     }
 
@@ -78,16 +84,18 @@ public class MainMenuControl extends Controller {
         initThemeSwitch();
         try {
             displayInvites();
-            getCalendarManager().saveToFile();
+            getCalendarManager().saveChanges();
         } catch (IOException ex) {
             ex.printStackTrace();
         }
     }
 
-    private void displayInvites() {
+    private void displayInvites() throws IOException {
+        getCalendarManager().receiveInvites();
         ArrayList<Event> viewed = new ArrayList<>();
+        List<Event> events = getCalendar().getMyEvents();
         for (Event event : getCalendar().getEventInvites()) {
-            if (!getCalendar().getMyEvents().contains(event)) {
+            if (!events.contains(event)) {
                 Label newEventMsg = new Label("You've received a new event!\n\n" +
                         event.toString() + "\n\nAdd to calendar?");
                 newEventMsg.wrapTextProperty().setValue(true);
@@ -110,7 +118,7 @@ public class MainMenuControl extends Controller {
                 eventInvite.display();
             }
         }
-        getCalendar().getEventInvites().removeAll(viewed);
+        getCalendar().removeEventInvites(viewed);
     }
 
     private void initThemeSwitch() {
@@ -123,7 +131,8 @@ public class MainMenuControl extends Controller {
 
     private void initClock() {
         Timeline clock = new Timeline(new KeyFrame(Duration.ZERO, e -> {
-            LocalDateTime currentTime = LocalDateTime.now();
+            getCalendar().updateTime();
+            LocalDateTime currentTime = getCalendar().getLocalDateTime();
             sysClock.setText("Time: \n" + currentTime.getHour() + ":" +
                     currentTime.getMinute() + ":" + currentTime.getSecond());
             monthYearLabel.setText("\t" + currentTime.getMonth().toString() + " " + currentTime.getDayOfMonth()
@@ -138,10 +147,11 @@ public class MainMenuControl extends Controller {
         int currYear = LocalDateTime.now().getYear();
         int firstDayOfWeek = LocalDate.of(currYear, currMonth, 1).getDayOfWeek().getValue() % 7;
         LocalDate calCurrDay = LocalDate.of(currYear, currMonth, 1).minusDays(firstDayOfWeek);
+        Map<LocalDate, ArrayList<Event>> monthEvents = getCalendar().findEvents(calCurrDay, calCurrDay.plusWeeks(6));
         for (int w = 1; w < 7; w++) {
             for (int d = 0; d < 7; d++) {
                 VBox day = initMonthlyDayBox(d, w, calCurrDay);
-                addEventLabels(day, getCalendar().findEvent(calCurrDay));
+                addEventLabels(day, monthEvents.get(calCurrDay));
                 monthlyCalendar.getChildren().add(day);
                 calCurrDay = calCurrDay.plusDays(1L);
             }
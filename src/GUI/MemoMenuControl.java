@@ -55,7 +55,7 @@ public class MemoMenuControl extends Controller {
         //Populate memoTable
         memoContent.setCellValueFactory(new PropertyValueFactory<>("note"));
         ObservableList<Memo> memoTableItems = FXCollections.observableArrayList();
-        memoTableItems.addAll(getCalendar().getMyMemos().getMemos());
+        memoTableItems.addAll(getCalendar().getMyMemos());
         memoTable.setItems(memoTableItems);
         for (Event e : getCalendar().getMyEvents()) {
             events.getItems().add(e);
@@ -98,13 +98,13 @@ public class MemoMenuControl extends Controller {
         save.setOnAction(e -> {
             try {
                 if (!note.getText().equals("")) {
-                    memo.setNote(note.getText());
+                    getCalendar().changeMemoNote(memo, note.getText());
                 }
             } catch (NullPointerException nullp) {
             }
             editMemo.exit();
         });
-        getCalendarManager().saveToFile();
+        getCalendarManager().saveChanges();
         editMemo.display();
     }
 
@@ -115,7 +115,7 @@ public class MemoMenuControl extends Controller {
             getCalendar().deleteMemo(m);
             memoTable.getItems().remove(m);
         }
-        getCalendarManager().saveToFile();
+        getCalendarManager().saveChanges();
     }
 
     @FXML
@@ -141,12 +141,12 @@ public class MemoMenuControl extends Controller {
             List<Event> l = new ArrayList<>();
             l.add(events.getValue());
             successMsg.setVisible(true);
-            getCalendar().getMyMemos().createMemo(l, note);
+            getCalendar().createMemo(l, note);
             memoTable.getItems().clear();
-            memoTable.getItems().addAll(getCalendar().getMyMemos().getMemos());
+            memoTable.getItems().addAll(getCalendar().getMyMemos());
         }
 
-        getCalendarManager().saveToFile();
+        getCalendarManager().saveChanges();
 
 
     }
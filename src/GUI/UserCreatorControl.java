@@ -7,12 +7,9 @@ import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
 
 import java.io.IOException;
-import java.io.FileWriter;
-import java.util.ArrayList;
 
 public class UserCreatorControl extends Controller {
 
-    private ArrayList<String> users = new ArrayList<>();
     @FXML
     private Label errorIn;
     @FXML
@@ -26,8 +23,6 @@ public class UserCreatorControl extends Controller {
     @FXML
     private Button goToLogin;
 
-    protected void setUsernames(ArrayList<String> users) {this.users = users;}
-
     @FXML
     private void goBackToLogin() throws IOException {
         setScreen("LoginScene.fxml", goToLogin);
@@ -40,15 +35,14 @@ public class UserCreatorControl extends Controller {
         String password = passwordInput.getText();
         String password2 = passwordAgainInput.getText();
 
-        if (isValidUser(user) && !password.equals("") && password.equals(password2)) {
-
-            FileWriter writer = new FileWriter("users.csv", true);
-            writer.append(user);
-            writer.append(",");
-            writer.append(password);
-            writer.append("\n");
-            writer.flush();
-            writer.close();
+        if (isValidUser(user) && !password.equals("") && !password.contains("\n")
+                && password.equals(password2)) {
+            if (!getUserStore().addUser(user, password)) {
+                // another user signed up with the same name since it was checked
+                errorIn.setText("This username already exists!");
+                errorIn.setVisible(true);
+                return;
+            }
             errorIn.setVisible(false);
             success.setVisible(true);
 
@@ -61,11 +55,12 @@ public class UserCreatorControl extends Controller {
         }
     }
 
-    private boolean isValidUser(String username) {
-        if (users.contains(username)) {
+    private boolean isValidUser(String username) throws IOException {
+        if (getUserStore().contains(username)) {
             errorIn.setText("This username already exists!");
             return false;
-        } else if (username.equals("") || username.contains("_")){
+        } else if (username.equals("") || username.contains("_") || username.contains(",")
+                || username.contains("\n")) {
             errorIn.setText("Not a valid username!");
             return false;
         } else {
@@ -0,0 +1,732 @@
+package Server;
+
+import CalendarSystem.Alert;
+import CalendarSystem.Calendar;
+import CalendarSystem.CalendarManager;
+import CalendarSystem.Event;
+import CalendarSystem.FrequentAlert;
+import CalendarSystem.UserStore;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves the users' calendars as a JSON API over HTTP, so that many people can use them at once.
+ * Requests are authenticated with HTTP basic authentication against the users' passwords.
+ * <p>
+ * Each user's calendar manager stays open between requests, with its calendars in memory and its
+ * changes saved in the background, so a request does not read or write a whole calendar file. The
+ * managers of the {@link #MAX_RESIDENT_USERS} users who made requests most recently are kept open.
+ * Requests run on virtual threads when the Java runtime has them, and otherwise on a fixed pool.
+ * <p>
+ * Every request works on the calendar named by its "calendar" query parameter, or the default one:
+ * <pre>
+ *     GET    /calendars                      the names of the user's calendars
+ *     POST   /calendars                      {"name"} creates a calendar
+ *     GET    /events[?from=&amp;to=|?tag=]       all events, those on the dates (inclusive, at most
+ *                                            {@link #MAX_RANGE_DAYS} days), or with a tag
+ *     POST   /events                         {"name", "start", "end", "tag"?} adds an event
+ *     GET    /events/{id}                    an event
+ *     PUT    /events/{id}                    {"name"?, "start"?, "end"?, "tag"?} changes an event
+ *     DELETE /events/{id}                    deletes an event
+ *     POST   /events/{id}/alerts             {"message", "time"} or {"message", "every"} adds an alert
+ *     GET    /alerts                         the alerts still to come
+ *     POST   /share                          {"users": [...], "events": [ids]} shares events
+ *     GET    /invites                        receives and lists the events shared with the user
+ * </pre>
+ * Times are written as 2020-01-31T09:30, dates as 2020-01-31 and alert frequencies as PT15M.
+ *
+ * @see CalendarManager
+ */
+public class CalendarServer {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * The largest number of users whose calendar managers are kept open.
+     */
+    public static final int MAX_RESIDENT_USERS = 64;
+
+    /**
+     * How long a user must stop making changes before they are saved.
+     */
+    private static final Duration SAVE_QUIET_PERIOD = Duration.ofSeconds(1);
+
+    /**
+     * The largest number of days a request can ask for the events of.
+     */
+    public static final int MAX_RANGE_DAYS = 3660;
+
+    private static final int MAX_BODY_SIZE = 1024 * 1024;
+    private static final int BACKLOG = 256;
+
+    private static final Logger logger = Logger.getLogger(CalendarServer.class.getName());
+
+    static {
+        // the JDK server writes a response's headers and body separately, so with Nagle's algorithm on a
+        // kept-alive connection the body waits for the client's delayed acknowledgement of the headers
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final UserStore users;
+
+    /**
+     * The path the names of each user's files start with, before the username.
+     */
+    private final String userDataPath;
+
+    /**
+     * The sessions of the users who made requests, least recently used first.
+     */
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The sessions dropped from {@link #sessions} that may still be closing, by user. Both are guarded
+     * by the lock of sessions.
+     */
+    private final HashMap<String, Session> closing = new HashMap<>();
+
+    /**
+     * Creates a server of the calendars of the specified users, which is not started yet.
+     *
+     * @param address      the address to listen on; port 0 picks a free port.
+     * @param users        the users who can make requests.
+     * @param userDataPath the path each user's files start with, before the username.
+     * @throws IOException if the address cannot be listened on.
+     */
+    public CalendarServer(InetSocketAddress address, UserStore users, String userDataPath) throws IOException {
+        this.users = users;
+        this.userDataPath = userDataPath;
+        this.executor = newExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Starts answering requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops answering requests, waiting up to the specified number of seconds for requests being
+     * answered, then saves and closes every user's calendars.
+     *
+     * @param delay the longest time to wait for requests to finish, in seconds.
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delay, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        ArrayList<Session> open;
+        synchronized (sessions) {
+            open = new ArrayList<>(sessions.values());
+            sessions.clear();
+        }
+        for (Session session : open) {
+            session.close();
+        }
+    }
+
+    /**
+     * Makes an executor running each task on a new virtual thread if the Java runtime has them, or
+     * else on a pool of platform threads.
+     */
+    static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+            // no virtual threads before Java 21, or in Java 19 and 20 without preview features
+            int threads = Math.max(16, Runtime.getRuntime().availableProcessors() * 8);
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "calendar-server");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String user = authenticate(exchange);
+            if (user == null) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"calendar\"");
+                respond(exchange, 401, error("Unknown user or wrong password."));
+                return;
+            }
+            Map<String, String> query = query(exchange);
+            String calendarName = query.getOrDefault("calendar", "default");
+            Response response = null;
+            byte[] body = null;
+            while (response == null) {
+                Session session = session(user);
+                synchronized (session) {
+                    if (!session.closed) {
+                        response = route(exchange, session, calendarName, query);
+                        body = encode(response.body); // the body refers to the user's events
+                    }
+                }
+            }
+            send(exchange, response.status, body); // after releasing the session, however slow the client
+        } catch (IllegalArgumentException ex) {
+            respond(exchange, 400, error(ex.getMessage()));
+        } catch (Exception ex) {
+            logger.log(Level.SEVERE, "Cannot answer " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI() + ".", ex);
+            respond(exchange, 500, error("Internal error."));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers the specified request for the specified user's session, which is locked.
+     */
+    private Response route(HttpExchange exchange, Session session, String calendarName,
+                           Map<String, String> query) throws IOException, ClassNotFoundException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+        CalendarManager manager = session.manager();
+        if (path[0].equals("calendars") && path.length == 1) {
+            if (method.equals("GET")) {
+                return new Response(200, manager.getUserCalendars());
+            } else if (method.equals("POST")) {
+                String name = string(body(exchange), "name", true);
+                if (name.isEmpty() || name.contains(".") || name.contains(" ") || name.contains("/")) {
+                    throw new IllegalArgumentException("Invalid calendar name " + name + ".");
+                }
+                if (manager.getUserCalendars().contains(name)) {
+                    return new Response(409, error("Calendar " + name + " already exists."));
+                }
+                manager.createCalendar(name);
+                session.selected = name;
+                return new Response(201, manager.getUserCalendars());
+            }
+            return methodNotAllowed();
+        }
+        if (!session.select(calendarName)) {
+            return new Response(404, error("No calendar named " + calendarName + "."));
+        }
+        Calendar calendar = manager.getCalendar();
+        switch (path[0]) {
+            case "events":
+                if (path.length == 1) {
+                    if (method.equals("GET")) {
+                        return new Response(200, events(findEvents(calendar, query)));
+                    } else if (method.equals("POST")) {
+                        Map<String, Object> body = body(exchange);
+                        Event e = new Event(string(body, "name", true), time(body, "start", true),
+                                time(body, "end", true));
+                        checkTimes(e.getStartTime(), e.getEndTime());
+                        String tag = string(body, "tag", false);
+                        if (tag != null) {
+                            e.setTag(tag);
+                        }
+                        calendar.addEvent(e);
+                        manager.saveChanges();
+                        return new Response(201, event(e));
+                    }
+                    return methodNotAllowed();
+                }
+                Event e = calendar.getEvent(id(path[1]));
+                if (e == null) {
+                    return new Response(404, error("No event with id " + path[1] + "."));
+                }
+                if (path.length == 2) {
+                    switch (method) {
+                        case "GET":
+                            return new Response(200, event(e));
+                        case "PUT":
+                            update(calendar, e, body(exchange));
+                            manager.saveChanges();
+                            return new Response(200, event(e));
+                        case "DELETE":
+                            calendar.deleteEvent(e);
+                            manager.saveChanges();
+                            return new Response(204, null);
+                        default:
+                            return methodNotAllowed();
+                    }
+                } else if (path.length == 3 && path[2].equals("alerts")) {
+                    if (!method.equals("POST")) {
+                        return methodNotAllowed();
+                    }
+                    addAlert(calendar, e, body(exchange));
+                    manager.saveChanges();
+                    return new Response(201, alerts(calendar.getMyAlerts().getAlerts(e), calendar));
+                }
+                break;
+            case "alerts":
+                if (path.length == 1) {
+                    if (!method.equals("GET")) {
+                        return methodNotAllowed();
+                    }
+                    return new Response(200, alerts(calendar.getMyAlerts().getCurrAlerts(), calendar));
+                }
+                break;
+            case "share":
+                if (path.length == 1) {
+                    if (!method.equals("POST")) {
+                        return methodNotAllowed();
+                    }
+                    Map<String, Object> body = body(exchange);
+                    ArrayList<String> names = new ArrayList<>();
+                    for (Object name : list(body, "users")) {
+                        names.add(String.valueOf(name));
+                    }
+                    ArrayList<Event> shared = new ArrayList<>();
+                    for (Object id : list(body, "events")) {
+                        Event found = calendar.getEvent(id(String.valueOf(id)));
+                        if (found == null) {
+                            return new Response(404, error("No event with id " + id + "."));
+                        }
+                        shared.add(found);
+                    }
+                    return new Response(200, manager.shareEvents(names, shared));
+                }
+                break;
+            case "invites":
+                if (path.length == 1) {
+                    if (!method.equals("GET")) {
+                        return methodNotAllowed();
+                    }
+                    manager.receiveInvites();
+                    return new Response(200, events(calendar.getEventInvites()));
+                }
+                break;
+            default:
+                break;
+        }
+        return new Response(404, error("Not found."));
+    }
+
+    private static Collection<Event> findEvents(Calendar calendar, Map<String, String> query) {
+        if (query.containsKey("tag")) {
+            return calendar.findEvent(query.get("tag"));
+        } else if (query.containsKey("from") || query.containsKey("to")) {
+            LocalDate from = date(query.get("from"));
+            LocalDate to = query.containsKey("to") ? date(query.get("to")) : from;
+            if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+                throw new IllegalArgumentException("The dates cannot be more than " + MAX_RANGE_DAYS
+                        + " days apart.");
+            }
+            return calendar.findEventsBetween(from, to);
+        }
+        return calendar.getMyEvents();
+    }
+
+    private static void update(Calendar calendar, Event e, Map<String, Object> body) {
+        String name = string(body, "name", false);
+        String tag = string(body, "tag", false);
+        LocalDateTime start = time(body, "start", false);
+        LocalDateTime end = time(body, "end", false);
+        if (start != null || end != null) {
+            start = start == null ? e.getStartTime() : start;
+            end = end == null ? e.getEndTime() : end;
+            checkTimes(start, end);
+        }
+        if (name != null) {
+            calendar.changeEventName(e, name);
+        }
+        if (tag != null) {
+            calendar.changeEventTag(tag, e);
+        }
+        if (start != null) {
+            calendar.changeEventTime(e, start, end);
+        }
+    }
+
+    private static void addAlert(Calendar calendar, Event e, Map<String, Object> body) {
+        String message = string(body, "message", true);
+        if (body.containsKey("every")) {
+            Duration every;
+            try {
+                every = Duration.parse(string(body, "every", true));
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("Not a duration: " + body.get("every") + ".");
+            }
+            if (!FrequentAlert.isValidFrequentAlert(e.getStartTime(), LocalDateTime.now(calendar.getClock()), every)) {
+                throw new IllegalArgumentException("The alert would not go off before the event starts.");
+            }
+            calendar.addFrequentAlert(e, message, every);
+        } else {
+            calendar.addIndividualAlert(e, message, time(body, "time", true));
+        }
+    }
+
+    private static ArrayList<Map<String, Object>> events(Collection<Event> events) {
+        ArrayList<Map<String, Object>> list = new ArrayList<>(events.size());
+        for (Event e : events) {
+            list.add(event(e));
+        }
+        return list;
+    }
+
+    private static Map<String, Object> event(Event e) {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        map.put("id", e.getId());
+        map.put("name", e.getEventName());
+        map.put("start", e.getStartTime());
+        map.put("end", e.getEndTime());
+        map.put("tag", e.getTag());
+        return map;
+    }
+
+    private static ArrayList<Map<String, Object>> alerts(Collection<Alert> alerts, Calendar calendar) {
+        LocalDateTime now = LocalDateTime.now(calendar.getClock());
+        ArrayList<Map<String, Object>> list = new ArrayList<>();
+        if (alerts == null) {
+            return list;
+        }
+        for (Alert a : alerts) {
+            LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+            map.put("type", a.getAlertType());
+            map.put("name", a.getName());
+            map.put("message", a.getMessage());
+            map.put("eventTime", a.getEventTime());
+            map.put("next", a.nextTime(now));
+            list.add(map);
+        }
+        return list;
+    }
+
+    /**
+     * Gets the session of the specified user, closing the least recently used session if there are
+     * then too many.
+     */
+    private Session session(String user) {
+        Session session;
+        Session evicted = null;
+        synchronized (sessions) {
+            session = sessions.get(user);
+            if (session == null) {
+                // a session closing for the same user must be closed before its files are opened again
+                session = new Session(user, closing.get(user));
+                sessions.put(user, session);
+                if (sessions.size() > MAX_RESIDENT_USERS) {
+                    Iterator<Session> eldest = sessions.values().iterator();
+                    evicted = eldest.next();
+                    eldest.remove();
+                    closing.put(evicted.user, evicted);
+                }
+            }
+        }
+        if (evicted != null) {
+            // outside the lock, so other users' requests do not wait while the evicted calendars are saved
+            evicted.close();
+            synchronized (sessions) {
+                closing.remove(evicted.user, evicted);
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Gets the name of the user whose name and password the request carries, or null if it carries
+     * none or they do not match.
+     */
+    private String authenticate(HttpExchange exchange) throws IOException {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        int colon = credentials.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        String user = credentials.substring(0, colon);
+        if (user.isEmpty() || user.contains("/") || user.contains("_") || user.contains(".")) {
+            return null;
+        }
+        return users.authenticate(user, credentials.substring(colon + 1)) ? user : null;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        HashMap<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> body(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_SIZE + 1);
+        }
+        if (bytes.length > MAX_BODY_SIZE) {
+            throw new IllegalArgumentException("The request body is too large.");
+        }
+        Object body = Json.parse(new String(bytes, StandardCharsets.UTF_8));
+        if (!(body instanceof Map)) {
+            throw new IllegalArgumentException("The request body must be a JSON object.");
+        }
+        return (Map<String, Object>) body;
+    }
+
+    private static String string(Map<String, Object> body, String name, boolean required) {
+        Object value = body.get(name);
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException("Missing " + name + ".");
+            }
+            return null;
+        }
+        return value.toString();
+    }
+
+    private static LocalDateTime time(Map<String, Object> body, String name, boolean required) {
+        String value = string(body, name, required);
+        try {
+            return value == null ? null : LocalDateTime.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Not a time: " + value + ".");
+        }
+    }
+
+    private static LocalDate date(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException | NullPointerException ex) {
+            throw new IllegalArgumentException("Not a date: " + value + ".");
+        }
+    }
+
+    private static List<?> list(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Missing list " + name + ".");
+        }
+        return (List<?>) value;
+    }
+
+    private static long id(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Not an event id: " + value + ".");
+        }
+    }
+
+    private static void checkTimes(LocalDateTime start, LocalDateTime end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("An event cannot end before it starts.");
+        }
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("error", message);
+    }
+
+    private static Response methodNotAllowed() {
+        return new Response(405, error("Method not allowed."));
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        send(exchange, status, encode(body));
+    }
+
+    /**
+     * Writes the specified body as JSON.
+     *
+     * @return the bytes of the JSON text, or null if there is no body.
+     */
+    private static byte[] encode(Object body) {
+        return body == null ? null : Json.write(body).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * A user's open calendar manager and the name of their selected calendar. Requests for a user hold
+     * the lock of their session.
+     */
+    private class Session {
+        private final String user;
+        private CalendarManager manager;
+        private String selected = "default";
+        private boolean closed;
+
+        /**
+         * The session this one replaced after it was dropped, which must be released before the user's
+         * files are opened again, or null.
+         */
+        private Session previous;
+
+        /**
+         * True once this session is closed and its changes are saved.
+         */
+        private boolean released;
+
+        private Session(String user, Session previous) {
+            this.user = user;
+            this.previous = previous;
+        }
+
+        /**
+         * Gets the user's calendar manager, opening it on the first request.
+         */
+        private CalendarManager manager() throws IOException, ClassNotFoundException {
+            if (manager == null) {
+                awaitPrevious();
+                manager = new CalendarManager(userDataPath + user + "_");
+                manager.startBackgroundSaves(SAVE_QUIET_PERIOD);
+            }
+            return manager;
+        }
+
+        /**
+         * Selects the user's calendar with the specified name, unless it does not exist.
+         *
+         * @return true if the calendar is selected, or false if the user has no calendar with the name.
+         */
+        private boolean select(String name) throws IOException, ClassNotFoundException {
+            if (name.equals(selected)) {
+                return true;
+            }
+            if (!manager().getUserCalendars().contains(name)) {
+                return false;
+            }
+            manager.selectCalendar(name);
+            selected = name;
+            return true;
+        }
+
+        private synchronized void close() {
+            closed = true;
+            if (manager != null) {
+                try {
+                    manager.close();
+                } catch (IOException ex) {
+                    logger.log(Level.SEVERE, "Cannot save the calendars of " + user + ".", ex);
+                }
+                manager = null;
+            } else {
+                awaitPrevious(); // whoever waits for this session waits for the one it replaced too
+            }
+            released = true;
+            notifyAll();
+        }
+
+        /**
+         * Waits until the session this one replaced is released.
+         */
+        private void awaitPrevious() {
+            if (previous == null) {
+                return;
+            }
+            boolean interrupted = false;
+            synchronized (previous) {
+                while (!previous.released) {
+                    try {
+                        previous.wait();
+                    } catch (InterruptedException ex) {
+                        interrupted = true; // the files must not be opened twice, so keep waiting
+                    }
+                }
+            }
+            previous = null;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * The status and JSON body of a response.
+     */
+    private static class Response {
+        private final int status;
+        private final Object body;
+
+        private Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Starts a server of the calendars of the users in users.csv and user_data in the working directory.
+     *
+     * @param args the port to listen on and the address to listen on; by default 8080 on localhost.
+     * @throws IOException if the address cannot be listened on.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String host = args.length > 1 ? args[1] : "localhost";
+        CalendarServer server = new CalendarServer(new InetSocketAddress(host, port),
+                new UserStore(Paths.get("users.csv")), "./user_data/");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "calendar-server-shutdown"));
+        server.start();
+        System.out.println("Serving calendars on http://" + host + ":" + server.getPort() + "/");
+    }
+}
@@ -0,0 +1,94 @@
+package CLI;
+
+import CalendarSystem.CalendarManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandInterpreterTest {
+
+    @TempDir
+    Path dir;
+
+    private CalendarManager manager;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private CommandInterpreter interpreter;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        manager = new CalendarManager(dir.resolve("user_").toString());
+        interpreter = new CommandInterpreter(manager, new PrintStream(output, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        manager.close();
+    }
+
+    /**
+     * Runs the specified command and gets the lines it printed.
+     */
+    private List<String> run(String line) throws IOException {
+        output.reset();
+        interpreter.execute(line);
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    @Test
+    public void wordsAreSplitOnSpacesOutsideQuotes() {
+        assertEquals(List.of("add", "Team lunch", "a\"b\\c\nd"),
+                CommandInterpreter.tokenize("add \"Team lunch\" \"a\\\"b\\\\c\\nd\"  # a comment"));
+        assertTrue(CommandInterpreter.tokenize("   # only a comment").isEmpty());
+        String word = "say \"hi\"\\\n";
+        assertEquals(List.of(word), CommandInterpreter.tokenize(CommandInterpreter.quote(word)));
+    }
+
+    @Test
+    public void eventsAreAddedChangedAndListed() throws IOException {
+        String id = run("add \"Team lunch\" 2020-04-06T12:00 2020-04-06T13:00 food").get(0);
+        run("add Trip 2020-04-07T09:00 2020-04-09T18:00");
+        run("rename " + id + " Lunch");
+        assertEquals(List.of(id + "\tLunch\t2020-04-06T12:00\t2020-04-06T13:00\tfood"), run("find food"));
+        assertEquals(1, run("list 2020-04-08").size());
+        assertEquals(2, run("list 2020-04-06 2020-04-09").size());
+
+        run("delete " + id);
+        assertEquals(1, run("list").size());
+        assertThrows(IllegalArgumentException.class, () -> run("delete " + id));
+    }
+
+    @Test
+    public void invalidCommandsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> run("launch"));
+        assertThrows(IllegalArgumentException.class, () -> run("add Lunch"));
+        assertThrows(IllegalArgumentException.class, () -> run("add Lunch 2020-04-06T13:00 2020-04-06T12:00"));
+        assertThrows(IllegalArgumentException.class, () -> run("add Lunch noon 2020-04-06T12:00"));
+        assertThrows(IllegalArgumentException.class, () -> run("create bad.name"));
+    }
+
+    @Test
+    public void exportedEventsAreImportedByRunningTheFile() throws IOException {
+        run("add \"Quote \\\" here\" 2020-04-06T12:00 2020-04-06T13:00 food");
+        Path file = dir.resolve("events.txt");
+        run("export " + file);
+        run("create copy");
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            run(line);
+        }
+        assertEquals(List.of("default", "copy"), run("calendars"));
+        assertTrue(run("list").get(0).endsWith("\tQuote \" here\t2020-04-06T12:00\t2020-04-06T13:00\tfood"));
+    }
+}
@@ -0,0 +1,86 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AlertSchedulerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 4, 6, 12, 0);
+
+    private final AlertSystem alerts = new AlertSystem();
+    private final ArrayList<LocalDateTime> delivered = new ArrayList<>();
+    private final AlertScheduler scheduler = new AlertScheduler(alerts, (alert, time) -> delivered.add(time),
+            Duration.ofMinutes(1), Duration.ofHours(1));
+    private final Event event = new Event("Demo", NOW.plusDays(1), NOW.plusDays(1).plusHours(1));
+
+    @Test
+    public void alertsAreDeliveredOnceWhenDue() {
+        alerts.addIndividualAlert(event, "first", NOW.plusMinutes(10));
+        alerts.addIndividualAlert(event, "second", NOW.plusMinutes(90));
+        scheduler.advance(NOW);
+        scheduler.advance(NOW.plusMinutes(1));
+        assertEquals(1, scheduler.getPendingCount()); // the second is beyond the lookahead
+
+        scheduler.advance(NOW.plusMinutes(9));
+        assertTrue(delivered.isEmpty());
+        scheduler.advance(NOW.plusMinutes(10));
+        assertEquals(List.of(NOW.plusMinutes(10)), delivered);
+
+        scheduler.advance(NOW.plusHours(3)); // jumping past the whole wheel delivers the rest
+        assertEquals(List.of(NOW.plusMinutes(10), NOW.plusMinutes(90)), delivered);
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void alertsAddedOrDeletedAfterStartingAreFollowed() {
+        scheduler.advance(NOW);
+        alerts.addIndividualAlert(event, "added", NOW.plusMinutes(5));
+        alerts.addIndividualAlert(event, "deleted", NOW.plusMinutes(6));
+        for (Alert a : alerts.getAllAlerts()) {
+            if (a.getMessage().equals("deleted")) {
+                alerts.deleteAlert(a);
+            }
+        }
+        scheduler.advance(NOW.plusMinutes(30));
+        assertEquals(List.of(NOW.plusMinutes(5)), delivered);
+    }
+
+    @Test
+    public void alertsEditedWhileTheWheelIsFilledAreDeliveredAtTheirLastTime() throws Exception {
+        alerts.addIndividualAlert(event, "moved", NOW.plusMinutes(30));
+        IndividualAlert alert = (IndividualAlert) alerts.getAllAlerts().iterator().next();
+        scheduler.advance(NOW);
+        Thread editor = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                alerts.editIndividualAlert(alert, "moved", NOW.plusMinutes(30 + i % 20));
+            }
+        });
+        editor.start();
+        while (editor.isAlive()) {
+            scheduler.advance(NOW); // reads the edited alert's times while they change
+        }
+        editor.join();
+        scheduler.advance(NOW.plusHours(2));
+        assertEquals(List.of(NOW.plusMinutes(30 + 9_999 % 20)), delivered);
+    }
+
+    @Test
+    public void frequentAlertsAreExpandedAsTimeMovesOn() {
+        alerts.setClock(Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        alerts.addFrequentAlert(event, "every 6 hours", Duration.ofHours(6));
+        scheduler.advance(NOW);
+        for (int minutes = 0; minutes <= 24 * 60; minutes += 30) {
+            scheduler.advance(NOW.plusMinutes(minutes));
+        }
+        assertEquals(List.of(NOW, NOW.plusHours(6), NOW.plusHours(12), NOW.plusHours(18)), delivered);
+    }
+}
@@ -0,0 +1,100 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AlertSystemTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 4, 6, 12, 0);
+
+    private final AlertSystem alerts = new AlertSystem();
+    private final Event event = new Event("Demo", NOW.plusDays(2), NOW.plusDays(2).plusHours(1));
+
+    private static Clock at(LocalDateTime time) {
+        return Clock.fixed(time.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    @Test
+    public void frequentAlertsCountFromTheTimeOfTheClock() {
+        alerts.setClock(at(NOW));
+        alerts.addFrequentAlert(event, "daily", Duration.ofDays(1));
+        FrequentAlert alert = (FrequentAlert) alerts.getAllAlerts().iterator().next();
+        assertEquals(List.of(NOW, NOW.plusDays(1)), alert.getTimes());
+
+        alerts.setClock(at(NOW.plusDays(1)));
+        alerts.editFrequentAlert(alert, "twice a day", Duration.ofHours(12));
+        assertEquals(List.of(NOW.plusDays(1), NOW.plusDays(1).plusHours(12)), alert.getTimes());
+    }
+
+    @Test
+    public void currentAlertsDependOnTheClock() {
+        alerts.addIndividualAlert(event, "soon", NOW.plusDays(1));
+        alerts.setClock(at(NOW));
+        assertEquals(1, alerts.getCurrAlerts().size());
+        alerts.setClock(at(NOW.plusDays(3)));
+        assertTrue(alerts.getCurrAlerts().isEmpty());
+    }
+
+    @Test
+    public void upcomingAlertsIncludeFrequentAlertsWithinTheLookahead() {
+        alerts.setClock(at(NOW));
+        alerts.addFrequentAlert(event, "every 6 hours", Duration.ofHours(6));
+        alerts.addIndividualAlert(event, "once", NOW.plusHours(1));
+        Set<LocalDateTime> times = alerts.getUpcomingAlerts(Duration.ofHours(13)).keySet();
+        assertEquals(Set.of(NOW, NOW.plusHours(1), NOW.plusHours(6), NOW.plusHours(12)), times);
+    }
+
+    @Test
+    public void nextAlertsIncludeEveryLaterIndividualAlertAndTheNextTimeOfFrequentAlerts() {
+        Event later = new Event("Trip", NOW.plusDays(30), NOW.plusDays(31));
+        alerts.setClock(at(NOW));
+        alerts.addFrequentAlert(later, "every day", Duration.ofDays(1));
+        alerts.addIndividualAlert(later, "in ten days", NOW.plusDays(10));
+        alerts.addIndividualAlert(event, "past", NOW.minusHours(1));
+        assertEquals(Set.of(NOW, NOW.plusDays(10)), alerts.getNextAlerts().keySet());
+        assertEquals(List.of(NOW.plusDays(10), NOW), List.copyOf(alerts.getCurrAlertTime()));
+    }
+
+    @Test
+    public void aCalendarTakesItsTimeFromItsClock() {
+        Calendar calendar = new Calendar(at(NOW));
+        Event e = new Event("Demo", NOW.plusHours(1), NOW.plusHours(2));
+        calendar.addEvent(e);
+        assertEquals(NOW, calendar.getLocalDateTime());
+        assertEquals("future", e.getStatus());
+
+        calendar.setClock(at(NOW.plusHours(3)));
+        assertEquals(NOW.plusHours(3), calendar.getLocalDateTime());
+        assertEquals("past", e.getStatus());
+        assertEquals(calendar.getClock(), calendar.getMyAlerts().getClock());
+    }
+
+    @Test
+    public void gettersReturnSnapshotsThatCannotBeChanged() {
+        alerts.addIndividualAlert(event, "soon", NOW.plusDays(1));
+        Map<LocalDateTime, List<Alert>> byTime = alerts.getDateAlertsMap();
+        Map<Event, List<Alert>> byEvent = alerts.getEventAlertsMap();
+        NavigableSet<LocalDateTime> times = alerts.getAllAlertTimes();
+        assertThrows(UnsupportedOperationException.class, () -> byEvent.get(event).clear());
+        assertThrows(UnsupportedOperationException.class, () -> byTime.clear());
+        assertThrows(UnsupportedOperationException.class, () -> times.add(NOW));
+
+        alerts.addIndividualAlert(event, "later", NOW.plusDays(1).plusHours(1));
+        assertEquals(1, byEvent.get(event).size());
+        assertEquals(Set.of(NOW.plusDays(1)), times);
+        assertEquals(2, alerts.getEventAlerts(event).size());
+        assertTrue(alerts.getAlerts(new Event("Other", NOW, NOW.plusHours(1))).isEmpty());
+    }
+}
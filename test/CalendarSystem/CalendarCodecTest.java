@@ -0,0 +1,93 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CalendarCodecTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 4, 6, 12, 0);
+
+    static byte[] encode(Calendar calendar) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CalendarCodec.write(calendar, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    static Calendar decode(byte[] bytes) throws IOException {
+        return CalendarCodec.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void aCalendarReadsBackAsItWasWritten() throws IOException {
+        Calendar calendar = new Calendar(Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        Event lunch = new Event("Lunch", NOW.plusHours(1), NOW.plusHours(2));
+        Event review = new Event("Review", NOW.plusDays(1), NOW.plusDays(1).plusHours(1));
+        calendar.addEvent(lunch);
+        calendar.addEvent(review);
+        calendar.changeEventTag("food", lunch);
+        calendar.createMemo(List.of(lunch, review), "bring notes");
+        calendar.addIndividualAlert(review, "prepare", NOW.plusHours(20));
+        calendar.addFrequentAlert(review, "hourly", Duration.ofHours(1));
+        calendar.addSeries("Pair", new ArrayList<>(List.of(lunch, review)));
+        calendar.addRecurringSeries("Gym", Duration.ofHours(1), Period.ofDays(1), 10, NOW.plusDays(2));
+        calendar.addEventNotification(new Event("Shared", NOW.plusDays(3), NOW.plusDays(3).plusHours(1)));
+
+        Calendar read = decode(encode(calendar));
+
+        assertEquals(calendar.toString(), read.toString());
+        Event readLunch = read.getEvent(lunch.getId());
+        Event readReview = read.getEvent(review.getId());
+        assertEquals("food", readLunch.getTag());
+        assertEquals(List.of(readLunch), read.findEvent("food"));
+        assertEquals(List.of(readLunch, readReview), read.findEventByMemoNote("bring notes"));
+        assertEquals(2, read.getMyAlerts().getAlerts(readReview).size());
+        assertEquals(List.of(readLunch, readReview), new ArrayList<>(read.findEventsBySeries("Pair")));
+        assertEquals(10, read.findEventsBySeries("Gym").size());
+        assertEquals(1, read.getEventInvites().size());
+        assertEquals(calendar.getLastEventId(), read.getLastEventId());
+        assertEquals(calendar.getLocalDateTime(), read.getLocalDateTime());
+    }
+
+    @Test
+    public void alertsNotReadYetAreWrittenBackUnchanged() throws IOException {
+        Calendar calendar = new Calendar();
+        Event review = new Event("Review", NOW.plusDays(1), NOW.plusDays(1).plusHours(1));
+        calendar.addEvent(review);
+        calendar.addIndividualAlert(review, "prepare", NOW.plusHours(20));
+
+        Calendar twice = decode(encode(decode(encode(calendar))));
+        assertEquals(1, twice.getMyAlerts().getAlerts(twice.getEvent(review.getId())).size());
+    }
+
+    @Test
+    public void theFileStartsWithTheMagicNumber() throws IOException {
+        byte[] bytes = encode(new Calendar());
+        assertTrue(CalendarCodec.isBinary(ByteBuffer.wrap(bytes).getInt()));
+    }
+
+    @Test
+    public void aTruncatedFileIsRejected() throws IOException {
+        Calendar calendar = new Calendar();
+        calendar.addEvent(new Event("Lunch", NOW, NOW.plusHours(1)));
+        byte[] bytes = encode(calendar);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+        assertThrows(IOException.class, () -> decode(truncated));
+    }
+}
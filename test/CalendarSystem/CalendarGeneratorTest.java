@@ -0,0 +1,47 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CalendarGeneratorTest {
+
+    private static final Clock CLOCK = Clock.fixed(LocalDateTime.of(2020, 6, 1, 0, 0).toInstant(ZoneOffset.UTC),
+            ZoneOffset.UTC);
+
+    private static List<String> describe(Calendar calendar) {
+        return calendar.getMyEvents().stream()
+                .map(e -> e + " " + e.getTag() + " " + e.getMemos().size() + " " + e.getSeries().size())
+                .toList();
+    }
+
+    @Test
+    public void theSameSeedGivesTheSameCalendar() {
+        assertEquals(describe(new CalendarGenerator(1).generate(CLOCK)),
+                describe(new CalendarGenerator(1).generate(CLOCK)));
+        assertNotEquals(describe(new CalendarGenerator(1).generate(CLOCK)),
+                describe(new CalendarGenerator(2).generate(CLOCK)));
+    }
+
+    @Test
+    public void eventsAreSpreadOverTheRange() {
+        CalendarGenerator generator = new CalendarGenerator(3);
+        generator.setEvents(200);
+        generator.setSeries(0, 2);
+        generator.setRange(LocalDateTime.of(2021, 1, 1, 0, 0), 30);
+        Calendar calendar = generator.generate(CLOCK);
+        assertEquals(200, calendar.getEventCount());
+        for (Event e : calendar.getMyEvents()) {
+            assertTrue(!e.getStartTime().isBefore(generator.getStart())
+                    && e.getStartTime().isBefore(generator.getStart().plusDays(generator.getDays())));
+            assertTrue(e.getEndTime().isAfter(e.getStartTime()));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CalendarJournalTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 4, 6, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    private List<String> notes(Event e) {
+        return e.getMemos().stream().map(Memo::getNote).toList();
+    }
+
+    @Test
+    public void replayingTheJournalRestoresTheChanges() throws IOException {
+        Path journalPath = dir.resolve("cal.journal");
+        Calendar calendar = new Calendar();
+        Event kept = new Event("Kept", NOW, NOW.plusHours(1));
+        Event deleted = new Event("Deleted", NOW, NOW.plusHours(1));
+        calendar.addEvent(kept);
+        calendar.addEvent(deleted);
+        byte[] saved = CalendarCodecTest.encode(calendar);
+
+        try (CalendarJournal journal = new CalendarJournal(journalPath)) {
+            journal.attach(calendar);
+            calendar.changeEventTime(kept, NOW.plusDays(1), NOW.plusDays(1).plusHours(2));
+            calendar.changeEventTag("work", kept);
+            calendar.createMemo(List.of(kept), "agenda");
+            calendar.addIndividualAlert(kept, "soon", NOW.plusHours(20));
+            calendar.deleteEvent(deleted);
+            calendar.addEvent(new Event("Added", NOW.plusDays(2), NOW.plusDays(2).plusHours(1)));
+        }
+
+        Calendar restored = CalendarCodecTest.decode(saved);
+        assertTrue(CalendarJournal.replay(restored, journalPath) > 0);
+        assertEquals(calendar.toString(), restored.toString());
+        Event restoredKept = restored.getEvent(kept.getId());
+        assertEquals(NOW.plusDays(1), restoredKept.getStartTime());
+        assertEquals("work", restoredKept.getTag());
+        assertEquals(List.of("agenda"), notes(restoredKept));
+        assertEquals(1, restored.getMyAlerts().getAlerts(restoredKept).size());
+        assertNull(restored.getEvent(deleted.getId()));
+    }
+
+    @Test
+    public void aRecordCutShortIsDroppedAndTheRestReplayed() throws IOException {
+        Path journalPath = dir.resolve("cal.journal");
+        Calendar calendar = new Calendar();
+        byte[] saved = CalendarCodecTest.encode(calendar);
+        try (CalendarJournal journal = new CalendarJournal(journalPath)) {
+            journal.attach(calendar);
+            calendar.addEvent(new Event("First", NOW, NOW.plusHours(1)));
+            calendar.addEvent(new Event("Second", NOW, NOW.plusHours(1)));
+        }
+        long size = Files.size(journalPath);
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        Calendar restored = CalendarCodecTest.decode(saved);
+        assertEquals(1, CalendarJournal.replay(restored, journalPath));
+        assertEquals(List.of("First"), restored.getEventNames());
+        assertTrue(Files.size(journalPath) < size - 3);
+    }
+
+    /**
+     * A calendar saved with Java serialization by an older version, then changed: memos created after
+     * it is read must not reuse the id numbers of the memos read from it, which journal records refer to.
+     */
+    @Test
+    public void memosCreatedAfterReadingALegacyFileGetNewIds() throws Exception {
+        Calendar legacy = new Calendar();
+        Event a = new Event("A", NOW, NOW.plusHours(1));
+        Event b = new Event("B", NOW.plusDays(1), NOW.plusDays(1).plusHours(1));
+        legacy.addEvent(a);
+        legacy.addEvent(b);
+        legacy.createMemo(List.of(a), "old memo one");
+        legacy.createMemo(List.of(b), "old memo two");
+        String userPath = dir.resolve("user_").toString();
+        try (OutputStream file = Files.newOutputStream(Path.of(userPath + "default.ser"));
+             ObjectOutputStream out = new ObjectOutputStream(file)) {
+            out.writeObject(legacy);
+        }
+        resetMemoCount(); // as in a new run of the program
+
+        CalendarManager manager = new CalendarManager(userPath);
+        Calendar calendar = manager.getCalendar();
+        Event readB = calendar.getEvents("B").get(0);
+        calendar.createMemo(List.of(readB), "NEW memo");
+        manager.saveChanges();
+        manager.close();
+
+        Calendar reread = new CalendarManager(userPath).getCalendar();
+        assertEquals(List.of("old memo one"), notes(reread.getEvents("A").get(0)));
+        assertEquals(List.of("old memo two", "NEW memo"), notes(reread.getEvents("B").get(0)));
+        byte[] saved = Files.readAllBytes(Path.of(userPath + "default.ser"));
+        assertTrue(CalendarCodec.isBinary(ByteBuffer.wrap(saved).getInt()));
+    }
+
+    private static void resetMemoCount() throws ReflectiveOperationException {
+        Field count = Memo.class.getDeclaredField("numOfMemos");
+        count.setAccessible(true);
+        count.setInt(null, 0);
+    }
+}
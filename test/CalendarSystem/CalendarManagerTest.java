@@ -0,0 +1,161 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CalendarManagerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 4, 6, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    private String userPath(String user) {
+        return dir.resolve(user + "_").toString();
+    }
+
+    private static void addEvent(CalendarManager manager, String name) throws IOException {
+        manager.getCalendar().addEvent(new Event(name, NOW, NOW.plusHours(1)));
+        manager.saveChanges();
+    }
+
+    @Test
+    public void changesSavedInTheBackgroundWaitForTheQuietPeriod() throws Exception {
+        CalendarManager manager = new CalendarManager(userPath("user"));
+        manager.startBackgroundSaves(Duration.ofHours(1));
+        addEvent(manager, "Lunch");
+        addEvent(manager, "Dinner");
+        assertTrue(manager.getPendingChanges() > 0);
+        assertTrue(new CalendarManager(userPath("user")).getCalendar().getEventNames().isEmpty());
+
+        manager.close();
+        assertEquals(0, manager.getPendingChanges());
+        assertEquals(List.of("Lunch", "Dinner"), new CalendarManager(userPath("user")).getCalendar().getEventNames());
+    }
+
+    @Test
+    public void changesAreWrittenOnceNoChangeIsMadeForTheQuietPeriod() throws Exception {
+        CalendarManager manager = new CalendarManager(userPath("user"));
+        manager.startBackgroundSaves(Duration.ofMillis(20));
+        addEvent(manager, "Lunch");
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (manager.getPendingChanges() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, manager.getPendingChanges());
+        assertEquals(List.of("Lunch"), new CalendarManager(userPath("user")).getCalendar().getEventNames());
+        manager.close();
+    }
+
+    @Test
+    public void changesAreWrittenAtOnceWithoutBackgroundSaves() throws Exception {
+        CalendarManager manager = new CalendarManager(userPath("user"));
+        addEvent(manager, "Lunch");
+        assertEquals(0, manager.getPendingChanges());
+        assertEquals(List.of("Lunch"), new CalendarManager(userPath("user")).getCalendar().getEventNames());
+        manager.close();
+    }
+
+    @Test
+    public void closingAgainDoesNotOverwriteLaterChanges() throws Exception {
+        CalendarManager manager = new CalendarManager(userPath("user"));
+        addEvent(manager, "Lunch");
+        manager.close();
+
+        CalendarManager other = new CalendarManager(userPath("user"));
+        addEvent(other, "Dinner");
+        other.saveToFile(); // writes the whole calendar, so its journal no longer holds "Dinner"
+        other.close();
+
+        manager.close();
+        assertEquals(List.of("Lunch", "Dinner"), new CalendarManager(userPath("user")).getCalendar().getEventNames());
+    }
+
+    @Test
+    public void calendarsSwitchedAwayFromAreKeptInMemory() throws Exception {
+        CalendarManager manager = new CalendarManager(userPath("user"));
+        Calendar original = manager.getCalendar();
+        manager.createCalendar("work");
+        assertEquals(1, manager.getCachedCalendars().size());
+
+        manager.selectCalendar("default");
+        assertSame(original, manager.getCalendar());
+        assertEquals(1, manager.getCachedCalendars().size()); // now "work"
+
+        manager.setCacheLimits(0, 0);
+        assertTrue(manager.getCachedCalendars().isEmpty());
+        manager.close();
+    }
+
+    @Test
+    public void aKeptCalendarIsReadAgainIfItsFilesChanged() throws Exception {
+        CalendarManager manager = new CalendarManager(userPath("user"));
+        Calendar original = manager.getCalendar();
+        manager.createCalendar("work");
+
+        CalendarManager other = new CalendarManager(userPath("user"));
+        addEvent(other, "Lunch");
+        other.close();
+
+        manager.selectCalendar("default");
+        assertNotSame(original, manager.getCalendar());
+        assertEquals(List.of("Lunch"), manager.getCalendar().getEventNames());
+        manager.close();
+    }
+
+    @Test
+    public void calendarsCreatedByAnotherManagerAreListed() throws Exception {
+        CalendarManager manager = new CalendarManager(userPath("user"));
+        assertEquals(List.of("default"), manager.getUserCalendars());
+
+        CalendarManager other = new CalendarManager(userPath("user"));
+        other.createCalendar("work");
+        other.close();
+        assertEquals(List.of("default", "work"), manager.getUserCalendars());
+
+        manager.createCalendar("home");
+        assertEquals(List.of("default", "work", "home"), new CalendarManager(userPath("user")).getUserCalendars());
+        manager.close();
+    }
+
+    @Test
+    public void sharedEventsAreReceivedFromTheInboxInTheSameDirectory() throws Exception {
+        CalendarManager alice = new CalendarManager(userPath("alice"));
+        CalendarManager bob = new CalendarManager(userPath("bob"));
+        CalendarManager carol = new CalendarManager(userPath("carol"));
+        Event lunch = new Event("Lunch", NOW, NOW.plusHours(1));
+        Event review = new Event("Review", NOW.plusDays(1), NOW.plusDays(1).plusHours(1));
+
+        assertTrue(alice.shareEvent("bob", lunch));
+        assertFalse(alice.shareEvent("nobody", lunch));
+        LinkedHashMap<String, CalendarManager.ShareResult> results =
+                alice.shareEvents(List.of("bob", "nobody", "carol"), List.of(review));
+        assertEquals(List.of("bob", "nobody", "carol"), new ArrayList<>(results.keySet()));
+        assertEquals(CalendarManager.ShareResult.SHARED, results.get("bob"));
+        assertEquals(CalendarManager.ShareResult.NO_SUCH_USER, results.get("nobody"));
+        assertEquals(CalendarManager.ShareResult.SHARED, results.get("carol"));
+
+        assertEquals(2, bob.receiveInvites());
+        assertEquals(List.of("Lunch", "Review"),
+                bob.getCalendar().getEventInvites().stream().map(Event::getEventName).toList());
+        assertEquals(0, bob.receiveInvites());
+        assertEquals(1, carol.receiveInvites());
+        alice.close();
+        bob.close();
+        carol.close();
+    }
+}
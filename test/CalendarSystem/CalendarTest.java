@@ -0,0 +1,240 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CalendarTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 4, 6, 12, 0);
+
+    private final Calendar calendar = new Calendar(Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+    private Event add(String name, LocalDateTime start, LocalDateTime end) {
+        Event e = new Event(name, start, end);
+        calendar.addEvent(e);
+        return e;
+    }
+
+    @Test
+    public void findEventsListsEachDayOfTheRange() {
+        Event lunch = add("Lunch", NOW, NOW.plusHours(1));
+        Event trip = add("Trip", NOW.plusDays(1), NOW.plusDays(3));
+        add("Later", NOW.plusDays(10), NOW.plusDays(10).plusHours(1));
+
+        LocalDate today = NOW.toLocalDate();
+        TreeMap<LocalDate, ArrayList<Event>> days = calendar.findEvents(today, today.plusDays(5));
+
+        assertEquals(5, days.size());
+        assertEquals(List.of(lunch), days.get(today));
+        assertEquals(List.of(trip), days.get(today.plusDays(1)));
+        assertEquals(List.of(trip), days.get(today.plusDays(3)));
+        assertTrue(days.get(today.plusDays(4)).isEmpty());
+        assertEquals(days.get(today), calendar.findEvent(today));
+    }
+
+    @Test
+    public void findEventsBetweenListsEachEventOnce() {
+        Event lunch = add("Lunch", NOW, NOW.plusHours(1));
+        Event trip = add("Trip", NOW.plusDays(1), NOW.plusDays(3));
+        add("Later", NOW.plusDays(10), NOW.plusDays(10).plusHours(1));
+        calendar.addRecurringSeries("Gym", Duration.ofHours(1), Period.ofDays(7), 3, NOW.plusDays(2));
+
+        LocalDate today = NOW.toLocalDate();
+        ArrayList<Event> found = calendar.findEventsBetween(today, today.plusDays(5));
+        assertEquals(3, found.size());
+        assertEquals(List.of(lunch, trip), found.subList(0, 2));
+        assertEquals(NOW.plusDays(2), found.get(2).getStartTime());
+        assertTrue(calendar.findEventsBetween(today.plusDays(5), today).isEmpty());
+    }
+
+    @Test
+    public void findEventsOfAnEmptyRangeIsEmpty() {
+        add("Lunch", NOW, NOW.plusHours(1));
+        assertTrue(calendar.findEvents(NOW.toLocalDate(), NOW.toLocalDate()).isEmpty());
+    }
+
+    @Test
+    public void findEventByTagFollowsTagChangesAndDeletions() {
+        Event a = add("A", NOW, NOW.plusHours(1));
+        Event b = add("B", NOW, NOW.plusHours(1));
+        calendar.changeEventTag("work", a);
+        calendar.changeEventTag("work", b);
+        assertEquals(List.of(a, b), calendar.findEvent("work"));
+
+        calendar.changeEventTag("home", a);
+        calendar.deleteEvent(b);
+        assertTrue(calendar.findEvent("work").isEmpty());
+        assertEquals(List.of(a), calendar.findEvent("home"));
+    }
+
+    @Test
+    public void eventsGetUniqueIdsAndAreFoundByIdAndName() {
+        Event first = add("Standup", NOW, NOW.plusMinutes(15));
+        Event second = add("Standup", NOW.plusDays(1), NOW.plusDays(1).plusMinutes(15));
+        assertTrue(first.getId() > 0);
+        assertNotEquals(first.getId(), second.getId());
+        assertSame(second, calendar.getEvent(second.getId()));
+        assertSame(first, calendar.getEvent("Standup"));
+        assertEquals(List.of(first, second), calendar.getEvents("Standup"));
+
+        calendar.changeEventName(first, "Retro");
+        assertSame(second, calendar.getEvent("Standup"));
+        assertSame(first, calendar.getEvent("Retro"));
+
+        calendar.deleteEvent(second);
+        assertNull(calendar.getEvent(second.getId()));
+        assertNull(calendar.getEvent("Standup"));
+    }
+
+    @Test
+    public void anEventWhoseIdIsTakenGetsANewOne() {
+        Event stored = add("A", NOW, NOW.plusHours(1));
+        Event copy = new Event("B", NOW, NOW.plusHours(1));
+        copy.setId(stored.getId());
+        calendar.addEvent(copy);
+        assertNotEquals(stored.getId(), copy.getId());
+        assertSame(stored, calendar.getEvent(stored.getId()));
+        assertSame(copy, calendar.getEvent(copy.getId()));
+    }
+
+    @Test
+    public void eventsArePastCurrentOrFutureByTheCalendarTime() {
+        Event past = add("Past", NOW.minusDays(2), NOW.minusDays(1));
+        Event current = add("Current", NOW.minusHours(1), NOW.plusHours(1));
+        Event future = add("Future", NOW.plusDays(1), NOW.plusDays(2));
+        assertEquals(List.of(past), calendar.getPastEvents());
+        assertEquals(List.of(current), calendar.getCurrentEvents());
+        assertEquals(List.of(future), calendar.getFutureEvents());
+        assertEquals("ongoing", current.getStatus());
+
+        calendar.setTime(NOW.plusDays(1).plusHours(1));
+        assertEquals(List.of(past, current), calendar.getPastEvents());
+        assertEquals(List.of(future), calendar.getCurrentEvents());
+        assertTrue(calendar.getFutureEvents().isEmpty());
+        assertEquals("past", current.getStatus());
+        assertEquals("ongoing", future.getStatus());
+    }
+
+    @Test
+    public void occurrencesOfRecurringSeriesAreOnlyFoundByDate() {
+        RecurringSeries series = calendar.addRecurringSeries("Gym", Duration.ofHours(1), Period.ofDays(1), 5,
+                NOW.plusDays(1));
+        LocalDate day = NOW.toLocalDate().plusDays(2);
+        ArrayList<Event> found = calendar.findEvent(day);
+        assertEquals(1, found.size());
+        assertEquals(NOW.plusDays(2), found.get(0).getStartTime());
+        assertTrue(calendar.getFutureEvents().isEmpty());
+        assertEquals(0, calendar.getEventCount());
+        assertEquals(5, series.getCount());
+    }
+
+    @Test
+    public void occurrencesMustBeStoredBeforeTheyChange() {
+        calendar.addRecurringSeries("Gym", Duration.ofHours(1), Period.ofDays(1), 5, NOW.plusDays(1));
+        LocalDate day = NOW.toLocalDate().plusDays(2);
+        Event occurrence = calendar.findEvent(day).get(0);
+        assertThrows(IllegalArgumentException.class, () -> calendar.deleteEvent(occurrence));
+        assertThrows(IllegalArgumentException.class,
+                () -> calendar.changeEventTime(occurrence, NOW, NOW.plusHours(1)));
+        assertThrows(IllegalArgumentException.class, () -> calendar.changeEventName(occurrence, "Run"));
+
+        Event stored = calendar.editOccurrence(occurrence);
+        assertTrue(stored.getId() > 0);
+        assertSame(stored, calendar.editOccurrence(calendar.findEvent(day).get(0)));
+        calendar.changeEventTime(stored, NOW.plusDays(3), NOW.plusDays(3).plusHours(1));
+        assertTrue(calendar.findEvent(day).isEmpty());
+        assertEquals(2, calendar.findEvent(day.plusDays(1)).size());
+
+        calendar.deleteEvent(stored);
+        assertEquals(1, calendar.findEvent(day.plusDays(1)).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> calendar.editOccurrence(new Event("Other", NOW, NOW.plusHours(1))));
+    }
+
+    @Test
+    public void memosAreReturnedAsSnapshots() {
+        Event a = add("A", NOW, NOW.plusHours(1));
+        calendar.createMemo(List.of(a), "agenda");
+        List<Memo> memos = calendar.getMyMemos();
+        assertThrows(UnsupportedOperationException.class, memos::clear);
+        calendar.createMemo(List.of(a), "notes");
+        assertEquals(1, memos.size());
+        assertEquals(2, calendar.getMyMemos().size());
+        assertEquals(List.of(a), calendar.findEvent(calendar.findMemos("notes").get(0)));
+        assertEquals(List.of(a), calendar.findEventByMemoNote("agenda"));
+    }
+
+    @Test
+    public void queriesRunWhileChangesAreMadeSeeWholeChanges() throws Exception {
+        int writes = 2000;
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                readers.add(pool.submit(() -> {
+                    LocalDate today = NOW.toLocalDate();
+                    while (!done.get()) {
+                        for (Event e : calendar.findEventsBetween(today, today.plusDays(30))) {
+                            assertNotNull(e.getEventName());
+                        }
+                        calendar.findEvents(today, today.plusDays(3));
+                        for (Event e : calendar.findEvent("work")) {
+                            assertEquals("work", e.getTag()); // tagged once, in the change that indexed it
+                        }
+                        calendar.getEvents("Moving");
+                        calendar.findEventByMemoNote("note");
+                        calendar.getFutureEvents();
+                    }
+                    return null;
+                }));
+            }
+            // the writer is not kept waiting by readers that keep overlapping, since the lock is fair
+            Future<?> writer = pool.submit(() -> {
+                for (int i = 0; i < writes; i++) {
+                    LocalDateTime start = NOW.plusHours(i % 500);
+                    Event e = add("Moving", start, start.plusHours(1));
+                    calendar.changeEventTag("work", e);
+                    calendar.createMemo(List.of(e), "note");
+                    calendar.changeEventTime(e, start.plusDays(1), start.plusDays(1).plusHours(2));
+                    if (i % 2 == 0) {
+                        calendar.deleteEvent(e);
+                    }
+                }
+                return null;
+            });
+            writer.get(60, TimeUnit.SECONDS);
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            done.set(true);
+            pool.shutdownNow();
+        }
+        assertEquals(writes / 2, calendar.getEventCount());
+        assertEquals(writes / 2, calendar.findEvent("work").size());
+    }
+}
@@ -0,0 +1,107 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventColumnsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 4, 6, 12, 0);
+
+    private final Random random = new Random(7);
+
+    private List<Event> randomEvents(int count) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // whole minutes, so that many events share a start time
+            LocalDateTime start = NOW.plusMinutes(15L * random.nextInt(4 * 24 * 40));
+            events.add(new Event("E" + i, start, start.plusMinutes(1 + random.nextInt(60 * 24 * 4))));
+        }
+        return events;
+    }
+
+    /**
+     * Finds the events happening on some day between the specified dates by looking at every event.
+     */
+    private static List<Event> bruteForce(List<Event> events, LocalDate from, LocalDate to) {
+        List<Event> found = new ArrayList<>();
+        for (Event e : events) {
+            if (!e.getStartTime().toLocalDate().isAfter(to) && !e.getEndTime().toLocalDate().isBefore(from)) {
+                found.add(e);
+            }
+        }
+        found.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime())); // stable, like the columns
+        return found;
+    }
+
+    private void assertAgreesWithBruteForce(EventColumns columns, List<Event> events) {
+        assertEquals(events.size(), columns.size());
+        for (int i = 0; i < 100; i++) {
+            LocalDate from = NOW.toLocalDate().plusDays(random.nextInt(50) - 5);
+            LocalDate to = from.plusDays(random.nextInt(7));
+            assertEquals(bruteForce(events, from, to), columns.findOverlapping(from, to));
+        }
+        LocalDateTime time = NOW.plusDays(20);
+        List<Event> after = new ArrayList<>();
+        for (Event e : bruteForce(events, LocalDate.MIN, LocalDate.MAX)) {
+            if (e.getStartTime().isAfter(time)) {
+                after.add(e);
+            }
+        }
+        assertEquals(after, columns.findStartingAfter(time));
+    }
+
+    @Test
+    public void eventsAddedOneAtATimeAreFoundAsByBruteForce() {
+        List<Event> events = randomEvents(500);
+        EventColumns columns = new EventColumns();
+        events.forEach(columns::add);
+        assertAgreesWithBruteForce(columns, events);
+    }
+
+    @Test
+    public void eventsBuiltAtOnceAreFoundAsByBruteForce() {
+        List<Event> events = randomEvents(500);
+        EventColumns columns = new EventColumns();
+        columns.build(events);
+        assertAgreesWithBruteForce(columns, events);
+
+        Event added = new Event("Added", NOW, NOW.plusHours(1));
+        columns.add(added);
+        events.add(added);
+        assertAgreesWithBruteForce(columns, events);
+    }
+
+    @Test
+    public void removedEventsAreNoLongerFound() {
+        List<Event> events = randomEvents(200);
+        EventColumns columns = new EventColumns();
+        columns.build(events);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(columns.remove(events.remove(random.nextInt(events.size()))));
+        }
+        assertFalse(columns.remove(new Event("Other", NOW, NOW.plusHours(1))));
+        assertAgreesWithBruteForce(columns, events);
+    }
+
+    @Test
+    public void countsAreOfTheEventsStartingInAndScannedForARange() {
+        EventColumns columns = new EventColumns();
+        columns.build(List.of(new Event("Long", NOW.minusDays(10), NOW.plusDays(1)),
+                new Event("Short", NOW, NOW.plusHours(1)),
+                new Event("Tomorrow", NOW.plusDays(1), NOW.plusDays(1).plusHours(1))));
+        LocalDate today = NOW.toLocalDate();
+        assertEquals(1, columns.countStarting(today, today));
+        assertEquals(2, columns.countScanned(today, today));
+        assertEquals(List.of("Long", "Short"),
+                columns.findOverlapping(today, today).stream().map(Event::getEventName).toList());
+    }
+}
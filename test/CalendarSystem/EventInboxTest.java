@@ -0,0 +1,108 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventInboxTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 4, 6, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    private static List<String> names(List<Event> events) {
+        return events.stream().map(Event::getEventName).toList();
+    }
+
+    @Test
+    public void deliveredEventsAreReadUntilAcknowledged() throws IOException {
+        EventInbox inbox = new EventInbox(dir.resolve("user_invites.inbox"));
+        assertTrue(inbox.read().isEmpty());
+        Event lunch = new Event("Lunch", NOW, NOW.plusHours(1));
+        lunch.setTag("food");
+        inbox.deliver(lunch);
+        inbox.deliver(List.of(new Event("Review", NOW.plusDays(1), NOW.plusDays(1).plusHours(1)),
+                new Event("Retro", NOW.plusDays(2), NOW.plusDays(2).plusHours(1))));
+
+        ArrayList<Event> read = inbox.read();
+        assertEquals(List.of("Lunch", "Review", "Retro"), names(read));
+        assertEquals("food", read.get(0).getTag());
+        assertEquals(NOW.plusHours(1), read.get(0).getEndTime());
+        assertEquals(3, inbox.read().size());
+
+        inbox.deliver(new Event("Late", NOW, NOW.plusHours(1)));
+        inbox.acknowledge();
+        assertEquals(List.of("Late"), names(inbox.read()));
+    }
+
+    @Test
+    public void recordsAfterADamagedOneAreSkipped() throws IOException {
+        Path path = dir.resolve("user_invites.inbox");
+        EventInbox inbox = new EventInbox(path);
+        inbox.deliver(new Event("Kept", NOW, NOW.plusHours(1)));
+        Files.write(path, new byte[]{0, 0, 0, 9, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+        assertEquals(List.of("Kept"), names(inbox.read()));
+    }
+
+    @Test
+    public void eventsDeliveredAfterADamagedRecordAreReadAndKept() throws IOException {
+        Path path = dir.resolve("user_invites.inbox");
+        EventInbox inbox = new EventInbox(path);
+        inbox.deliver(new Event("Kept", NOW, NOW.plusHours(1)));
+        Files.write(path, new byte[]{0, 0, 0, 9, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+        assertEquals(List.of("Kept"), names(inbox.read()));
+
+        inbox.deliver(new Event("New", NOW, NOW.plusHours(1)));
+        inbox.acknowledge();
+        assertEquals(List.of("New"), names(inbox.read()));
+
+        inbox.deliver(new Event("Later", NOW, NOW.plusHours(1)));
+        inbox.acknowledge();
+        assertEquals(List.of("Later"), names(inbox.read()));
+    }
+
+    @Test
+    public void threadsDeliveringAtOnceToTheSameInboxDoNotFail() throws Exception {
+        Path path = dir.resolve("user_invites.inbox");
+        int threads = 8;
+        int deliveries = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int sender = t;
+                done.add(pool.submit(() -> {
+                    EventInbox inbox = new EventInbox(path); // one per sender, as each share opens its own
+                    for (int i = 0; i < deliveries; i++) {
+                        inbox.deliver(new Event(sender + "-" + i, NOW, NOW.plusHours(1)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : done) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<String> received = names(new EventInbox(path).read());
+        assertEquals(threads * deliveries, received.size());
+        assertEquals(threads * deliveries, new HashSet<>(received).size());
+    }
+}
@@ -0,0 +1,65 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventIntervalTreeTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Test
+    public void findsTheSameEventsAsAScan() {
+        Random random = new Random(1);
+        EventIntervalTree tree = new EventIntervalTree();
+        ArrayList<Event> events = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Event e = randomEvent(random, i);
+            events.add(e);
+            tree.add(e);
+        }
+        for (int i = 0; i < 500; i++) {
+            Event removed = events.remove(random.nextInt(events.size()));
+            assertTrue(tree.remove(removed));
+        }
+        assertEquals(events.size(), tree.size());
+        for (int i = 0; i < 200; i++) {
+            LocalDate from = BASE.toLocalDate().plusDays(random.nextInt(400));
+            LocalDate to = from.plusDays(random.nextInt(10));
+            assertEquals(scan(events, from, to), new HashSet<>(tree.findOverlapping(from, to)));
+        }
+    }
+
+    @Test
+    public void removingAnEventNotInTheTreeChangesNothing() {
+        EventIntervalTree tree = new EventIntervalTree();
+        Event stored = new Event("stored", BASE, BASE.plusHours(1));
+        tree.add(stored);
+        assertFalse(tree.remove(new Event("stored", BASE, BASE.plusHours(1))));
+        assertEquals(1, tree.size());
+    }
+
+    private static Event randomEvent(Random random, int i) {
+        LocalDateTime start = BASE.plusMinutes(random.nextInt(365 * 24 * 60));
+        long minutes = random.nextInt(10) == 0 ? random.nextInt(30 * 24 * 60) : random.nextInt(180);
+        return new Event("Event " + i, start, start.plusMinutes(minutes));
+    }
+
+    private static HashSet<Event> scan(ArrayList<Event> events, LocalDate from, LocalDate to) {
+        HashSet<Event> found = new HashSet<>();
+        for (Event e : events) {
+            if (!e.getStartTime().toLocalDate().isAfter(to) && !e.getEndTime().toLocalDate().isBefore(from)) {
+                found.add(e);
+            }
+        }
+        return found;
+    }
+}
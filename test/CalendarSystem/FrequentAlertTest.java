@@ -0,0 +1,44 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrequentAlertTest {
+
+    private static final LocalDateTime EVENT = LocalDateTime.of(2020, 1, 10, 9, 0);
+    private static final LocalDateTime SET_AT = LocalDateTime.of(2020, 1, 7, 12, 0);
+
+    private final FrequentAlert daily = new FrequentAlert(EVENT, "Launch", "soon", Duration.ofDays(1), SET_AT);
+
+    @Test
+    public void timesAreEveryFrequencyBeforeTheEventFromWhenItWasSet() {
+        assertEquals(List.of(EVENT.minusDays(3), EVENT.minusDays(2), EVENT.minusDays(1)), daily.getTimes());
+    }
+
+    @Test
+    public void timesInARangeAreComputedWithoutListingTheOthers() {
+        assertEquals(List.of(EVENT.minusDays(2)), daily.getTimes(EVENT.minusDays(2), EVENT.minusDays(1)));
+        assertTrue(daily.getTimes(EVENT, EVENT.plusDays(5)).isEmpty());
+        assertTrue(daily.getTimes(EVENT.minusDays(1), EVENT.minusDays(2)).isEmpty());
+    }
+
+    @Test
+    public void nextTimeIsTheFirstTimeAtOrAfterTheGivenTime() {
+        assertEquals(EVENT.minusDays(3), daily.nextTime(SET_AT.minusDays(5)));
+        assertEquals(EVENT.minusDays(1), daily.nextTime(EVENT.minusDays(1).minusMinutes(1)));
+        assertNull(daily.nextTime(EVENT.minusHours(1)));
+    }
+
+    @Test
+    public void changingTheFrequencyCountsFromTheTimeOfTheChange() {
+        daily.changeFrequency(Duration.ofHours(12), EVENT.minusDays(1));
+        assertEquals(List.of(EVENT.minusDays(1), EVENT.minusHours(12)), daily.getTimes());
+    }
+}
@@ -0,0 +1,103 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedEventStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 4, 6, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    private static List<Long> ids(Collection<? extends Object> events) {
+        List<Long> ids = new ArrayList<>();
+        for (Object e : events) {
+            ids.add(e instanceof EventView ? ((EventView) e).getId() : ((Event) e).getId());
+        }
+        return ids;
+    }
+
+    private MappedEventStore store(Calendar calendar) throws IOException {
+        Path path = dir.resolve("archive.events");
+        MappedEventStore.write(path, calendar.getMyEvents());
+        return MappedEventStore.open(path);
+    }
+
+    @Test
+    public void eventsAreReadBackAsTheyWereWritten() throws IOException {
+        Calendar calendar = new Calendar();
+        Event later = new Event("Later", NOW.plusDays(1), NOW.plusDays(1).plusHours(1));
+        Event lunch = new Event("Lunch", NOW.withNano(500), NOW.plusHours(1));
+        calendar.addEvent(later);
+        calendar.addEvent(lunch);
+        calendar.changeEventTag("food", lunch);
+        calendar.createMemo(List.of(lunch), "book a table");
+
+        try (MappedEventStore store = store(calendar)) {
+            assertEquals(2, store.size());
+            EventView view = store.getMyEvents().get(0);
+            assertEquals(lunch.getId(), view.getId());
+            assertEquals("Lunch", view.getEventName());
+            assertEquals(NOW.withNano(500), view.getStartTime());
+            assertEquals("food", view.getTag());
+            assertTrue(view.hadMemos());
+            assertFalse(view.wasInSeries());
+            assertEquals(view, store.getEvent(lunch.getId()));
+            assertNull(store.getEvent(-1));
+            assertEquals(List.of(later.getId()), ids(store.getEvents("Later")));
+            assertEquals(List.of(lunch.getId()), ids(store.findEvent("food")));
+            assertTrue(store.findEvent("none").isEmpty());
+        }
+    }
+
+    @Test
+    public void queriesAgreeWithTheCalendarTheEventsCameFrom() throws IOException {
+        Random random = new Random(42);
+        Calendar calendar = new Calendar();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime start = NOW.plusMinutes(random.nextInt(60 * 24 * 60));
+            calendar.addEvent(new Event("E" + i, start, start.plusMinutes(1 + random.nextInt(60 * 24 * 3))));
+        }
+
+        try (MappedEventStore store = store(calendar)) {
+            for (int i = 0; i < 50; i++) {
+                LocalDate from = NOW.toLocalDate().plusDays(random.nextInt(70) - 5);
+                LocalDate to = from.plusDays(random.nextInt(10));
+                assertEquals(sorted(calendar.findEvent(from)), ids(store.findEvent(from)));
+                assertEquals(calendar.findEvents(from, to).keySet(), store.findEvents(from, to).keySet());
+                calendar.findEvents(from, to).forEach((date, events) ->
+                        assertEquals(sorted(events), ids(store.findEvents(from, to).get(date))));
+
+                LocalDateTime time = NOW.plusMinutes(random.nextInt(60 * 24 * 60));
+                calendar.setTime(time);
+                assertEquals(sorted(calendar.getFutureEvents()), ids(store.getFutureEvents(time)));
+                assertEquals(sorted(calendar.getPastEvents()), ids(store.getPastEvents(time)));
+                assertEquals(sorted(calendar.getCurrentEvents()), ids(store.getCurrentEvents(time)));
+            }
+        }
+    }
+
+    /**
+     * Gets the ids of the specified events ordered by start time, as the store orders them.
+     */
+    private static List<Long> sorted(Collection<Event> events) {
+        ArrayList<Event> copy = new ArrayList<>(events);
+        copy.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+        return ids(copy);
+    }
+}
@@ -0,0 +1,50 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemoSystemTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 4, 6, 12, 0);
+
+    private final MemoSystem memos = new MemoSystem();
+    private final Event a = new Event("A", NOW, NOW.plusHours(1));
+    private final Event b = new Event("B", NOW, NOW.plusHours(1));
+
+    @Test
+    public void memosAreFoundByEventAndByNote() {
+        Memo memo = memos.createMemo(List.of(a, b), "bring slides");
+        assertEquals(List.of(a, b), memos.getEvents(memo));
+        assertEquals(List.of(memo), memos.findMemos("bring slides"));
+        assertEquals(List.of(memo), a.getMemos());
+
+        memos.removeMemoFromEvent(memo, a);
+        assertEquals(List.of(b), memos.getEvents(memo));
+        assertTrue(a.getMemos().isEmpty());
+    }
+
+    @Test
+    public void changingANoteMovesTheMemoInTheNoteIndex() {
+        Memo memo = memos.createMemo(List.of(a), "old");
+        memos.changeMemoNote(memo, "new");
+        assertTrue(memos.findMemos("old").isEmpty());
+        assertEquals(List.of(memo), memos.findMemos("new"));
+    }
+
+    @Test
+    public void deletingAMemoRemovesItFromItsEvents() {
+        Memo memo = memos.createMemo(List.of(a, b), "note");
+        memos.deleteMemo(memo);
+        assertFalse(memos.contains(memo));
+        assertTrue(memos.findMemos("note").isEmpty());
+        assertTrue(memos.getEvents(memo).isEmpty());
+        assertTrue(a.getMemos().isEmpty());
+        assertTrue(b.getMemos().isEmpty());
+    }
+}
@@ -0,0 +1,62 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecurringSeriesTest {
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2020, 1, 6, 9, 0);
+
+    private final RecurringSeries weekly =
+            new RecurringSeries("Standup", FIRST, Duration.ofMinutes(30), Period.ofWeeks(1), 10);
+
+    @Test
+    public void occurrencesInARangeAreExpandedFromTheRule() {
+        ArrayList<Event> found = weekly.getOccurrences(FIRST.toLocalDate().plusDays(6), FIRST.toLocalDate().plusDays(14));
+        assertEquals(2, found.size());
+        assertEquals(FIRST.plusWeeks(1), found.get(0).getStartTime());
+        assertEquals(FIRST.plusWeeks(2).plusMinutes(30), found.get(1).getEndTime());
+        assertEquals("Standup: Event 2", found.get(0).getEventName());
+        assertTrue(weekly.getOccurrences(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31)).isEmpty());
+    }
+
+    @Test
+    public void seriesUntilATimeCountsTheOccurrencesStartingByThen() {
+        RecurringSeries daily = new RecurringSeries("Daily", FIRST, Duration.ofHours(1), Period.ofDays(1),
+                FIRST.plusDays(30));
+        assertEquals(31, daily.getCount());
+    }
+
+    @Test
+    public void editedOccurrencesReplaceTheExpandedOnes() {
+        Event edited = weekly.createOccurrence(3);
+        weekly.addOverride(3, edited);
+        ArrayList<Event> events = new ArrayList<>(weekly.getEvents());
+        assertEquals(10, events.size());
+        assertSame(edited, events.get(3));
+        LocalDate day = weekly.occurrenceStart(3).toLocalDate();
+        assertTrue(weekly.getOccurrences(day, day).isEmpty());
+    }
+
+    @Test
+    public void positionOfAnOccurrenceIsFoundByItsStart() {
+        assertEquals(4, weekly.getPosition(weekly.createOccurrence(4)));
+        assertEquals(-1, weekly.getPosition(new Event("Other", FIRST.plusHours(1), FIRST.plusHours(2))));
+    }
+
+    @Test
+    public void theFrequencyMustBePositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RecurringSeries("Never", FIRST, Duration.ofHours(1), Period.ZERO, 3));
+    }
+}
@@ -0,0 +1,83 @@
+package CalendarSystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void usersAreAddedOnceAndAuthenticatedByPassword() throws IOException {
+        UserStore store = new UserStore(dir.resolve("users.csv"));
+        assertEquals(0, store.size());
+        assertTrue(store.addUser("alice", "secret,with,commas"));
+        assertFalse(store.addUser("alice", "other"));
+        assertTrue(store.contains("alice"));
+        assertTrue(store.authenticate("alice", "secret,with,commas"));
+        assertFalse(store.authenticate("alice", "other"));
+        assertFalse(store.authenticate("bob", null));
+        assertThrows(IllegalArgumentException.class, () -> store.addUser("a,b", "x"));
+    }
+
+    @Test
+    public void linesAddedOrRewrittenByOthersAreRead() throws IOException {
+        Path path = dir.resolve("users.csv");
+        UserStore store = new UserStore(path);
+        store.addUser("alice", "a");
+        Files.write(path, "bob,b\r\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertTrue(store.authenticate("bob", "b"));
+        assertEquals(2, store.size());
+
+        Files.write(path, "carol,c\n".getBytes(StandardCharsets.UTF_8));
+        assertFalse(store.contains("alice"));
+        assertTrue(store.contains("carol"));
+
+        Files.delete(path);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void storesOnTheSameFileAddUsersAtOnce() throws Exception {
+        Path path = dir.resolve("users.csv");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> added = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                added.add(pool.submit(() -> {
+                    UserStore store = new UserStore(path);
+                    int count = 0;
+                    for (int i = 0; i < 100; i++) {
+                        count += store.addUser("user" + i, "p") ? 1 : 0; // every store tries every name
+                    }
+                    return count;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> f : added) {
+                total += f.get();
+            }
+            assertEquals(100, total);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(100, new UserStore(path).size());
+    }
+}
@@ -0,0 +1,90 @@
+package Server;
+
+import CalendarSystem.UserStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CalendarServerTest {
+
+    @TempDir
+    Path dir;
+
+    private CalendarServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        UserStore users = new UserStore(dir.resolve("users.csv"));
+        for (int i = 0; i <= CalendarServer.MAX_RESIDENT_USERS; i++) {
+            users.addUser("user" + i, "password");
+        }
+        server = new CalendarServer(new InetSocketAddress("localhost", 0), users, dir + "/");
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> request(String user, String method, String path, String body) throws Exception {
+        String credentials = Base64.getEncoder().encodeToString((user + ":password").getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .header("Authorization", "Basic " + credentials)
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> events(HttpResponse<String> response) {
+        return (List<Map<String, Object>>) Json.parse(response.body());
+    }
+
+    @Test
+    public void requestsWithoutAKnownUserAreRefused() throws Exception {
+        assertEquals(401, request("nobody", "GET", "/events", null).statusCode());
+    }
+
+    @Test
+    public void eventsAreAddedAndFoundByDate() throws Exception {
+        assertEquals(201, request("user0", "POST", "/events",
+                "{\"name\": \"Trip\", \"start\": \"2020-04-06T09:00\", \"end\": \"2020-04-09T18:00\"}").statusCode());
+        assertEquals(201, request("user0", "POST", "/events",
+                "{\"name\": \"Lunch\", \"start\": \"2020-04-20T12:00\", \"end\": \"2020-04-20T13:00\"}").statusCode());
+
+        List<Map<String, Object>> found = events(request("user0", "GET", "/events?from=2020-04-07&to=2020-04-08", null));
+        assertEquals(1, found.size());
+        assertEquals("Trip", found.get(0).get("name"));
+        assertEquals(2, events(request("user0", "GET", "/events?from=2020-04-01&to=2020-04-30", null)).size());
+        assertEquals(400, request("user0", "GET", "/events?from=0001-01-01&to=9999-12-31", null).statusCode());
+    }
+
+    @Test
+    public void aUserDroppedForOthersFindsTheirEventsAgain() throws Exception {
+        assertEquals(201, request("user0", "POST", "/events",
+                "{\"name\": \"Lunch\", \"start\": \"2020-04-06T12:00\", \"end\": \"2020-04-06T13:00\"}").statusCode());
+        for (int i = 1; i <= CalendarServer.MAX_RESIDENT_USERS; i++) {
+            assertEquals(200, request("user" + i, "GET", "/events", null).statusCode());
+        }
+        List<Map<String, Object>> found = events(request("user0", "GET", "/events", null));
+        assertEquals(1, found.size());
+        assertEquals("Lunch", found.get(0).get("name"));
+    }
+}